@@ -0,0 +1,92 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution of a representative set of checks on the sources, each operation running one check on all the files.
+ * Contexts of the files are created again before each operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChecksBenchmark {
+
+  /**
+   * Simple names of checks of the <code>org.sonar.java.checks</code> package: text based, tree based, semantic based and CFG based checks.
+   */
+  @Param({
+    "TooLongLine_S00103_Check",
+    "CommentedOutCodeLineCheck",
+    "MethodComplexityCheck",
+    "IdenticalCasesInSwitchCheck",
+    "HiddenFieldCheck",
+    "UnusedLocalVariableCheck",
+    "UnusedPrivateMethodCheck",
+    "DeadStoreCheck"})
+  public String check;
+
+  private List<File> files;
+  private List<DefaultJavaFileScannerContext> contexts;
+  private Class<? extends JavaFileScanner> checkClass;
+
+  @Setup
+  public void setup() throws ClassNotFoundException {
+    files = Sources.javaFiles();
+    checkClass = Class.forName("org.sonar.java.checks." + check).asSubclass(JavaFileScanner.class);
+  }
+
+  @Setup(Level.Invocation)
+  public void createContexts() {
+    contexts = Sources.contexts(files);
+  }
+
+  @Benchmark
+  public int scan() throws ReflectiveOperationException {
+    int issues = 0;
+    for (DefaultJavaFileScannerContext context : contexts) {
+      checkClass.newInstance().scanFile(context);
+      issues += ((Sources.Context) context).issues();
+    }
+    return issues;
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.benchmarks;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.LiveVariables;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control flow graphs and live variables of the methods of the sources, each operation processing all the methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ControlFlowBenchmark {
+
+  private final List<MethodTree> methods = Lists.newArrayList();
+  private final List<CFG> cfgs = Lists.newArrayList();
+
+  @Setup
+  public void setup() {
+    for (DefaultJavaFileScannerContext context : Sources.contexts(Sources.javaFiles())) {
+      context.getTree().accept(new BaseTreeVisitor() {
+        @Override
+        public void visitMethod(MethodTree tree) {
+          if (tree.block() != null) {
+            methods.add(tree);
+          }
+          super.visitMethod(tree);
+        }
+      });
+    }
+    for (MethodTree method : methods) {
+      cfgs.add(CFG.build(method));
+    }
+  }
+
+  @Benchmark
+  public void buildCfg(Blackhole blackhole) {
+    for (MethodTree method : methods) {
+      blackhole.consume(CFG.build(method));
+    }
+  }
+
+  @Benchmark
+  public void analyzeLiveVariables(Blackhole blackhole) {
+    for (CFG cfg : cfgs) {
+      blackhole.consume(LiveVariables.analyze(cfg));
+    }
+  }
+
+}
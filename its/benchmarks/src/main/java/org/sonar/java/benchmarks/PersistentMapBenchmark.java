@@ -0,0 +1,110 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.collections.AVLTree;
+import org.sonar.java.collections.HashArrayMappedTrie;
+import org.sonar.java.collections.PMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations of program states on their persistent maps, keys having identity hash codes as symbols and symbolic values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PersistentMapBenchmark {
+
+  @Param({"AVL_TREE", "HASH_ARRAY_MAPPED_TRIE"})
+  public String implementation;
+
+  @Param({"4", "32", "256"})
+  public int size;
+
+  private Object[] keys;
+  private PMap<Object, Object> map;
+
+  @Setup
+  public void setup() {
+    keys = new Object[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = new Object();
+    }
+    map = fill(emptyMap());
+  }
+
+  private PMap<Object, Object> emptyMap() {
+    if ("AVL_TREE".equals(implementation)) {
+      return AVLTree.create();
+    }
+    return HashArrayMappedTrie.create();
+  }
+
+  private PMap<Object, Object> fill(PMap<Object, Object> empty) {
+    PMap<Object, Object> result = empty;
+    for (Object key : keys) {
+      result = result.put(key, key);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public PMap<Object, Object> put() {
+    return fill(emptyMap());
+  }
+
+  @Benchmark
+  public void get(Blackhole blackhole) {
+    for (Object key : keys) {
+      blackhole.consume(map.get(key));
+    }
+  }
+
+  @Benchmark
+  public PMap<Object, Object> update() {
+    return map.put(keys[size / 2], Boolean.TRUE);
+  }
+
+  /**
+   * As done by the exploded graph to find out if a state has already been explored.
+   */
+  @Benchmark
+  public boolean equalsAfterUpdates() {
+    PMap<Object, Object> other = map.put(keys[0], Boolean.TRUE).put(keys[0], keys[0]);
+    return other.hashCode() == map.hashCode() && other.equals(map);
+  }
+
+}
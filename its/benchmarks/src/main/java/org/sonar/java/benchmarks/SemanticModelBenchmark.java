@@ -0,0 +1,78 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of the semantic models of the sources, each operation resolving all the files.
+ * Resolution annotates the trees, so they are parsed again before each operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SemanticModelBenchmark {
+
+  private List<File> files;
+  private List<CompilationUnitTree> trees;
+
+  @Setup
+  public void setup() {
+    files = Sources.javaFiles();
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    trees = Sources.trees(files);
+  }
+
+  @Benchmark
+  public void createSemanticModel(Blackhole blackhole) {
+    for (CompilationUnitTree tree : trees) {
+      try {
+        blackhole.consume(SemanticModel.createFor(tree, Collections.<File>emptyList()));
+      } catch (Exception e) {
+        // file not relevant for the benchmarks
+      }
+    }
+  }
+
+}
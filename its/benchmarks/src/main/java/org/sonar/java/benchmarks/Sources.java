@@ -0,0 +1,161 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.sonar.sslr.api.typed.ActionParser;
+import org.apache.commons.io.FileUtils;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.squidbridge.api.SourceFile;
+
+import javax.annotation.Nullable;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Java files analyzed by the benchmarks, taken from the sources of the ruling ITs.
+ */
+final class Sources {
+
+  /**
+   * Directory of the sources, by default the <code>its/sources</code> submodule.
+   */
+  static final String DIRECTORY_PROPERTY = "sonar.java.benchmarks.sources";
+  /**
+   * Maximum number of files to analyze.
+   */
+  static final String FILES_PROPERTY = "sonar.java.benchmarks.files";
+  /**
+   * Maximum percentage of the files which can be skipped because they can not be parsed or resolved.
+   */
+  static final String MAX_SKIPPED_PERCENT_PROPERTY = "sonar.java.benchmarks.maxSkippedPercent";
+
+  private Sources() {
+  }
+
+  static List<File> javaFiles() {
+    File directory = new File(System.getProperty(DIRECTORY_PROPERTY, "../sources"));
+    Preconditions.checkState(directory.isDirectory(), "Directory of sources not found: %s", directory.getAbsolutePath());
+    List<File> files = Lists.newArrayList(FileUtils.listFiles(directory, new String[] {"java"}, true));
+    Collections.sort(files);
+    int limit = Integer.getInteger(FILES_PROPERTY, 200);
+    return files.size() > limit ? files.subList(0, limit) : files;
+  }
+
+  static ActionParser<Tree> parser() {
+    return JavaParser.createParser(Charsets.UTF_8);
+  }
+
+  /**
+   * @return trees of the files which can be parsed
+   */
+  static List<CompilationUnitTree> trees(List<File> files) {
+    ActionParser<Tree> parser = parser();
+    List<CompilationUnitTree> trees = Lists.newArrayList();
+    int skipped = 0;
+    for (File file : files) {
+      try {
+        trees.add((CompilationUnitTree) parser.parse(file));
+      } catch (Exception e) {
+        skip(file, e);
+        skipped++;
+      }
+    }
+    checkSkipped("trees", files.size(), skipped);
+    return trees;
+  }
+
+  /**
+   * Trees and contexts cache data computed by the analysis (tokens, CFGs, content of the file...): benchmarks create new contexts
+   * before each operation, so that they do not measure cache hits.
+   *
+   * @return contexts of the files which can be parsed and resolved without classpath
+   */
+  static List<DefaultJavaFileScannerContext> contexts(List<File> files) {
+    ActionParser<Tree> parser = parser();
+    List<DefaultJavaFileScannerContext> contexts = Lists.newArrayList();
+    int skipped = 0;
+    for (File file : files) {
+      try {
+        CompilationUnitTree tree = (CompilationUnitTree) parser.parse(file);
+        SemanticModel semanticModel = SemanticModel.createFor(tree, Collections.<File>emptyList());
+        contexts.add(new Context(tree, file, semanticModel));
+      } catch (Exception e) {
+        skip(file, e);
+        skipped++;
+      }
+    }
+    checkSkipped("contexts", files.size(), skipped);
+    return contexts;
+  }
+
+  private static void skip(File file, Exception e) {
+    System.err.println("Skipped " + file.getPath() + ": " + e);
+  }
+
+  /**
+   * Prints the number of files used, and fails the setup of the benchmark when too many files were skipped for its results to be
+   * compared with previous runs.
+   */
+  private static void checkSkipped(String data, int files, int skipped) {
+    System.err.println("Created " + data + " of " + (files - skipped) + " files out of " + files + " (" + skipped + " skipped)");
+    int maxSkippedPercent = Integer.getInteger(MAX_SKIPPED_PERCENT_PROPERTY, 10);
+    Preconditions.checkState(skipped * 100L <= maxSkippedPercent * (long) files,
+      "%s of %s files skipped, more than %s percent: check the directory of sources", skipped, files, maxSkippedPercent);
+  }
+
+  /**
+   * Context which only counts the issues, as there is no SonarQube component to report them to.
+   */
+  static class Context extends DefaultJavaFileScannerContext {
+
+    private int issues = 0;
+
+    Context(CompilationUnitTree tree, File file, SemanticModel semanticModel) {
+      super(tree, new SourceFile(file.getAbsolutePath(), file.getPath()), file, semanticModel, false, null, new JavaVersionImpl(), true, null, Charsets.UTF_8);
+    }
+
+    @Override
+    public void addIssue(int line, JavaCheck javaCheck, String message, @Nullable Double cost) {
+      issues++;
+    }
+
+    @Override
+    public void reportIssue(JavaCheck javaCheck, Tree syntaxNode, String message, List<Location> secondary, @Nullable Integer cost) {
+      issues++;
+    }
+
+    int issues() {
+      return issues;
+    }
+
+  }
+
+}
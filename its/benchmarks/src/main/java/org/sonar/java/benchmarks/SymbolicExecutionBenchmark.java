@@ -0,0 +1,85 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.se.SymbolicExecutionConfiguration;
+import org.sonar.java.se.SymbolicExecutionMetrics;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exploration of the methods of the sources by the {@link org.sonar.java.se.ExplodedGraphWalker}, with the default configuration
+ * and the symbolic execution checks, each operation exploring all the methods. The cleanup of dead values is compared to the default
+ * exploration: the returned metrics give the number of explored nodes of each mode.
+ * Contexts of the files are created again before each operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SymbolicExecutionBenchmark {
+
+  @Param({"false", "true"})
+  public boolean cleanupDeadValues;
+
+  private List<File> files;
+  private List<DefaultJavaFileScannerContext> contexts;
+  private SymbolicExecutionConfiguration configuration;
+
+  @Setup
+  public void setup() {
+    files = Sources.javaFiles();
+    configuration = new SymbolicExecutionConfiguration();
+    configuration.setCleanupDeadValues(cleanupDeadValues);
+  }
+
+  @Setup(Level.Invocation)
+  public void createContexts() {
+    contexts = Sources.contexts(files);
+  }
+
+  @Benchmark
+  public SymbolicExecutionMetrics explore() {
+    SymbolicExecutionMetrics metrics = new SymbolicExecutionMetrics();
+    for (DefaultJavaFileScannerContext context : contexts) {
+      new SymbolicExecutionVisitor(configuration, metrics).scanFile(context);
+    }
+    return metrics;
+  }
+
+}
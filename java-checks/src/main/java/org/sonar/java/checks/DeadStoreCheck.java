@@ -25,6 +25,7 @@ import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.FlowCache;
 import org.sonar.java.cfg.LiveVariables;
 import org.sonar.java.cfg.LocalVariableReadExtractor;
 import org.sonar.java.checks.helpers.ExpressionsHelper;
@@ -84,8 +85,9 @@ public class DeadStoreCheck extends SubscriptionBaseVisitor {
     }
 
     Symbol.MethodSymbol methodSymbol = methodTree.symbol();
-    CFG cfg = CFG.build(methodTree);
-    LiveVariables liveVariables = LiveVariables.analyze(cfg);
+    FlowCache flowCache = FlowCache.of(context);
+    CFG cfg = flowCache.cfg(methodTree);
+    LiveVariables liveVariables = flowCache.liveVariables(methodTree);
     // Liveness analysis provides information only for block boundaries, so we should do analysis between elements within blocks
     for (CFG.Block block : cfg.blocks()) {
       checkElements(block, liveVariables.getOut(block), methodSymbol);
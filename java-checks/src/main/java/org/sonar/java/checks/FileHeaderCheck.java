@@ -19,20 +19,18 @@
  */
 package org.sonar.java.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.CharsetAwareVisitor;
+import org.sonar.java.model.FileText;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
-import org.sonar.squidbridge.api.AnalysisException;
 
 import java.io.File;
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.Iterator;
@@ -93,26 +91,18 @@ public class FileHeaderCheck extends SubscriptionBaseVisitor implements CharsetA
     } else {
       expectedLines = headerFormat.split("(?:\r)?\n|\r");
     }
-    visitFile(context.getFile());
+    visitFile(FileText.of(context, charset));
   }
 
   public void visitFile(File file) {
+    visitFile(FileText.load(file, charset));
+  }
+
+  private void visitFile(FileText fileText) {
     if (isRegularExpression) {
-      String fileContent;
-      try {
-        fileContent = Files.toString(file, charset);
-      } catch (IOException e) {
-        throw new AnalysisException(e);
-      }
-      checkRegularExpression(fileContent);
+      checkRegularExpression(fileText.content());
     } else {
-      List<String> lines;
-      try {
-        lines = Files.readLines(file, charset);
-      } catch (IOException e) {
-        throw new AnalysisException(e);
-      }
-      if (!matches(expectedLines, lines)) {
+      if (!matches(expectedLines, fileText.lines())) {
         addIssueOnFile(MESSAGE);
       }
     }
@@ -19,8 +19,9 @@
  */
 package org.sonar.java.checks;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Sets;
+import com.google.common.collect.ListMultimap;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
@@ -31,7 +32,6 @@ import org.sonar.java.tag.Tag;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.CaseGroupTree;
-import org.sonar.plugins.java.api.tree.CaseLabelTree;
 import org.sonar.plugins.java.api.tree.ConditionalExpressionTree;
 import org.sonar.plugins.java.api.tree.IfStatementTree;
 import org.sonar.plugins.java.api.tree.StatementTree;
@@ -41,7 +41,6 @@ import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
 import java.util.List;
-import java.util.Set;
 
 @Rule(
   key = "S1871",
@@ -69,21 +68,17 @@ public class IdenticalCasesInSwitchCheck extends SubscriptionBaseVisitor {
   }
 
   public void checkSwitchStatement(SwitchStatementTree node) {
-    int index = 0;
-    List<CaseGroupTree> cases = node.cases();
-    Set<CaseLabelTree> reportedLabels = Sets.newHashSet();
-    for (CaseGroupTree caseGroupTree : cases) {
-      index++;
-      for (int i = index; i < cases.size(); i++) {
-        CaseGroupTree current = cases.get(i);
-        if (SyntacticEquivalence.areEquivalent(caseGroupTree.body(), current.body())) {
-          CaseLabelTree labelToReport = getLastLabel(current);
-          if (!reportedLabels.contains(labelToReport)) {
-            reportedLabels.add(labelToReport);
-            createIssue(current, issueMessage("case", caseGroupTree), caseGroupTree);
-          }
+    // cases are grouped by hash of their body, so that only bodies likely to be equivalent are compared
+    ListMultimap<Integer, CaseGroupTree> casesByHash = ArrayListMultimap.create();
+    for (CaseGroupTree caseGroupTree : node.cases()) {
+      int hash = SyntacticEquivalence.hash(caseGroupTree.body());
+      for (CaseGroupTree previous : casesByHash.get(hash)) {
+        if (SyntacticEquivalence.areEquivalent(previous.body(), caseGroupTree.body())) {
+          createIssue(caseGroupTree, issueMessage("case", previous), previous);
+          break;
         }
       }
+      casesByHash.put(hash, caseGroupTree);
     }
   }
 
@@ -125,8 +120,4 @@ public class IdenticalCasesInSwitchCheck extends SubscriptionBaseVisitor {
     }
   }
 
-  private static CaseLabelTree getLastLabel(CaseGroupTree cases) {
-    return cases.labels().get(cases.labels().size() - 1);
-  }
-
 }
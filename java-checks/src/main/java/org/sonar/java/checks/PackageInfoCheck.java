@@ -19,18 +19,20 @@
  */
 package org.sonar.java.checks;
 
-import com.google.common.collect.Sets;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.java.tag.Tag;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.ThreadSafeVisitor;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Rule(
   key = "S1228",
@@ -39,16 +41,18 @@ import java.util.Set;
   tags = {Tag.CONVENTION})
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.UNDERSTANDABILITY)
 @SqaleConstantRemediation("20min")
-public class PackageInfoCheck implements JavaFileScanner {
+public class PackageInfoCheck implements JavaFileScanner, ThreadSafeVisitor {
 
-  Set<File> directoriesWithoutPackageFile = Sets.newHashSet();
+  /**
+   * Shared by the files of the project, whichever worker scans them, so that each directory is reported once.
+   */
+  Set<File> directoriesWithoutPackageFile = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     File parentFile = context.getFile().getParentFile();
-    if (!new File(parentFile, "package-info.java").isFile() && !directoriesWithoutPackageFile.contains(parentFile)) {
+    if (!new File(parentFile, "package-info.java").isFile() && directoriesWithoutPackageFile.add(parentFile)) {
       context.addIssue(parentFile, PackageInfoCheck.this, -1, "Add a 'package-info.java' file to document the '" + parentFile.getName() + "' package");
-      directoriesWithoutPackageFile.add(parentFile);
     }
   }
 
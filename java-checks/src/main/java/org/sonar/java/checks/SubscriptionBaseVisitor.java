@@ -21,19 +21,10 @@ package org.sonar.java.checks;
 
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
 
 public abstract class SubscriptionBaseVisitor extends IssuableSubscriptionVisitor {
 
-  private SemanticModel semanticModel;
-
-  @Override
-  public void scanFile(JavaFileScannerContext context) {
-    semanticModel = (SemanticModel) context.getSemanticModel();
-    super.scanFile(context);
-  }
-
   public SemanticModel getSemanticModel() {
-    return semanticModel;
+    return context == null ? null : (SemanticModel) context.getSemanticModel();
   }
 }
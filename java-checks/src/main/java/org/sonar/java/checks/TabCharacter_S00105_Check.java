@@ -19,20 +19,17 @@
  */
 package org.sonar.java.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
-import org.sonar.api.utils.SonarException;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.java.CharsetAwareVisitor;
+import org.sonar.java.model.FileText;
 import org.sonar.java.tag.Tag;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.File;
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
@@ -60,16 +57,10 @@ public class TabCharacter_S00105_Check extends SubscriptionBaseVisitor implement
   @Override
   public void scanFile(JavaFileScannerContext context) {
     super.context = context;
-    visitFile(context.getFile());
+    visitFile(FileText.of(context, charset).lines());
   }
 
-  public void visitFile(File file) {
-    List<String> lines;
-    try {
-      lines = Files.readLines(file, charset);
-    } catch (IOException e) {
-      throw new SonarException(e);
-    }
+  private void visitFile(List<String> lines) {
     for (String line : lines) {
       if (line.contains("\t")) {
         addIssueOnFile("Replace all tab characters in this file by sequences of white-spaces.");
@@ -20,13 +20,12 @@
 package org.sonar.java.checks;
 
 import com.google.common.collect.Sets;
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
-import org.sonar.api.utils.SonarException;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.CharsetAwareVisitor;
+import org.sonar.java.model.FileText;
 import org.sonar.java.tag.Tag;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
@@ -37,8 +36,6 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.File;
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.text.MessageFormat;
 import java.util.Collections;
@@ -81,7 +78,7 @@ public class TooLongLine_S00103_Check extends SubscriptionBaseVisitor implements
     ignoredLines.clear();
     ignoreLines(context.getTree());
     super.scanFile(context);
-    visitFile(context.getFile());
+    visitFile(FileText.of(context, charset).lines());
   }
 
   public void ignoreLines(CompilationUnitTree tree) {
@@ -106,13 +103,7 @@ public class TooLongLine_S00103_Check extends SubscriptionBaseVisitor implements
     return ((EmptyStatementTree) importClauseTree).semicolonToken().line();
   }
 
-  private void visitFile(File file) {
-    List<String> lines;
-    try {
-      lines = Files.readLines(file, charset);
-    } catch (IOException e) {
-      throw new SonarException(e);
-    }
+  private void visitFile(List<String> lines) {
     for (int i = 0; i < lines.size(); i++) {
       if (!ignoredLines.contains(i + 1)) {
         String line = lines.get(i);
@@ -29,7 +29,7 @@ import java.util.List;
 
 public abstract class AbstractMethodDetection extends SubscriptionBaseVisitor {
 
-  private List<MethodMatcher> matchers;
+  private MethodMatcherIndex matcherIndex;
 
   @Override
   public List<Tree.Kind> nodesToVisit() {
@@ -39,22 +39,18 @@ public abstract class AbstractMethodDetection extends SubscriptionBaseVisitor {
   @Override
   public void visitNode(Tree tree) {
     if (hasSemantic()) {
-      for (MethodMatcher invocationMatcher : matchers()) {
-        checkInvocation(tree, invocationMatcher);
-      }
-    }
-  }
-
-  private void checkInvocation(Tree tree, MethodMatcher invocationMatcher) {
-    if (tree.is(Tree.Kind.METHOD_INVOCATION)) {
-      MethodInvocationTree mit = (MethodInvocationTree) tree;
-      if (invocationMatcher.matches(mit)) {
-        onMethodInvocationFound(mit);
-      }
-    } else if (tree.is(Tree.Kind.NEW_CLASS)) {
-      NewClassTree newClassTree = (NewClassTree) tree;
-      if (invocationMatcher.matches(newClassTree)) {
-        onConstructorFound(newClassTree);
+      if (tree.is(Tree.Kind.METHOD_INVOCATION)) {
+        MethodInvocationTree mit = (MethodInvocationTree) tree;
+        int matches = matcherIndex().matchCount(mit);
+        for (int i = 0; i < matches; i++) {
+          onMethodInvocationFound(mit);
+        }
+      } else if (tree.is(Tree.Kind.NEW_CLASS)) {
+        NewClassTree newClassTree = (NewClassTree) tree;
+        int matches = matcherIndex().matchCount(newClassTree);
+        for (int i = 0; i < matches; i++) {
+          onConstructorFound(newClassTree);
+        }
       }
     }
   }
@@ -69,10 +65,10 @@ public abstract class AbstractMethodDetection extends SubscriptionBaseVisitor {
     // Do nothing by default
   }
 
-  private List<MethodMatcher> matchers() {
-    if (matchers == null) {
-      matchers = getMethodInvocationMatchers();
+  private MethodMatcherIndex matcherIndex() {
+    if (matcherIndex == null) {
+      matcherIndex = MethodMatcherIndex.create(getMethodInvocationMatchers());
     }
-    return matchers;
+    return matcherIndex;
   }
 }
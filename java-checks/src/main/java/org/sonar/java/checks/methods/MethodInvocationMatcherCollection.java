@@ -28,7 +28,8 @@ import java.util.List;
 
 public class MethodInvocationMatcherCollection {
 
-  private List<MethodMatcher> matchers = Lists.newLinkedList();
+  private List<MethodMatcher> matchers = Lists.newArrayList();
+  private MethodMatcherIndex index;
 
   private MethodInvocationMatcherCollection() {
   }
@@ -45,24 +46,22 @@ public class MethodInvocationMatcherCollection {
 
   public MethodInvocationMatcherCollection add(MethodMatcher matcher) {
     this.matchers.add(matcher);
+    index = null;
     return this;
   }
 
   public boolean anyMatch(MethodInvocationTree mit) {
-    for (MethodMatcher matcher : matchers) {
-      if (matcher.matches(mit)) {
-        return true;
-      }
-    }
-    return false;
+    return index().anyMatch(mit);
   }
 
   public boolean anyMatch(final MethodTree method) {
-    for (MethodMatcher matcher : matchers) {
-      if (matcher.matches(method)) {
-        return true;
-      }
+    return index().anyMatch(method);
+  }
+
+  private MethodMatcherIndex index() {
+    if (index == null) {
+      index = MethodMatcherIndex.create(matchers);
     }
-    return false;
+    return index;
   }
 }
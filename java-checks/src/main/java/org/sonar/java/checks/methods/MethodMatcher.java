@@ -32,6 +32,8 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import javax.annotation.CheckForNull;
+
 import java.util.List;
 
 public class MethodMatcher {
@@ -163,7 +165,23 @@ public class MethodMatcher {
     return true;
   }
 
-  private static IdentifierTree getIdentifier(MethodInvocationTree mit) {
+  /**
+   * @return criteria on the name of the method, null when no method is matched
+   */
+  @CheckForNull
+  NameCriteria nameCriteria() {
+    return methodName;
+  }
+
+  /**
+   * @return number of parameters of the matched methods, -1 when not constrained
+   */
+  int arity() {
+    return parameterTypes == null ? -1 : parameterTypes.size();
+  }
+
+  @CheckForNull
+  static IdentifierTree getIdentifier(MethodInvocationTree mit) {
     IdentifierTree id = null;
     if (mit.methodSelect().is(Tree.Kind.IDENTIFIER)) {
       id = (IdentifierTree) mit.methodSelect();
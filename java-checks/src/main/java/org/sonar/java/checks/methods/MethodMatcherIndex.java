@@ -0,0 +1,219 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.checks.methods;
+
+import com.google.common.collect.ImmutableList;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Method matchers indexed by method name and number of parameters: the matchers which may match a method are found with one lookup on
+ * its name, and most methods are rejected without evaluating any matcher. Matchers are kept in their original order.
+ * Matchers without criteria on the name (e.g. subclasses overriding the <code>matches</code> methods) are evaluated on every method.
+ */
+public final class MethodMatcherIndex {
+
+  private final Map<String, List<IndexedMatcher>> matchersByName = new HashMap<>();
+  /**
+   * Matchers whose name criteria matches several names, and matchers without name criteria.
+   */
+  private final List<IndexedMatcher> otherMatchers = new ArrayList<>();
+  private boolean hasNamedMatchers = false;
+
+  private MethodMatcherIndex(List<MethodMatcher> matchers) {
+    int position = 0;
+    for (MethodMatcher matcher : matchers) {
+      NameCriteria nameCriteria = matcher.nameCriteria();
+      IndexedMatcher indexedMatcher = new IndexedMatcher(position, matcher, nameCriteria != null);
+      String name = nameCriteria == null ? null : nameCriteria.exactName();
+      if (name == null) {
+        otherMatchers.add(indexedMatcher);
+      } else {
+        List<IndexedMatcher> named = matchersByName.get(name);
+        if (named == null) {
+          named = new ArrayList<>();
+          matchersByName.put(name, named);
+        }
+        named.add(indexedMatcher);
+      }
+      hasNamedMatchers |= indexedMatcher.named;
+      position++;
+    }
+  }
+
+  public static MethodMatcherIndex create(List<MethodMatcher> matchers) {
+    return new MethodMatcherIndex(matchers);
+  }
+
+  public static MethodMatcherIndex create(MethodMatcher... matchers) {
+    return new MethodMatcherIndex(ImmutableList.copyOf(matchers));
+  }
+
+  /**
+   * @return matchers matching the invocation, in their original order
+   */
+  public List<MethodMatcher> matching(MethodInvocationTree mit) {
+    List<MethodMatcher> result = Collections.emptyList();
+    for (MethodMatcher candidate : candidates(invokedSymbol(mit))) {
+      if (candidate.matches(mit)) {
+        result = add(result, candidate);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return number of matchers matching the invocation
+   */
+  public int matchCount(MethodInvocationTree mit) {
+    int count = 0;
+    for (MethodMatcher candidate : candidates(invokedSymbol(mit))) {
+      if (candidate.matches(mit)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return matchers matching the constructor invocation, in their original order
+   */
+  public List<MethodMatcher> matching(NewClassTree newClassTree) {
+    List<MethodMatcher> result = Collections.emptyList();
+    for (MethodMatcher candidate : candidates(newClassTree.constructorSymbol())) {
+      if (candidate.matches(newClassTree)) {
+        result = add(result, candidate);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return number of matchers matching the constructor invocation
+   */
+  public int matchCount(NewClassTree newClassTree) {
+    int count = 0;
+    for (MethodMatcher candidate : candidates(newClassTree.constructorSymbol())) {
+      if (candidate.matches(newClassTree)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public boolean anyMatch(MethodInvocationTree mit) {
+    return !matching(mit).isEmpty();
+  }
+
+  public boolean anyMatch(MethodTree methodTree) {
+    for (MethodMatcher candidate : candidates(methodTree.symbol())) {
+      if (candidate.matches(methodTree)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private Symbol invokedSymbol(MethodInvocationTree mit) {
+    if (!hasNamedMatchers) {
+      return null;
+    }
+    IdentifierTree identifier = MethodMatcher.getIdentifier(mit);
+    return identifier == null ? null : identifier.symbol();
+  }
+
+  private static List<MethodMatcher> add(List<MethodMatcher> result, MethodMatcher matcher) {
+    List<MethodMatcher> list = result.isEmpty() ? new ArrayList<MethodMatcher>() : result;
+    list.add(matcher);
+    return list;
+  }
+
+  /**
+   * @return matchers whose name and number of parameters are acceptable for the given symbol, in their original order
+   */
+  private List<MethodMatcher> candidates(@Nullable Symbol symbol) {
+    if (symbol == null || !symbol.isMethodSymbol()) {
+      return unnamedMatchers();
+    }
+    List<IndexedMatcher> named = matchersByName.get(symbol.name());
+    if (named == null && otherMatchers.isEmpty()) {
+      return Collections.emptyList();
+    }
+    int arity = ((Symbol.MethodSymbol) symbol).parameterTypes().size();
+    List<IndexedMatcher> exact = named == null ? Collections.<IndexedMatcher>emptyList() : named;
+    List<MethodMatcher> result = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (i < exact.size() || j < otherMatchers.size()) {
+      IndexedMatcher next;
+      if (j == otherMatchers.size() || (i < exact.size() && exact.get(i).position < otherMatchers.get(j).position)) {
+        next = exact.get(i);
+        i++;
+      } else {
+        next = otherMatchers.get(j);
+        j++;
+      }
+      if (next.arity < 0 || next.arity == arity) {
+        result.add(next.matcher);
+      }
+    }
+    return result;
+  }
+
+  private List<MethodMatcher> unnamedMatchers() {
+    if (otherMatchers.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<MethodMatcher> result = new ArrayList<>();
+    for (IndexedMatcher indexedMatcher : otherMatchers) {
+      if (!indexedMatcher.named) {
+        result.add(indexedMatcher.matcher);
+      }
+    }
+    return result;
+  }
+
+  private static class IndexedMatcher {
+    private final int position;
+    private final int arity;
+    private final MethodMatcher matcher;
+    private final boolean named;
+
+    IndexedMatcher(int position, MethodMatcher matcher, boolean named) {
+      this.position = position;
+      this.arity = named ? matcher.arity() : -1;
+      this.matcher = matcher;
+      this.named = named;
+    }
+  }
+
+}
@@ -19,9 +19,20 @@
  */
 package org.sonar.java.checks.methods;
 
+import javax.annotation.CheckForNull;
+
 public abstract class NameCriteria {
 
   public abstract boolean matches(String name);
+
+  /**
+   * @return the only name matched by this criteria, null when it matches several names
+   */
+  @CheckForNull
+  String exactName() {
+    return null;
+  }
+
   public static NameCriteria any() {
     return new AnyNameCriteria();
   }
@@ -44,6 +55,11 @@ public abstract class NameCriteria {
     public boolean matches(String name) {
       return exactName.equals(name);
     }
+
+    @Override
+    String exactName() {
+      return exactName;
+    }
   }
 
   private static class PrefixNameCriteria extends NameCriteria {
@@ -19,8 +19,12 @@
  */
 package org.sonar.java.checks.methods;
 
+import com.google.common.collect.MapMaker;
+import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
 
+import java.util.concurrent.ConcurrentMap;
+
 public abstract class TypeCriteria {
   public static TypeCriteria subtypeOf(String fullyQualifiedName) {
     return new SubtypeTypeCriteria(fullyQualifiedName);
@@ -36,7 +40,31 @@ public abstract class TypeCriteria {
 
   public abstract boolean matches(Type type);
 
-  private static class FullyQualifiedNameTypeCriteria extends TypeCriteria {
+  /**
+   * Criteria whose result only depends on the symbol of class types, which is cached for each symbol: criteria are shared by all the
+   * invocations of a project, and compare names of the type or of its supertypes.
+   */
+  private abstract static class SymbolCachedTypeCriteria extends TypeCriteria {
+    private final ConcurrentMap<Symbol.TypeSymbol, Boolean> matchingSymbols = new MapMaker().weakKeys().makeMap();
+
+    @Override
+    public final boolean matches(Type type) {
+      if (!type.isClass() || type.isUnknown()) {
+        return matchesType(type);
+      }
+      Symbol.TypeSymbol symbol = type.symbol();
+      Boolean result = matchingSymbols.get(symbol);
+      if (result == null) {
+        result = matchesType(type);
+        matchingSymbols.put(symbol, result);
+      }
+      return result;
+    }
+
+    abstract boolean matchesType(Type type);
+  }
+
+  private static class FullyQualifiedNameTypeCriteria extends SymbolCachedTypeCriteria {
     private String fullyQualifiedName;
 
     public FullyQualifiedNameTypeCriteria(String fullyQualifiedName) {
@@ -44,12 +72,12 @@ public abstract class TypeCriteria {
     }
 
     @Override
-    public boolean matches(Type type) {
+    boolean matchesType(Type type) {
       return type.is(fullyQualifiedName);
     }
   }
 
-  private static class SubtypeTypeCriteria extends TypeCriteria {
+  private static class SubtypeTypeCriteria extends SymbolCachedTypeCriteria {
     private String superTypeName;
 
     public SubtypeTypeCriteria(String superTypeName) {
@@ -57,7 +85,7 @@ public abstract class TypeCriteria {
     }
 
     @Override
-    public boolean matches(Type type) {
+    boolean matchesType(Type type) {
       return type.isSubtypeOf(superTypeName);
     }
   }
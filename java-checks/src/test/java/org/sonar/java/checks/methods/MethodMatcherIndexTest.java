@@ -0,0 +1,112 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.checks.methods;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.checks.SubscriptionBaseVisitor;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MethodMatcherIndexTest {
+
+  @Test
+  public void matching_invocations_in_matchers_order() {
+    MethodMatcher objectToString = MethodMatcher.create().typeDefinition(TypeCriteria.subtypeOf("java.lang.Object")).name("toString");
+    MethodMatcher anyTo = MethodMatcher.create().typeDefinition(TypeCriteria.anyType()).name(NameCriteria.startsWith("to")).withNoParameterConstraint();
+    MethodMatcher integerToString = MethodMatcher.create().typeDefinition("java.lang.Integer").name("toString");
+    MethodMatcher toStringWithParameter = MethodMatcher.create().typeDefinition(TypeCriteria.anyType()).name("toString").addParameter("int");
+    MethodMatcher noName = MethodMatcher.create().typeDefinition(TypeCriteria.anyType());
+    MethodMatcherIndex index = MethodMatcherIndex.create(objectToString, anyTo, integerToString, toStringWithParameter, noName);
+
+    Visitor visitor = new Visitor(index);
+    JavaAstScanner.scanSingleFileForTests(new File("src/test/files/checks/methodMatcher/Test.java"), new VisitorsBridge(visitor));
+
+    assertThat(visitor.invocations).containsExactly(14);
+    assertThat(visitor.matching).hasSize(1);
+    assertThat(visitor.matching.get(0)).containsExactly(objectToString, anyTo, integerToString);
+    assertThat(visitor.matchCounts).containsExactly(3);
+    assertThat(visitor.matchingMethods).containsExactly(6, 9);
+  }
+
+  @Test
+  public void should_not_match_without_matchers() {
+    MethodMatcherIndex index = MethodMatcherIndex.create(ImmutableList.<MethodMatcher>of());
+    assertThat(index.matching(mock(MethodInvocationTree.class))).isEmpty();
+    assertThat(index.matchCount(mock(MethodInvocationTree.class))).isEqualTo(0);
+    assertThat(index.anyMatch(mock(MethodTree.class))).isFalse();
+  }
+
+  @Test
+  public void matchers_without_name_are_always_evaluated() {
+    MethodMatcher matcher = mock(MethodMatcher.class);
+    when(matcher.matches(any(MethodInvocationTree.class))).thenReturn(true);
+    when(matcher.matches(any(MethodTree.class))).thenReturn(true);
+    MethodMatcherIndex index = MethodMatcherIndex.create(matcher);
+    assertThat(index.matching(mock(MethodInvocationTree.class))).containsExactly(matcher);
+    assertThat(index.anyMatch(mock(MethodTree.class))).isTrue();
+  }
+
+  private static class Visitor extends SubscriptionBaseVisitor {
+
+    private final MethodMatcherIndex index;
+    private final List<Integer> invocations = new ArrayList<>();
+    private final List<List<MethodMatcher>> matching = new ArrayList<>();
+    private final List<Integer> matchCounts = new ArrayList<>();
+    private final List<Integer> matchingMethods = new ArrayList<>();
+
+    Visitor(MethodMatcherIndex index) {
+      this.index = index;
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.METHOD, Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      if (tree.is(Tree.Kind.METHOD_INVOCATION)) {
+        List<MethodMatcher> matchers = index.matching((MethodInvocationTree) tree);
+        if (!matchers.isEmpty()) {
+          invocations.add(((JavaTree) tree).getLine());
+          matching.add(matchers);
+          matchCounts.add(index.matchCount((MethodInvocationTree) tree));
+        }
+      } else if (index.anyMatch((MethodTree) tree)) {
+        matchingMethods.add(((JavaTree) tree).getLine());
+      }
+    }
+  }
+
+}
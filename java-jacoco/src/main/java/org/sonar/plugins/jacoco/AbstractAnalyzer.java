@@ -19,8 +19,9 @@
  */
 package org.sonar.plugins.jacoco;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang.StringUtils;
 import org.jacoco.core.analysis.CoverageBuilder;
 import org.jacoco.core.analysis.ICounter;
@@ -48,11 +49,19 @@ import java.io.File;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
 
 import static com.google.common.collect.Lists.newArrayList;
 
 public abstract class AbstractAnalyzer {
 
+  private static final ExecutionDataVisitor.SessionListener IGNORED_SESSIONS = new ExecutionDataVisitor.SessionListener() {
+    @Override
+    public void onSession(String sessionId, ExecutionDataStore executionDataStore) {
+      // coverage per test is not read
+    }
+  };
+
   private final ResourcePerspectives perspectives;
   private final ModuleFileSystem fileSystem;
   private final PathResolver pathResolver;
@@ -83,7 +92,11 @@ public abstract class AbstractAnalyzer {
   }
 
   private Resource getResource(ISourceFileCoverage coverage, SensorContext context) {
-    String className = fullyQualifiedClassName(coverage.getPackageName(), coverage.getName());
+    return getResource(coverage.getPackageName(), coverage.getName(), context);
+  }
+
+  private Resource getResource(String packageName, String sourceFileName, SensorContext context) {
+    String className = fullyQualifiedClassName(packageName, sourceFileName);
 
     Resource resourceInContext = context.getResource(javaResourceLocator.findResourceByClassName(className));
     if (resourceInContext == null) {
@@ -136,10 +149,22 @@ public abstract class AbstractAnalyzer {
       JaCoCoExtensions.LOG.info("Project coverage is set to 0% as no JaCoCo execution data has been dumped: {}", jacocoExecutionData);
       jacocoExecutionData = null;
     }
-    ExecutionDataVisitor executionDataVisitor = new ExecutionDataVisitor();
-    jacocoReportReader = new JacocoReportReader(jacocoExecutionData).readJacocoReport(executionDataVisitor, executionDataVisitor);
-
-    boolean collectedCoveragePerTest = readCoveragePerTests(context, executionDataVisitor);
+    jacocoReportReader = new JacocoReportReader(jacocoExecutionData);
+    CoveragePerTest coveragePerTest = new CoveragePerTest(context);
+    ExecutionDataVisitor executionDataVisitor;
+    if (!readCoveragePerTests || streamSessions()) {
+      // sessions are released as soon as they are read
+      executionDataVisitor = new ExecutionDataVisitor(readCoveragePerTests ? coveragePerTest : IGNORED_SESSIONS);
+      jacocoReportReader.readJacocoReport(executionDataVisitor, executionDataVisitor);
+      executionDataVisitor.endOfReport();
+    } else {
+      executionDataVisitor = new ExecutionDataVisitor();
+      jacocoReportReader.readJacocoReport(executionDataVisitor, executionDataVisitor);
+      for (Map.Entry<String, ExecutionDataStore> entry : executionDataVisitor.getSessions().entrySet()) {
+        coveragePerTest.onSession(entry.getKey(), entry.getValue());
+      }
+    }
+    boolean collectedCoveragePerTest = coveragePerTest.collected;
 
     CoverageBuilder coverageBuilder = jacocoReportReader.analyzeFiles(executionDataVisitor.getMerged(), classFilesCache.values());
     int analyzedResources = 0;
@@ -160,19 +185,29 @@ public abstract class AbstractAnalyzer {
     }
   }
 
-  private boolean readCoveragePerTests(SensorContext context, ExecutionDataVisitor executionDataVisitor) {
-    boolean collectedCoveragePerTest = false;
-    if (readCoveragePerTests) {
-      for (Map.Entry<String, ExecutionDataStore> entry : executionDataVisitor.getSessions().entrySet()) {
-        if (analyzeLinesCoveredByTests(entry.getKey(), entry.getValue(), context)) {
-          collectedCoveragePerTest = true;
-        }
+  /**
+   * Computes lines covered by each test, from the execution data of the session of the test.
+   * Nothing is kept from a session once its coverage is computed, so that memory does not depend on the number of tests.
+   */
+  private class CoveragePerTest implements ExecutionDataVisitor.SessionListener {
+    private final SensorContext context;
+    private final ClassCoverageCache classCoverageCache = new ClassCoverageCache(jacocoReportReader);
+    private boolean collected = false;
+
+    CoveragePerTest(SensorContext context) {
+      this.context = context;
+    }
+
+    @Override
+    public void onSession(String sessionId, ExecutionDataStore executionDataStore) {
+      if (analyzeLinesCoveredByTests(sessionId, executionDataStore, context, classCoverageCache)) {
+        collected = true;
       }
     }
-    return collectedCoveragePerTest;
   }
 
-  private boolean analyzeLinesCoveredByTests(String sessionId, ExecutionDataStore executionDataStore, SensorContext context) {
+  private boolean analyzeLinesCoveredByTests(String sessionId, ExecutionDataStore executionDataStore, SensorContext context,
+    ClassCoverageCache classCoverageCache) {
     int i = sessionId.indexOf(' ');
     if (i < 0) {
       return false;
@@ -185,43 +220,32 @@ public abstract class AbstractAnalyzer {
       return false;
     }
 
-    boolean result = false;
-    CoverageBuilder coverageBuilder = jacocoReportReader.analyzeFiles(executionDataStore, classFilesOfStore(executionDataStore));
-    for (ISourceFileCoverage coverage : coverageBuilder.getSourceFiles()) {
-      Resource resource = getResource(coverage, context);
-      if (resource != null) {
-        CoverageMeasuresBuilder builder = analyzeFile(resource, coverage);
-        List<Integer> coveredLines = getCoveredLines(builder);
-        if (!coveredLines.isEmpty() && addCoverage(resource, testResource, testName, coveredLines)) {
-          result = true;
+    // classes compiled from the same source file are merged, as by the coverage builder of JaCoCo
+    Map<List<String>, SortedSet<Integer>> coveredLinesBySourceFile = Maps.newLinkedHashMap();
+    for (ExecutionData data : executionDataStore.getContents()) {
+      File classFile = classFilesCache.get(data.getName());
+      ClassCoverageCache.ClassCoverage classCoverage = classFile == null ? null : classCoverageCache.coverage(data, classFile);
+      if (classCoverage != null && !classCoverage.coveredLines().isEmpty()) {
+        List<String> sourceFile = ImmutableList.of(classCoverage.packageName(), classCoverage.sourceFileName());
+        SortedSet<Integer> coveredLines = coveredLinesBySourceFile.get(sourceFile);
+        if (coveredLines == null) {
+          coveredLines = Sets.newTreeSet();
+          coveredLinesBySourceFile.put(sourceFile, coveredLines);
         }
+        coveredLines.addAll(classCoverage.coveredLines());
       }
     }
-    return result;
-  }
 
-  private Collection<File> classFilesOfStore(ExecutionDataStore executionDataStore) {
-    Collection<File> result = Lists.newArrayList();
-    for (ExecutionData data : executionDataStore.getContents()) {
-      String vmClassName = data.getName();
-      File classFile = classFilesCache.get(vmClassName);
-      if (classFile != null) {
-        result.add(classFile);
+    boolean result = false;
+    for (Map.Entry<List<String>, SortedSet<Integer>> entry : coveredLinesBySourceFile.entrySet()) {
+      Resource resource = getResource(entry.getKey().get(0), entry.getKey().get(1), context);
+      if (resource != null && addCoverage(resource, testResource, testName, newArrayList(entry.getValue()))) {
+        result = true;
       }
     }
     return result;
   }
 
-  private static List<Integer> getCoveredLines(CoverageMeasuresBuilder builder) {
-    List<Integer> linesCover = newArrayList();
-    for (Map.Entry<Integer, Integer> hitsByLine : builder.getHitsByLine().entrySet()) {
-      if (hitsByLine.getValue() > 0) {
-        linesCover.add(hitsByLine.getKey());
-      }
-    }
-    return linesCover;
-  }
-
   private boolean addCoverage(Resource resource, Resource testFile, String testName, List<Integer> coveredLines) {
     boolean result = false;
     Testable testAbleFile = perspectives.as(MutableTestable.class, resource);
@@ -272,4 +296,11 @@ public abstract class AbstractAnalyzer {
 
   protected abstract String getReportPath(Project project);
 
+  /**
+   * @return true if sessions are analyzed as soon as they are read from the report, instead of once the whole report is read
+   */
+  protected boolean streamSessions() {
+    return false;
+  }
+
 }
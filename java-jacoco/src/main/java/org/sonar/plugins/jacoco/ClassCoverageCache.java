@@ -0,0 +1,184 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2010 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.jacoco;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+
+import javax.annotation.CheckForNull;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Lines covered by the execution data of classes, used to compute coverage per test.
+ * Analysis of a class file is cached for each distinct set of executed probes of the class: tests share a lot of classes, of which
+ * they often execute the same probes, so that such classes are analyzed once for all those tests instead of once per test.
+ * Keys are copies of the executed probes, so that execution data of a session is not retained by the cache, and the least recently used
+ * entries are evicted once the cache is full.
+ */
+public class ClassCoverageCache {
+
+  @VisibleForTesting
+  static final int MAX_ENTRIES = 10000;
+
+  private final JacocoReportReader jacocoReportReader;
+  private final Map<ProbesKey, ClassCoverage> cache = new LinkedHashMap<ProbesKey, ClassCoverage>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<ProbesKey, ClassCoverage> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  public ClassCoverageCache(JacocoReportReader jacocoReportReader) {
+    this.jacocoReportReader = jacocoReportReader;
+  }
+
+  /**
+   * @return lines of the source file of the class covered by the given execution data,
+   * null if no probe was executed or if the class file contains no information about lines
+   */
+  @CheckForNull
+  public ClassCoverage coverage(ExecutionData executionData, File classFile) {
+    if (!hasHits(executionData.getProbes())) {
+      return null;
+    }
+    ProbesKey key = new ProbesKey(executionData);
+    if (cache.containsKey(key)) {
+      return cache.get(key);
+    }
+    ClassCoverage result = analyze(executionData, classFile);
+    cache.put(key, result);
+    return result;
+  }
+
+  @VisibleForTesting
+  int size() {
+    return cache.size();
+  }
+
+  private static boolean hasHits(boolean[] probes) {
+    for (boolean probe : probes) {
+      if (probe) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @CheckForNull
+  private ClassCoverage analyze(ExecutionData executionData, File classFile) {
+    ExecutionDataStore executionDataStore = new ExecutionDataStore();
+    executionDataStore.put(executionData);
+    CoverageBuilder coverageBuilder = jacocoReportReader.analyzeFiles(executionDataStore, Collections.singletonList(classFile));
+    Collection<ISourceFileCoverage> sourceFiles = coverageBuilder.getSourceFiles();
+    if (sourceFiles.isEmpty()) {
+      return null;
+    }
+    // a class is compiled from a single source file
+    ISourceFileCoverage coverage = sourceFiles.iterator().next();
+    List<Integer> coveredLines = newArrayList();
+    for (int lineId = coverage.getFirstLine(); lineId <= coverage.getLastLine(); lineId++) {
+      int status = coverage.getLine(lineId).getInstructionCounter().getStatus();
+      if (status == ICounter.FULLY_COVERED || status == ICounter.PARTLY_COVERED) {
+        coveredLines.add(lineId);
+      }
+    }
+    return new ClassCoverage(coverage.getPackageName(), coverage.getName(), coveredLines);
+  }
+
+  public static class ClassCoverage {
+    private final String packageName;
+    private final String sourceFileName;
+    private final List<Integer> coveredLines;
+
+    ClassCoverage(String packageName, String sourceFileName, List<Integer> coveredLines) {
+      this.packageName = packageName;
+      this.sourceFileName = sourceFileName;
+      this.coveredLines = Collections.unmodifiableList(coveredLines);
+    }
+
+    public String packageName() {
+      return packageName;
+    }
+
+    public String sourceFileName() {
+      return sourceFileName;
+    }
+
+    /**
+     * @return covered lines, in ascending order
+     */
+    public List<Integer> coveredLines() {
+      return coveredLines;
+    }
+  }
+
+  private static class ProbesKey {
+    private final long id;
+    private final String name;
+    private final int probeCount;
+    private final BitSet executedProbes;
+    private final int hashCode;
+
+    ProbesKey(ExecutionData executionData) {
+      this.id = executionData.getId();
+      this.name = executionData.getName();
+      boolean[] probes = executionData.getProbes();
+      this.probeCount = probes.length;
+      this.executedProbes = new BitSet(probes.length);
+      for (int i = 0; i < probes.length; i++) {
+        if (probes[i]) {
+          executedProbes.set(i);
+        }
+      }
+      this.hashCode = 31 * (31 * Long.valueOf(id).hashCode() + name.hashCode()) + executedProbes.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ProbesKey)) {
+        return false;
+      }
+      ProbesKey other = (ProbesKey) obj;
+      return id == other.id && name.equals(other.name) && probeCount == other.probeCount && executedProbes.equals(other.executedProbes);
+    }
+  }
+
+}
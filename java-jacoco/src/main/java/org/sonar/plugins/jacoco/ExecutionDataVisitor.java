@@ -26,18 +26,54 @@ import org.jacoco.core.data.IExecutionDataVisitor;
 import org.jacoco.core.data.ISessionInfoVisitor;
 import org.jacoco.core.data.SessionInfo;
 
+import javax.annotation.Nullable;
+
 import java.util.Map;
 
 public class ExecutionDataVisitor implements ISessionInfoVisitor, IExecutionDataVisitor {
 
+  /**
+   * Receives the execution data of sessions as soon as they are read.
+   */
+  public interface SessionListener {
+    void onSession(String sessionId, ExecutionDataStore executionDataStore);
+  }
+
   private final Map<String, ExecutionDataStore> sessions = Maps.newHashMap();
+  @Nullable
+  private final SessionListener sessionListener;
+  @Nullable
+  private String streamedSessionId;
 
   private ExecutionDataStore executionDataStore;
   private ExecutionDataStore merged = new ExecutionDataStore();
 
+  public ExecutionDataVisitor() {
+    this(null);
+  }
+
+  /**
+   * In streaming mode, each session is given to the listener once all of its consecutive blocks are read, and is then released:
+   * {@link #getSessions()} stays empty, so that memory does not depend on the number of sessions.
+   * {@link #endOfReport()} has to be called once the whole report is read.
+   *
+   * @param sessionListener listener of sessions, null to keep all sessions in memory
+   */
+  public ExecutionDataVisitor(@Nullable SessionListener sessionListener) {
+    this.sessionListener = sessionListener;
+  }
+
   @Override
   public void visitSessionInfo(SessionInfo info) {
     String sessionId = info.getId();
+    if (sessionListener != null) {
+      if (!sessionId.equals(streamedSessionId)) {
+        endOfSession();
+        streamedSessionId = sessionId;
+        executionDataStore = new ExecutionDataStore();
+      }
+      return;
+    }
     executionDataStore = sessions.get(sessionId);
     if (executionDataStore == null) {
       executionDataStore = new ExecutionDataStore();
@@ -51,6 +87,21 @@ public class ExecutionDataVisitor implements ISessionInfoVisitor, IExecutionData
     merged.put(defensiveCopy(data));
   }
 
+  /**
+   * Gives the last session to the listener in streaming mode.
+   */
+  public void endOfReport() {
+    endOfSession();
+    streamedSessionId = null;
+  }
+
+  private void endOfSession() {
+    if (streamedSessionId != null) {
+      sessionListener.onSession(streamedSessionId, executionDataStore);
+      executionDataStore = null;
+    }
+  }
+
   public Map<String, ExecutionDataStore> getSessions() {
     return sessions;
   }
@@ -77,6 +77,11 @@ public class JaCoCoItSensor implements Sensor {
       return configuration.getItReportPath();
     }
 
+    @Override
+    protected boolean streamSessions() {
+      return configuration.streamSessions();
+    }
+
     @Override
     protected void saveMeasures(SensorContext context, Resource resource, Collection<Measure> measures) {
       for (Measure measure : measures) {
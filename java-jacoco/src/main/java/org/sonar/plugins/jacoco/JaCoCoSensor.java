@@ -86,6 +86,11 @@ public class JaCoCoSensor implements Sensor {
       return configuration.getReportPath();
     }
 
+    @Override
+    protected boolean streamSessions() {
+      return configuration.streamSessions();
+    }
+
     @Override
     protected void saveMeasures(SensorContext context, Resource resource, Collection<Measure> measures) {
       for (Measure measure : measures) {
@@ -38,6 +38,8 @@ public class JacocoConfiguration implements BatchExtension {
   public static final String IT_REPORT_PATH_DEFAULT_VALUE = "target/jacoco-it.exec";
   public static final String REPORT_MISSING_FORCE_ZERO = "sonar.jacoco.reportMissing.force.zero";
   public static final boolean REPORT_MISSING_FORCE_ZERO_DEFAULT_VALUE = false;
+  public static final String STREAM_SESSIONS_PROPERTY = "sonar.jacoco.streamSessions";
+  public static final boolean STREAM_SESSIONS_DEFAULT_VALUE = false;
 
   private final Settings settings;
   private final FileSystem fileSystem;
@@ -67,6 +69,10 @@ public class JacocoConfiguration implements BatchExtension {
     return settings.getBoolean(REPORT_MISSING_FORCE_ZERO);
   }
 
+  public boolean streamSessions() {
+    return settings.getBoolean(STREAM_SESSIONS_PROPERTY);
+  }
+
   public static List<PropertyDefinition> getPropertyDefinitions() {
     String subCategory = "JaCoCo";
     return ImmutableList.of(
@@ -94,6 +100,16 @@ public class JacocoConfiguration implements BatchExtension {
             .description("Force coverage to 0% if no JaCoCo reports are found during analysis.")
             .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
             .type(PropertyType.BOOLEAN)
+            .build(),
+        PropertyDefinition.builder(JacocoConfiguration.STREAM_SESSIONS_PROPERTY)
+            .defaultValue(Boolean.toString(JacocoConfiguration.STREAM_SESSIONS_DEFAULT_VALUE))
+            .name("Stream sessions")
+            .category(CoreProperties.CATEGORY_JAVA)
+            .subCategory(subCategory)
+            .description("Compute coverage per test while the JaCoCo report is read, keeping only one session in memory. "
+              + "Parts of a session which are not contiguous in the report are then not merged.")
+            .onQualifiers(Qualifiers.PROJECT, Qualifiers.MODULE)
+            .type(PropertyType.BOOLEAN)
             .build()
     );
   }
@@ -0,0 +1,107 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2010 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.jacoco;
+
+import com.google.common.collect.Lists;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.junit.Test;
+import org.sonar.test.TestUtils;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ClassCoverageCacheTest {
+
+  private static final String PATH = "/org/sonar/plugins/jacoco/JaCoCov0_7_5_coverage_per_test/";
+
+  @Test
+  public void coverage_is_cached_by_executed_probes() {
+    File report = TestUtils.getResource(PATH + "jacoco.exec");
+    File classFile = TestUtils.getResource(PATH + "example/One.class");
+    JacocoReportReader jacocoReportReader = new JacocoReportReader(report);
+    ExecutionDataVisitor executionDataVisitor = new ExecutionDataVisitor();
+    jacocoReportReader.readJacocoReport(executionDataVisitor, executionDataVisitor);
+    ClassCoverageCache cache = new ClassCoverageCache(jacocoReportReader);
+
+    List<List<Integer>> coveredLines = Lists.newArrayList();
+    for (ExecutionDataStore session : executionDataVisitor.getSessions().values()) {
+      ExecutionData data = classData(session, "example/One");
+      ClassCoverageCache.ClassCoverage coverage = data == null ? null : cache.coverage(data, classFile);
+      if (coverage != null) {
+        assertThat(coverage.packageName()).isEqualTo("example");
+        assertThat(coverage.sourceFileName()).isEqualTo("One.java");
+        coveredLines.add(coverage.coveredLines());
+
+        ExecutionData sameProbes = new ExecutionData(data.getId(), data.getName(), data.getProbes().clone());
+        assertThat(cache.coverage(sameProbes, classFile)).isSameAs(coverage);
+        ExecutionData noHits = new ExecutionData(data.getId(), data.getName(), data.getProbes().length);
+        assertThat(cache.coverage(noHits, classFile)).isNull();
+      }
+    }
+    assertThat(coveredLines).contains(Lists.newArrayList(3, 4, 5, 8, 12));
+  }
+
+  @Test
+  public void execution_data_is_not_retained() {
+    File report = TestUtils.getResource(PATH + "jacoco.exec");
+    File classFile = TestUtils.getResource(PATH + "example/One.class");
+    JacocoReportReader jacocoReportReader = new JacocoReportReader(report);
+    ExecutionDataVisitor executionDataVisitor = new ExecutionDataVisitor();
+    jacocoReportReader.readJacocoReport(executionDataVisitor, executionDataVisitor);
+    ExecutionData merged = classData(executionDataVisitor.getMerged(), "example/One");
+    ClassCoverageCache cache = new ClassCoverageCache(jacocoReportReader);
+
+    ExecutionData data = new ExecutionData(merged.getId(), merged.getName(), merged.getProbes().clone());
+    WeakReference<boolean[]> probes = new WeakReference<>(data.getProbes());
+    ClassCoverageCache.ClassCoverage coverage = cache.coverage(data, classFile);
+    assertThat(coverage).isNotNull();
+    data = null;
+    for (int i = 0; i < 10 && probes.get() != null; i++) {
+      System.gc();
+    }
+    assertThat(probes.get()).isNull();
+    assertThat(cache.coverage(new ExecutionData(merged.getId(), merged.getName(), merged.getProbes().clone()), classFile)).isSameAs(coverage);
+  }
+
+  @Test
+  public void cache_is_bounded() {
+    File report = TestUtils.getResource(PATH + "jacoco.exec");
+    File classFile = TestUtils.getResource(PATH + "example/One.class");
+    ClassCoverageCache cache = new ClassCoverageCache(new JacocoReportReader(report));
+    for (int i = 0; i <= ClassCoverageCache.MAX_ENTRIES; i++) {
+      cache.coverage(new ExecutionData(i, "example/One", new boolean[] {true}), classFile);
+    }
+    assertThat(cache.size()).isEqualTo(ClassCoverageCache.MAX_ENTRIES);
+  }
+
+  private static ExecutionData classData(ExecutionDataStore session, String className) {
+    for (ExecutionData data : session.getContents()) {
+      if (className.equals(data.getName())) {
+        return data;
+      }
+    }
+    return null;
+  }
+
+}
@@ -19,10 +19,15 @@
  */
 package org.sonar.plugins.jacoco;
 
+import com.google.common.collect.Lists;
 import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfo;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.List;
+
 import static org.fest.assertions.Assertions.assertThat;
 
 public class ExecutionDataVisitorTest {
@@ -48,4 +53,69 @@ public class ExecutionDataVisitorTest {
     assertThat(visitor.getMerged().get(1).getProbes()).isEqualTo(new boolean[] {true, true, true});
   }
 
+  @Test
+  public void stream_sessions() {
+    final List<String> sessionIds = Lists.newArrayList();
+    final List<boolean[]> probes = Lists.newArrayList();
+    ExecutionDataVisitor visitor = new ExecutionDataVisitor(new ExecutionDataVisitor.SessionListener() {
+      @Override
+      public void onSession(String sessionId, ExecutionDataStore executionDataStore) {
+        sessionIds.add(sessionId);
+        probes.add(executionDataStore.get(1).getProbes());
+      }
+    });
+
+    visitor.visitSessionInfo(new SessionInfo("foo", 1L, 1L));
+    visitor.visitClassExecution(new ExecutionData(1, "", new boolean[] {true, false, false}));
+
+    visitor.visitSessionInfo(new SessionInfo("foo", 2L, 2L));
+    visitor.visitClassExecution(new ExecutionData(1, "", new boolean[] {false, true, false}));
+
+    visitor.visitSessionInfo(new SessionInfo("bar", 3L, 3L));
+    visitor.visitClassExecution(new ExecutionData(1, "", new boolean[] {false, false, true}));
+    assertThat(sessionIds).containsExactly("foo");
+
+    visitor.endOfReport();
+    assertThat(sessionIds).containsExactly("foo", "bar");
+    assertThat(probes.get(0)).isEqualTo(new boolean[] {true, true, false});
+    assertThat(probes.get(1)).isEqualTo(new boolean[] {false, false, true});
+    assertThat(visitor.getSessions()).isEmpty();
+    assertThat(visitor.getMerged().get(1).getProbes()).isEqualTo(new boolean[] {true, true, true});
+
+    visitor.endOfReport();
+    assertThat(sessionIds).hasSize(2);
+  }
+
+  @Test
+  public void streamed_sessions_are_released() {
+    final List<WeakReference<ExecutionDataStore>> sessions = Lists.newArrayList();
+    ExecutionDataVisitor visitor = new ExecutionDataVisitor(new ExecutionDataVisitor.SessionListener() {
+      @Override
+      public void onSession(String sessionId, ExecutionDataStore executionDataStore) {
+        sessions.add(new WeakReference<>(executionDataStore));
+      }
+    });
+    for (int i = 0; i < 10; i++) {
+      visitor.visitSessionInfo(new SessionInfo("test" + i, i, i));
+      visitor.visitClassExecution(new ExecutionData(1, "", new boolean[] {true, false, false}));
+    }
+    visitor.endOfReport();
+
+    assertThat(sessions).hasSize(10);
+    for (int i = 0; i < 10 && hasLiveReferences(sessions); i++) {
+      System.gc();
+    }
+    assertThat(hasLiveReferences(sessions)).isFalse();
+    assertThat(visitor.getMerged().get(1).getProbes()).isEqualTo(new boolean[] {true, false, false});
+  }
+
+  private static boolean hasLiveReferences(List<WeakReference<ExecutionDataStore>> references) {
+    for (WeakReference<ExecutionDataStore> reference : references) {
+      if (reference.get() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
 }
@@ -184,6 +184,12 @@ public class JaCoCoSensorTest {
     testExecutionDataForLinesCoveredByTest("/org/sonar/plugins/jacoco/JaCoCov0_7_5_incompatible_coverage_per_test/", newArrayList(3, 4, 5, 8, 9, 10, 13, 16));
   }
 
+  @Test
+  public void test_stream_execution_data_for_lines_covered_by_tests() throws IOException {
+    when(configuration.streamSessions()).thenReturn(true);
+    testExecutionDataForLinesCoveredByTest("/org/sonar/plugins/jacoco/JaCoCov0_7_5_coverage_per_test/", newArrayList(3, 4, 5, 8, 12));
+  }
+
   private void testExecutionDataForLinesCoveredByTest(String path, List<Integer> linesExpected) {
     outputDir = TestUtils.getResource(path);
     jacocoExecutionData = new File(outputDir, "jacoco.exec");
@@ -64,6 +64,14 @@ public class JacocoConfigurationTest {
   public void defaults() {
     assertThat(jacocoSettings.getReportPath()).isEqualTo("target/jacoco.exec");
     assertThat(jacocoSettings.getItReportPath()).isEqualTo("target/jacoco-it.exec");
+    assertThat(jacocoSettings.streamSessions()).isFalse();
+  }
+
+  @Test
+  public void shouldStreamSessions() {
+    settings.setProperty(JacocoConfiguration.STREAM_SESSIONS_PROPERTY, true);
+
+    assertThat(jacocoSettings.streamSessions()).isTrue();
   }
 
   @Test
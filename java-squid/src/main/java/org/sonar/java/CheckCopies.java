@@ -0,0 +1,58 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java;
+
+import org.sonar.check.RuleProperty;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates new instances of checks which can not be shared by several threads.
+ */
+public final class CheckCopies {
+
+  private CheckCopies() {
+  }
+
+  /**
+   * @return new instance of the class of the given check, created by its no-arg constructor, with the values of the rule properties
+   * of the given check
+   * @throws NoSuchMethodException if the class of the check has no no-arg constructor
+   */
+  public static <T> T copyOf(T check) throws ReflectiveOperationException {
+    @SuppressWarnings("unchecked")
+    Class<? extends T> checkClass = (Class<? extends T>) check.getClass();
+    Constructor<? extends T> constructor = checkClass.getDeclaredConstructor();
+    constructor.setAccessible(true);
+    T copy = constructor.newInstance();
+    for (Class<?> clazz = checkClass; clazz != null; clazz = clazz.getSuperclass()) {
+      for (Field field : clazz.getDeclaredFields()) {
+        if (field.isAnnotationPresent(RuleProperty.class) && !Modifier.isStatic(field.getModifiers())) {
+          field.setAccessible(true);
+          field.set(copy, field.get(check));
+        }
+      }
+    }
+    return copy;
+  }
+
+}
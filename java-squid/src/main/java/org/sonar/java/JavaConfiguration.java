@@ -20,8 +20,13 @@
 package org.sonar.java;
 
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.se.SymbolicExecutionConfiguration;
 import org.sonar.plugins.java.api.JavaVersion;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.io.File;
 import java.nio.charset.Charset;
 
 public class JavaConfiguration {
@@ -29,6 +34,9 @@ public class JavaConfiguration {
   private final Charset charset;
   private boolean separateAccessorsFromMethods = true;
   private JavaVersion javaVersion = new JavaVersionImpl();
+  private int analysisThreads = 1;
+  private File analysisCacheDirectory = null;
+  private final SymbolicExecutionConfiguration symbolicExecution = new SymbolicExecutionConfiguration();
 
   public JavaConfiguration(Charset charset) {
     this.charset = charset;
@@ -54,4 +62,28 @@ public class JavaConfiguration {
     this.javaVersion = javaVersion;
   }
 
+  public int analysisThreads() {
+    return analysisThreads;
+  }
+
+  public void setAnalysisThreads(int analysisThreads) {
+    this.analysisThreads = Math.max(1, analysisThreads);
+  }
+
+  /**
+   * @return directory of the cache of issues of unchanged files, null when this cache is disabled
+   */
+  @CheckForNull
+  public File analysisCacheDirectory() {
+    return analysisCacheDirectory;
+  }
+
+  public void setAnalysisCacheDirectory(@Nullable File analysisCacheDirectory) {
+    this.analysisCacheDirectory = analysisCacheDirectory;
+  }
+
+  public SymbolicExecutionConfiguration symbolicExecution() {
+    return symbolicExecution;
+  }
+
 }
@@ -20,8 +20,10 @@
 package org.sonar.java;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +39,9 @@ import org.sonar.java.bytecode.BytecodeScanner;
 import org.sonar.java.bytecode.visitor.BytecodeContext;
 import org.sonar.java.bytecode.visitor.DefaultBytecodeContext;
 import org.sonar.java.bytecode.visitor.DependenciesVisitor;
+import org.sonar.java.cache.AnalysisCache;
 import org.sonar.java.model.InternalVisitorsBridge;
+import org.sonar.java.resolve.PackageIndex;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.squidbridge.api.CodeVisitor;
 import org.sonar.squidbridge.api.Query;
@@ -89,17 +93,29 @@ public class JavaSquid implements SourceCodeSearchEngine {
       testCodeVisitors.addAll(sonarComponents.testCheckClasses());
     }
 
+    // Test classpath usually contains main classpath: index is built once for both of them
+    PackageIndex packageIndex = PackageIndex.create(ImmutableList.copyOf(Sets.newLinkedHashSet(Iterables.concat(classpath, testClasspath))));
+
     //AstScanner for main files
     astScanner = new JavaAstScanner(JavaParser.createParser(conf.getCharset()));
-    astScanner.setVisitorBridge(createVisitorBridge(codeVisitors, classpath, conf, sonarComponents, true));
+    InternalVisitorsBridge visitorsBridge = createVisitorBridge(codeVisitors, classpath, conf, sonarComponents, true);
+    visitorsBridge.setAnalysisCache(createAnalysisCache(conf, sonarComponents, "main.cache"));
+    visitorsBridge.setPackageIndex(packageIndex);
+    astScanner.setVisitorBridge(visitorsBridge);
+    astScanner.setWorkers(conf.analysisThreads());
 
     //AstScanner for test files
     astScannerForTests = new JavaAstScanner(astScanner);
-    astScannerForTests.setVisitorBridge(createVisitorBridge(testCodeVisitors, testClasspath, conf, sonarComponents, false));
+    InternalVisitorsBridge visitorsBridgeForTests = createVisitorBridge(testCodeVisitors, testClasspath, conf, sonarComponents, false);
+    visitorsBridgeForTests.setAnalysisCache(createAnalysisCache(conf, sonarComponents, "test.cache"));
+    visitorsBridgeForTests.setPackageIndex(packageIndex);
+    astScannerForTests.setVisitorBridge(visitorsBridgeForTests);
+    astScannerForTests.setWorkers(conf.analysisThreads());
 
     //Bytecode scanner
     BytecodeContext bytecodeContext = new DefaultBytecodeContext(sonarComponents, javaResourceLocator);
     bytecodeScanner = new BytecodeScanner(bytecodeContext);
+    bytecodeScanner.setWorkers(conf.analysisThreads());
     DependenciesVisitor dependenciesVisitor = new DependenciesVisitor(bytecodeContext, graph);
     bytecodeScanner.accept(dependenciesVisitor);
     for (CodeVisitor visitor : visitors) {
@@ -115,10 +131,20 @@ public class JavaSquid implements SourceCodeSearchEngine {
     visitorsBridge.setCharset(conf.getCharset());
     visitorsBridge.setAnalyseAccessors(conf.separatesAccessorsFromMethods());
     visitorsBridge.setJavaVersion(conf.javaVersion());
+    visitorsBridge.setSymbolicExecutionConfiguration(conf.symbolicExecution());
     return visitorsBridge;
   }
 
 
+  @Nullable
+  private static AnalysisCache createAnalysisCache(JavaConfiguration conf, @Nullable SonarComponents sonarComponents, String cacheFileName) {
+    File cacheDirectory = conf.analysisCacheDirectory();
+    if (cacheDirectory == null || sonarComponents == null) {
+      return null;
+    }
+    return new AnalysisCache(new File(cacheDirectory, cacheFileName), sonarComponents);
+  }
+
   public void scan(Iterable<File> sourceFiles, Iterable<File> testFiles, Collection<File> bytecodeFilesOrDirectories) {
     scanSources(sourceFiles);
     scanBytecode(bytecodeFilesOrDirectories);
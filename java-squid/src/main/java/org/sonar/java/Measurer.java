@@ -19,9 +19,7 @@
  */
 package org.sonar.java;
 
-import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
-import com.google.common.io.Files;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -37,13 +35,13 @@ import org.sonar.java.ast.visitors.LinesOfCodeVisitor;
 import org.sonar.java.ast.visitors.PublicApiChecker;
 import org.sonar.java.ast.visitors.StatementVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.model.FileText;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
-import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Deque;
 import java.util.LinkedList;
@@ -65,8 +63,8 @@ public class Measurer extends SubscriptionVisitor implements CharsetAwareVisitor
   private RangeDistributionBuilder methodComplexityDistribution;
 
   private final Deque<ClassTree> classTrees = new LinkedList<>();
-  private Charset charset;
   private double classes;
+  private Charset charset;
 
   public Measurer(FileSystem fs, SensorContext context, boolean separateAccessorsFromMethods, NoSonarFilter noSonarFilter) {
     this.fs = fs;
@@ -119,19 +117,10 @@ public class Measurer extends SubscriptionVisitor implements CharsetAwareVisitor
 
     RangeDistributionBuilder fileComplexityDistribution = new RangeDistributionBuilder(CoreMetrics.FILE_COMPLEXITY_DISTRIBUTION, LIMITS_COMPLEXITY_FILES);
     sensorContext.saveMeasure(sonarFile, fileComplexityDistribution.add(fileComplexity).build(true).setPersistenceMode(PersistenceMode.MEMORY));
-    saveLinesMetric();
+    saveMetricOnFile(CoreMetrics.LINES, FileText.of(context, charset).lineCount());
 
   }
 
-  private void saveLinesMetric() {
-    try {
-      String content = Files.toString(context.getFile(), charset);
-      saveMetricOnFile(CoreMetrics.LINES, content.split("(\r)?\n|\r", -1).length);
-    } catch (IOException e) {
-      Throwables.propagate(e);
-    }
-  }
-
   @Override
   public void visitNode(Tree tree) {
     if (isClassTree(tree)) {
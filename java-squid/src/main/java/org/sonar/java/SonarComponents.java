@@ -50,6 +50,8 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SonarComponents implements BatchExtension {
 
@@ -64,6 +66,7 @@ public class SonarComponents implements BatchExtension {
   private final JavaClasspath javaClasspath;
   private final List<Checks<JavaCheck>> checks;
   private final List<Checks<JavaCheck>> testChecks;
+  private final Map<JavaCheck, JavaCheck> checkCopies = new ConcurrentHashMap<>();
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, ResourcePerspectives resourcePerspectives, FileSystem fs,
     JavaClasspath javaClasspath, JavaTestClasspath javaTestClasspath, SensorContext context,
@@ -177,9 +180,18 @@ public class SonarComponents implements BatchExtension {
     return fs;
   }
 
+  /**
+   * Declares an instance of a check created for a worker of a parallel analysis, so that its issues are reported on the rule of the original check.
+   */
+  public void registerCheckCopy(JavaCheck copy, JavaCheck original) {
+    checkCopies.put(copy, original);
+  }
+
   public RuleKey getRuleKey(JavaCheck check) {
+    JavaCheck original = checkCopies.get(check);
+    JavaCheck registeredCheck = original != null ? original : check;
     for (Checks<JavaCheck> sonarChecks : checks()) {
-      RuleKey ruleKey = sonarChecks.ruleKey(check);
+      RuleKey ruleKey = sonarChecks.ruleKey(registeredCheck);
       if (ruleKey != null) {
         return ruleKey;
       }
@@ -187,11 +199,11 @@ public class SonarComponents implements BatchExtension {
     return null;
   }
 
-  public void addIssue(File file, JavaCheck check, int line, String message, @Nullable Double cost) {
+  public synchronized void addIssue(File file, JavaCheck check, int line, String message, @Nullable Double cost) {
     reportIssue(new AnalyzerMessage(check, file, line, message, cost != null ? cost.intValue() : 0));
   }
 
-  public void reportIssue(AnalyzerMessage analyzerMessage) {
+  public synchronized void reportIssue(AnalyzerMessage analyzerMessage) {
     JavaCheck check = analyzerMessage.getCheck();
     Preconditions.checkNotNull(check);
     Preconditions.checkNotNull(analyzerMessage.getMessage());
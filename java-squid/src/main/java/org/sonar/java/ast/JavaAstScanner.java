@@ -20,6 +20,7 @@
 package org.sonar.java.ast;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.sonar.sslr.api.RecognitionException;
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import org.sonar.java.JavaConfiguration;
 import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.ast.visitors.VisitorContext;
+import org.sonar.java.model.FileText;
 import org.sonar.java.model.InternalVisitorsBridge;
 import org.sonar.java.model.VisitorsBridge;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -47,17 +49,28 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 public class JavaAstScanner {
 
   private static final Logger LOG = LoggerFactory.getLogger(JavaAstScanner.class);
+  private static final int SCAN_AHEAD = 2;
 
   private final SquidIndex index;
   private final ActionParser<Tree> parser;
   private InternalVisitorsBridge visitor;
+  private int workers = 1;
 
   public JavaAstScanner(ActionParser<Tree> parser) {
     this.parser = parser;
@@ -88,20 +101,21 @@ public class JavaAstScanner {
    */
   public void simpleScan(Iterable<File> files) {
     SourceProject project = (SourceProject) index.search("Java Project");
-    VisitorContext context = new VisitorContext(project);
-    visitor.setContext(context);
 
     ProgressReport progressReport = new ProgressReport("Report about progress of Java AST analyzer", TimeUnit.SECONDS.toMillis(10));
     progressReport.start(Lists.newArrayList(files));
 
     boolean successfulyCompleted = false;
     try {
-      for (File file : files) {
-        simpleScan(file, context);
-        progressReport.nextFile();
+      visitor.startOfAnalysis(files);
+      if (workers > 1) {
+        parallelScan(project, files, progressReport);
+      } else {
+        sequentialScan(project, files, progressReport);
       }
       successfulyCompleted = true;
     } finally {
+      visitor.endOfAnalysis();
       if (successfulyCompleted) {
         progressReport.stop();
       } else {
@@ -110,17 +124,98 @@ public class JavaAstScanner {
     }
   }
 
-  private void simpleScan(File file, VisitorContext context) {
-    context.setFile(file);
+  private void sequentialScan(SourceProject project, Iterable<File> files, ProgressReport progressReport) {
+    visitor.setContext(new VisitorContext(project));
+    for (File file : files) {
+      simpleScan(file, parser, visitor);
+      progressReport.nextFile();
+    }
+  }
+
+  /**
+   * Files are scanned by a pool of workers, each of them owning its parser and visitors bridge.
+   * Scanned files are completed by this thread in the order of the given files: source files are added to the project, shared visitors
+   * are executed and issues are reported exactly as by a sequential scan.
+   * At most {@link #SCAN_AHEAD} files per worker are scanned ahead of the file being completed, so that few syntax trees are kept in memory.
+   */
+  private void parallelScan(SourceProject project, Iterable<File> files, ProgressReport progressReport) {
+    Preconditions.checkState(visitor.getCharset() != null, "Charset of the visitors bridge is required to scan files in parallel");
+    final BlockingQueue<Worker> idleWorkers = new ArrayBlockingQueue<>(workers);
+    for (int i = 0; i < workers; i++) {
+      idleWorkers.add(new Worker(JavaParser.createParser(visitor.getCharset()), visitor.copyForWorker()));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
     try {
-      Tree ast = parser.parse(file);
-      visitor.visitFile(ast);
+      Deque<Future<Result>> results = new ArrayDeque<>();
+      for (final File file : files) {
+        if (results.size() >= workers * SCAN_AHEAD) {
+          complete(project, waitFor(results.poll()), progressReport);
+        }
+        results.add(executor.submit(new Callable<Result>() {
+          @Override
+          public Result call() throws InterruptedException {
+            Worker worker = idleWorkers.take();
+            try {
+              return worker.scan(file);
+            } finally {
+              idleWorkers.add(worker);
+            }
+          }
+        }));
+      }
+      while (!results.isEmpty()) {
+        complete(project, waitFor(results.poll()), progressReport);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void complete(SourceProject project, Result result, ProgressReport progressReport) {
+    project.addChild(result.sourceFile);
+    if (result.pendingFile != null) {
+      try {
+        result.pendingFile.complete();
+      } catch (Exception e) {
+        checkInterrrupted(e);
+        throw new AnalysisException(getAnalyisExceptionMessage(result.file), e);
+      }
+    }
+    progressReport.nextFile();
+  }
+
+  private static Result waitFor(Future<Result> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new AnalysisException("Analysis failed", e.getCause());
+    }
+  }
+
+  private static void simpleScan(File file, ActionParser<Tree> parser, InternalVisitorsBridge visitor) {
+    visitor.getContext().setFile(file);
+    FileText fileText = null;
+    try {
+      Tree ast;
+      Charset charset = visitor.getCharset();
+      if (charset == null) {
+        ast = parser.parse(file);
+      } else {
+        // file is read once for the parser and the visitors
+        fileText = FileText.load(file, charset);
+        ast = parser.parse(fileText.content());
+      }
+      visitor.visitFile(ast, fileText);
     } catch (RecognitionException e) {
       checkInterrrupted(e);
       LOG.error("Unable to parse source file : " + file.getAbsolutePath());
       LOG.error(e.getMessage());
 
-      parseErrorWalkAndVisit(e, file);
+      parseErrorWalkAndVisit(e, file, fileText, visitor);
     } catch (Exception e) {
       checkInterrrupted(e);
       throw new AnalysisException(getAnalyisExceptionMessage(file), e);
@@ -134,10 +229,10 @@ public class JavaAstScanner {
     }
   }
 
-  private void parseErrorWalkAndVisit(RecognitionException e, File file) {
+  private static void parseErrorWalkAndVisit(RecognitionException e, File file, @Nullable FileText fileText, InternalVisitorsBridge visitor) {
     try {
       // Process the exception
-      visitor.visitFile(null);
+      visitor.visitFile(null, fileText);
       visitor.processRecognitionException(e);
     } catch (Exception e2) {
       throw new AnalysisException(getAnalyisExceptionMessage(file), e2);
@@ -152,10 +247,49 @@ public class JavaAstScanner {
     this.visitor = visitor;
   }
 
+  /**
+   * Sets the number of threads scanning files, files are scanned sequentially by default.
+   */
+  public void setWorkers(int workers) {
+    this.workers = Math.max(1, workers);
+  }
+
   public SourceCodeSearchEngine getIndex() {
     return index;
   }
 
+  private static class Worker {
+
+    private final ActionParser<Tree> parser;
+    private final InternalVisitorsBridge visitor;
+
+    Worker(ActionParser<Tree> parser, InternalVisitorsBridge visitor) {
+      this.parser = parser;
+      this.visitor = visitor;
+    }
+
+    Result scan(File file) {
+      // source file is attached to the project by the scanning thread, in order
+      VisitorContext context = new VisitorContext(new SourceProject("Java Project"));
+      visitor.setContext(context);
+      simpleScan(file, parser, visitor);
+      return new Result(file, (SourceFile) context.peekSourceCode(), visitor.takePendingFile());
+    }
+  }
+
+  private static class Result {
+
+    private final File file;
+    private final SourceFile sourceFile;
+    private final InternalVisitorsBridge.PendingFile pendingFile;
+
+    Result(File file, SourceFile sourceFile, @Nullable InternalVisitorsBridge.PendingFile pendingFile) {
+      this.file = file;
+      this.sourceFile = sourceFile;
+      this.pendingFile = pendingFile;
+    }
+  }
+
   /**
    * Helper method for testing checks without having to deploy them on a Sonar instance.
    * Can be dropped when support for CheckMessageVerifier will be dropped.
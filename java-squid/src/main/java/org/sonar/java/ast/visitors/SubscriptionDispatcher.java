@@ -0,0 +1,152 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.ast.visitors;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Visits the tree of a file once for several {@link SubscriptionVisitor}s: each node is dispatched, through a table indexed by
+ * {@link Tree.Kind}, to the visitors subscribed to its kind, in the order in which the visitors were given.
+ * Only visitors relying on the scan of {@link SubscriptionVisitor} can be dispatched, see {@link #canDispatch(JavaFileScanner)}.
+ */
+public class SubscriptionDispatcher implements JavaFileScanner {
+
+  private static final SubscriptionVisitor[] NO_VISITORS = new SubscriptionVisitor[0];
+
+  private static final ClassValue<Boolean> DISPATCHABLE = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return SubscriptionVisitor.class.isAssignableFrom(type)
+        && !overrides(type, "scanFile", JavaFileScannerContext.class)
+        && !overrides(type, "scanTree", Tree.class);
+    }
+  };
+
+  private final List<SubscriptionVisitor> visitors;
+  private final SubscriptionVisitor[][] nodeVisitors = new SubscriptionVisitor[Tree.Kind.values().length][];
+  private SubscriptionVisitor[] tokenVisitors = NO_VISITORS;
+  private SubscriptionVisitor[] triviaVisitors = NO_VISITORS;
+
+  /**
+   * @param visitors visitors for which {@link #canDispatch(JavaFileScanner)} is true. The list is read at each scan.
+   */
+  public SubscriptionDispatcher(List<SubscriptionVisitor> visitors) {
+    this.visitors = visitors;
+  }
+
+  /**
+   * @return true if the given scanner is a {@link SubscriptionVisitor} which neither overrides {@link SubscriptionVisitor#scanFile}
+   * nor {@link SubscriptionVisitor#scanTree}, as it would then expect to drive the visit of the file itself.
+   */
+  public static boolean canDispatch(JavaFileScanner scanner) {
+    return DISPATCHABLE.get(scanner.getClass());
+  }
+
+  private static boolean overrides(Class<?> type, String methodName, Class<?> parameterType) {
+    for (Class<?> clazz = type; clazz != SubscriptionVisitor.class; clazz = clazz.getSuperclass()) {
+      try {
+        clazz.getDeclaredMethod(methodName, parameterType);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // not declared by this class
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void scanFile(JavaFileScannerContext context) {
+    subscribe(context);
+    visit(context.getTree());
+  }
+
+  private void subscribe(JavaFileScannerContext context) {
+    ListMultimap<Tree.Kind, SubscriptionVisitor> subscriptions = ArrayListMultimap.create();
+    for (SubscriptionVisitor visitor : visitors) {
+      visitor.setContext(context);
+      for (Tree.Kind kind : ImmutableSet.copyOf(visitor.nodesToVisit())) {
+        subscriptions.put(kind, visitor);
+      }
+    }
+    for (Tree.Kind kind : Tree.Kind.values()) {
+      nodeVisitors[kind.ordinal()] = toArray(subscriptions.get(kind));
+    }
+    tokenVisitors = nodeVisitors[Tree.Kind.TOKEN.ordinal()];
+    triviaVisitors = nodeVisitors[Tree.Kind.TRIVIA.ordinal()];
+  }
+
+  private static SubscriptionVisitor[] toArray(List<SubscriptionVisitor> subscribers) {
+    return subscribers.isEmpty() ? NO_VISITORS : subscribers.toArray(NO_VISITORS);
+  }
+
+  private void visit(Tree tree) {
+    if (tree.is(Tree.Kind.TOKEN)) {
+      visitToken((SyntaxToken) tree);
+      visitChildren(tree);
+      return;
+    }
+    Tree.Kind kind = tree.kind();
+    SubscriptionVisitor[] subscribers = kind == null ? NO_VISITORS : nodeVisitors[kind.ordinal()];
+    for (SubscriptionVisitor subscriber : subscribers) {
+      subscriber.visitNode(tree);
+    }
+    visitChildren(tree);
+    for (SubscriptionVisitor subscriber : subscribers) {
+      subscriber.leaveNode(tree);
+    }
+  }
+
+  private void visitToken(SyntaxToken syntaxToken) {
+    for (SubscriptionVisitor subscriber : tokenVisitors) {
+      subscriber.visitToken(syntaxToken);
+    }
+    if (triviaVisitors.length > 0) {
+      for (SyntaxTrivia syntaxTrivia : syntaxToken.trivias()) {
+        for (SubscriptionVisitor subscriber : triviaVisitors) {
+          subscriber.visitTrivia(syntaxTrivia);
+        }
+      }
+    }
+  }
+
+  private void visitChildren(Tree tree) {
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      for (Iterator<Tree> iter = javaTree.childrenIterator(); iter.hasNext(); ) {
+        Tree next = iter.next();
+        if (next != null) {
+          visit(next);
+        }
+      }
+    }
+  }
+
+}
@@ -60,9 +60,16 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
+    setContext(context);
+    scanTree(context.getTree());
+  }
+
+  /**
+   * Prepares the visit of a file without visiting it, see {@link SubscriptionDispatcher}.
+   */
+  void setContext(JavaFileScannerContext context) {
     this.context = context;
     semanticModel = (SemanticModel) context.getSemanticModel();
-    scanTree(context.getTree());
   }
 
   protected void scanTree(Tree tree) {
@@ -34,12 +34,26 @@ import org.sonar.squidbridge.api.CodeVisitor;
 
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class BytecodeScanner extends CodeScanner<BytecodeVisitor> {
 
+  /**
+   * Number of class files read ahead of their parsing by each worker.
+   */
+  private static final int READ_AHEAD = 16;
+
   private final BytecodeContext context;
+  private int workers = 1;
 
   public BytecodeScanner(BytecodeContext context) {
     this.context = context;
@@ -94,12 +108,62 @@ public class BytecodeScanner extends CodeScanner<BytecodeVisitor> {
     }
   }
 
-  private static void loadByteCodeInformation(Collection<String> keys, AsmClassProvider classProvider) {
-    for (String key : keys) {
-      classProvider.getClass(key, DETAIL_LEVEL.STRUCTURE_AND_CALLS);
+  private void loadByteCodeInformation(Collection<String> keys, AsmClassProvider classProvider) {
+    if (workers > 1 && classProvider instanceof AsmClassProviderImpl) {
+      parallelLoadByteCodeInformation(keys, (AsmClassProviderImpl) classProvider);
+    } else {
+      for (String key : keys) {
+        classProvider.getClass(key, DETAIL_LEVEL.STRUCTURE_AND_CALLS);
+      }
+    }
+  }
+
+  /**
+   * Class files are read by a pool of workers, while they are parsed in the order of the given keys as parsing links classes together.
+   * A bounded number of class files is read ahead, so that their content does not stay in memory until they are parsed.
+   */
+  private void parallelLoadByteCodeInformation(Collection<String> keys, final AsmClassProviderImpl classProvider) {
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      Deque<Future<byte[]>> pending = new ArrayDeque<>();
+      Iterator<String> keysToRead = keys.iterator();
+      int readAhead = workers * READ_AHEAD;
+      for (String key : keys) {
+        while (pending.size() < readAhead && keysToRead.hasNext()) {
+          final String keyToRead = keysToRead.next();
+          pending.add(executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+              return classProvider.readBytecode(keyToRead);
+            }
+          }));
+        }
+        classProvider.getClass(key, DETAIL_LEVEL.STRUCTURE_AND_CALLS, waitFor(pending.remove()));
+      }
+    } finally {
+      executor.shutdownNow();
     }
   }
 
+  private static byte[] waitFor(Future<byte[]> bytecode) {
+    try {
+      return bytecode.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new AnalysisException("Unable to read .class file", e.getCause());
+    }
+  }
+
+  /**
+   * @param workers number of threads reading class files, class files are read while being parsed when less than 2
+   */
+  public void setWorkers(int workers) {
+    this.workers = Math.max(1, workers);
+  }
+
   @Override
   public Collection<Class<? extends BytecodeVisitor>> getVisitorClasses() {
     return Collections.emptyList();
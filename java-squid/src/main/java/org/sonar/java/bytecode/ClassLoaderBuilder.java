@@ -37,7 +37,7 @@ public final class ClassLoaderBuilder {
     // only static methods
   }
 
-  public static ClassLoader create(Collection<File> bytecodeFilesOrDirectories) {
+  public static SquidClassLoader create(Collection<File> bytecodeFilesOrDirectories) {
     List<File> files = Lists.newArrayList();
     for (File file : bytecodeFilesOrDirectories) {
       if (file.isFile() && file.getPath().endsWith(".class")) {
@@ -65,7 +65,7 @@ public final class ClassLoaderBuilder {
   /**
    * For tests.
    */
-  public static ClassLoader create(File bytecodeFileOrDirectory) {
+  public static SquidClassLoader create(File bytecodeFileOrDirectory) {
     return create(Arrays.asList(bytecodeFileOrDirectory));
   }
 
@@ -23,6 +23,10 @@ import org.apache.commons.io.IOUtils;
 import org.objectweb.asm.ClassReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,17 +50,37 @@ public class AsmClassProviderImpl extends AsmClassProvider {
 
   @Override
   public AsmClass getClass(String internalName, DETAIL_LEVEL level) {
+    return getClass(internalName, level, null);
+  }
+
+  /**
+   * Same as {@link #getClass(String, DETAIL_LEVEL)}, the class being read from the given bytecode if it was already read by {@link #readBytecode(String)}.
+   */
+  public AsmClass getClass(String internalName, DETAIL_LEVEL level, @Nullable byte[] bytecode) {
     if (internalName == null) {
       // TODO Godin: I believe that we should throw IllegalArgumentException instead
       throw new IllegalStateException("You can try to load a class whose internalName = 'null'");
     }
     AsmClass asmClass = getAsmClassFromCacheOrCreateIt(internalName);
     if (level.isGreaterThan(asmClass.getDetailLevel())) {
-      decoracteAsmClassFromBytecode(asmClass, level);
+      decoracteAsmClassFromBytecode(asmClass, level, bytecode);
     }
     return asmClass;
   }
 
+  /**
+   * Reads the bytecode of a class without parsing it, which can be done concurrently with the parsing of other classes.
+   *
+   * @return null if the bytecode is not available without going through the streams of the class loader
+   */
+  @CheckForNull
+  public byte[] readBytecode(String internalName) {
+    if (classLoader instanceof SquidClassLoader) {
+      return ((SquidClassLoader) classLoader).loadBytes(internalName + ".class");
+    }
+    return null;
+  }
+
   private AsmClass getAsmClassFromCacheOrCreateIt(String internalName) {
     AsmClass asmClass = asmClassCache.get(internalName);
     if (asmClass == null) {
@@ -66,13 +90,18 @@ public class AsmClassProviderImpl extends AsmClassProvider {
     return asmClass;
   }
 
-  private void decoracteAsmClassFromBytecode(AsmClass asmClass, DETAIL_LEVEL level) {
+  private void decoracteAsmClassFromBytecode(AsmClass asmClass, DETAIL_LEVEL level, @Nullable byte[] bytecode) {
     InputStream input = null;
     try {
 
       AsmClassVisitor classVisitor = new AsmClassVisitor(this, asmClass, level);
-      input = classLoader.getResourceAsStream(asmClass.getInternalName() + ".class");
-      ClassReader asmReader = new ClassReader(input);
+      ClassReader asmReader;
+      if (bytecode == null) {
+        input = classLoader.getResourceAsStream(asmClass.getInternalName() + ".class");
+        asmReader = new ClassReader(input);
+      } else {
+        asmReader = new ClassReader(bytecode);
+      }
       asmReader.accept(classVisitor, 0);
     } catch (IOException e) {
       LOG.warn("Class '" + asmClass.getInternalName() + "' is not accessible through the ClassLoader.");
@@ -19,7 +19,10 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.collect.ImmutableList;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.filefilter.TrueFileFilter;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -27,6 +30,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collection;
 
 class FileSystemLoader implements Loader {
 
@@ -75,6 +79,22 @@ class FileSystemLoader implements Loader {
     }
   }
 
+  @Override
+  public Collection<String> resourceNames() {
+    if (baseDir == null) {
+      throw new IllegalStateException("Loader closed");
+    }
+    if (!baseDir.isDirectory()) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    int prefixLength = baseDir.getAbsolutePath().length() + 1;
+    for (File file : FileUtils.listFiles(baseDir, TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE)) {
+      names.add(file.getAbsolutePath().substring(prefixLength).replace(File.separatorChar, '/'));
+    }
+    return names.build();
+  }
+
   @Override
   public void close() {
     baseDir = null;
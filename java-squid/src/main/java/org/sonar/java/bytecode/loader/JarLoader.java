@@ -19,6 +19,8 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import org.apache.commons.io.IOUtils;
 
 import java.io.File;
@@ -28,6 +30,9 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -73,7 +78,14 @@ class JarLoader implements Loader {
         return new byte[0];
       }
       is = jarFile.getInputStream(entry);
-      return IOUtils.toByteArray(is);
+      long size = entry.getSize();
+      if (size < 0) {
+        return IOUtils.toByteArray(is);
+      }
+      // size is known from central directory: read directly into the resulting array
+      byte[] bytes = new byte[(int) size];
+      ByteStreams.readFully(is, bytes);
+      return bytes;
     } catch (IOException e) {
       // TODO Godin: not sure that we should silently ignore exception here,
       // e.g. it can be thrown if file corrupted
@@ -83,6 +95,19 @@ class JarLoader implements Loader {
     }
   }
 
+  @Override
+  public Collection<String> resourceNames() {
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    Enumeration<JarEntry> entries = jarFile.entries();
+    while (entries.hasMoreElements()) {
+      JarEntry entry = entries.nextElement();
+      if (!entry.isDirectory()) {
+        names.add(entry.getName());
+      }
+    }
+    return names.build();
+  }
+
   @Override
   public void close() {
     try {
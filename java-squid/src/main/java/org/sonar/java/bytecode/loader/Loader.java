@@ -20,6 +20,7 @@
 package org.sonar.java.bytecode.loader;
 
 import java.net.URL;
+import java.util.Collection;
 
 /**
  * Specifies resource loading behavior.
@@ -46,6 +47,13 @@ interface Loader {
    */
   byte[] loadBytes(String name);
 
+  /**
+   * Lists the names of all the resources which can be loaded by this loader.
+   *
+   * @throws IllegalStateException if loader has been closed
+   */
+  Collection<String> resourceNames();
+
   /**
    * Closes this loader, so that it can no longer be used to load new resources.
    * If loader is already closed, then invoking this method has no effect.
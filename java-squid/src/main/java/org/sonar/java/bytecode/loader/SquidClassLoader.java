@@ -22,20 +22,31 @@ package org.sonar.java.bytecode.loader;
 import com.google.common.collect.Iterators;
 import org.apache.commons.lang.ArrayUtils;
 
+import javax.annotation.CheckForNull;
+
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Class loader, which is able to load classes from a list of JAR files and directories.
+ * Content of all JAR files and directories is indexed on creation, so that lookups are answered without probing each of them.
  */
 public class SquidClassLoader extends ClassLoader implements Closeable {
 
   private final List<Loader> loaders;
+  /**
+   * First loader providing a resource, indexed by name of the resource.
+   */
+  private final Map<String, Loader> index = new HashMap<>();
 
   /**
    * @param files ordered list of files and directories from which to load classes and resources
@@ -52,30 +63,66 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
         }
       }
     }
+    for (Loader loader : loaders) {
+      for (String resourceName : loader.resourceNames()) {
+        if (!index.containsKey(resourceName)) {
+          index.put(resourceName, loader);
+        }
+      }
+    }
   }
 
   @Override
   protected Class findClass(String name) throws ClassNotFoundException {
-    String resourceName = name.replace('.', '/') + ".class";
-    for (Loader loader : loaders) {
-      byte[] classBytes = loader.loadBytes(resourceName);
-      if (ArrayUtils.isNotEmpty(classBytes)) {
-        // TODO Godin: definePackage ?
-        return defineClass(name, classBytes, 0, classBytes.length);
-      }
+    byte[] classBytes = loadBytes(name.replace('.', '/') + ".class");
+    if (ArrayUtils.isNotEmpty(classBytes)) {
+      // TODO Godin: definePackage ?
+      return defineClass(name, classBytes, 0, classBytes.length);
     }
     throw new ClassNotFoundException(name);
   }
 
   @Override
   public URL findResource(String name) {
-    for (Loader loader : loaders) {
-      URL url = loader.findResource(name);
-      if (url != null) {
-        return url;
+    Loader loader = index.get(name);
+    return loader == null ? null : loader.findResource(name);
+  }
+
+  /**
+   * @return true if one of the JAR files or directories contains the given resource. Resources of the JDK are not taken into account.
+   */
+  public boolean hasResource(String name) {
+    return index.containsKey(name);
+  }
+
+  /**
+   * @return names of the packages containing class files in the JAR files and directories, as for instance <code>org/sonar/tests</code>.
+   * Packages of the JDK are not taken into account.
+   */
+  public Set<String> packageNames() {
+    Set<String> packageNames = new HashSet<>();
+    for (String resourceName : index.keySet()) {
+      if (resourceName.endsWith(".class")) {
+        int separator = resourceName.lastIndexOf('/');
+        packageNames.add(separator < 0 ? "" : resourceName.substring(0, separator));
       }
     }
-    return null;
+    return packageNames;
+  }
+
+  /**
+   * Loads content of a resource from JAR files and directories, without going through {@link URL}s and streams of the JDK.
+   *
+   * @return content of the resource, or null if there is no such resource in JAR files and directories
+   */
+  @CheckForNull
+  public byte[] loadBytes(String name) {
+    Loader loader = index.get(name);
+    if (loader == null) {
+      return null;
+    }
+    byte[] bytes = loader.loadBytes(name);
+    return ArrayUtils.isEmpty(bytes) ? null : bytes;
   }
 
   @Override
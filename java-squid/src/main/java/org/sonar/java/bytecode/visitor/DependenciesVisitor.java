@@ -47,13 +47,13 @@ public class DependenciesVisitor extends BytecodeVisitor {
   public void visitEdge(AsmEdge edge) {
     AsmClass toAsmClass = edge.getTargetAsmClass();
     Resource toResource = getResource(toAsmClass);
-    Dependency fileEdge = createDependency(fromResource, toResource, null);
-    if (fromResource != null && toResource != null) {
+    // dependency between packages only has to be updated by the first dependency between two files
+    if (canWeLinkNodes(fromResource, toResource) && graph.getEdge(fromResource, toResource) == null) {
+      Dependency fileEdge = createDependency(fromResource, toResource, null);
       createDependency(fromResource.getParent(), toResource.getParent(), fileEdge);
     }
   }
 
-
   private Dependency createDependency(@Nullable Resource from, @Nullable Resource to, @Nullable Dependency subDependency) {
     Dependency dependency = null;
     if (canWeLinkNodes(from, to)) {
@@ -64,8 +64,7 @@ public class DependenciesVisitor extends BytecodeVisitor {
         graph.addEdge(dependency);
       }
       ResourceMapping resourceMapping = getContext().getJavaResourceLocator().getResourceMapping();
-      if (subDependency != null && !resourceMapping.getSubDependencies(dependency).contains(subDependency)) {
-        resourceMapping.addSubDependency(dependency, subDependency);
+      if (subDependency != null && resourceMapping.addSubDependency(dependency, subDependency)) {
         dependency.setWeight(dependency.getWeight() + 1);
         subDependency.setParent(dependency);
       }
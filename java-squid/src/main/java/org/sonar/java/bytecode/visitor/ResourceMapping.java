@@ -22,6 +22,7 @@ package org.sonar.java.bytecode.visitor;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import org.sonar.api.design.Dependency;
 import org.sonar.api.resources.Directory;
@@ -37,12 +38,15 @@ import java.util.Set;
 public class ResourceMapping {
 
   private Multimap<Directory, File> directories;
+  /**
+   * Sub-dependencies are hashed, as packages may depend on each other through a lot of files.
+   */
   private Multimap<Dependency, Dependency> subDependencies;
   private Map<File, String> fileKeyByResource;
 
   public ResourceMapping() {
     directories = ArrayListMultimap.create();
-    subDependencies = ArrayListMultimap.create();
+    subDependencies = LinkedHashMultimap.create();
     fileKeyByResource = new HashMap<>();
   }
 
@@ -69,8 +73,11 @@ public class ResourceMapping {
     return ImmutableSet.<Resource>builder().addAll(directories.get(directory)).build();
   }
 
-  public void addSubDependency(Dependency parent, Dependency subDependency) {
-    subDependencies.put(parent, subDependency);
+  /**
+   * @return false if the sub-dependency was already added to the given dependency
+   */
+  public boolean addSubDependency(Dependency parent, Dependency subDependency) {
+    return subDependencies.put(parent, subDependency);
   }
 
   public Collection<Dependency> getSubDependencies(Dependency parent) {
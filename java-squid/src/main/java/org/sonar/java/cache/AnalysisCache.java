@@ -0,0 +1,561 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.check.RuleProperty;
+import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.SonarComponents;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent cache of the issues raised by rules on each file, used to skip rules and symbolic execution on files which did not change
+ * since previous analysis.
+ * <p>
+ * Cache is invalidated as a whole when active rules, their parameters, libraries of the classpath or java version change. A type is
+ * considered as changed when the file declaring it changed or was removed, or when one of its class files in a directory of the classpath
+ * changed or was removed. Change of a type is propagated to the types declared by the files referencing it, and so on, as a supertype or
+ * a dependency of a type may change its members and the issues raised on the files using it. An entry is reused when content of the file
+ * is the same and when none of the types it references changed. Entries of files referencing unknown types are also dropped as soon as
+ * a file is added or modified, as the missing type may have appeared.
+ * </p>
+ * Issues reported on another file or on a directory can not be replayed: such files are always analyzed.
+ */
+public class AnalysisCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisCache.class);
+
+  private static final int FORMAT_VERSION = 2;
+
+  private final File cacheFile;
+  private final SonarComponents sonarComponents;
+  private final Map<String, CachedFile> previousEntries = Maps.newHashMap();
+  private final ConcurrentMap<String, CachedFile> entries = new ConcurrentHashMap<>();
+  private final Map<String, String> contentHashes = Maps.newHashMap();
+  private final Map<String, String> previousClassFileHashes = Maps.newHashMap();
+  private final Map<String, String> classFileHashes = Maps.newHashMap();
+  private final Set<String> changedTypes = Sets.newHashSet();
+  private final Map<String, JavaCheck> checksByRuleKey = Maps.newHashMap();
+  private boolean typesMayHaveAppeared;
+  private String fingerprint;
+  private int replayedFiles;
+
+  public AnalysisCache(File cacheFile, SonarComponents sonarComponents) {
+    this.cacheFile = cacheFile;
+    this.sonarComponents = sonarComponents;
+  }
+
+  /**
+   * Loads the cache and computes the changes between previous analysis and the files about to be analyzed.
+   */
+  public void prepare(Iterable<File> files, Iterable<?> checks, List<File> classpath, @Nullable JavaVersion javaVersion) {
+    previousEntries.clear();
+    entries.clear();
+    contentHashes.clear();
+    previousClassFileHashes.clear();
+    classFileHashes.clear();
+    changedTypes.clear();
+    checksByRuleKey.clear();
+    replayedFiles = 0;
+    for (Object check : checks) {
+      if (check instanceof JavaCheck) {
+        RuleKey ruleKey = sonarComponents.getRuleKey((JavaCheck) check);
+        if (ruleKey != null) {
+          checksByRuleKey.put(ruleKey.toString(), (JavaCheck) check);
+        }
+      }
+    }
+    fingerprint = fingerprint(classpath, javaVersion);
+    load();
+    hashClassFiles(classpath);
+    for (String classFile : Sets.union(previousClassFileHashes.keySet(), classFileHashes.keySet())) {
+      if (!Objects.equal(previousClassFileHashes.get(classFile), classFileHashes.get(classFile))) {
+        changedTypes.add(topLevelType(classFile));
+      }
+    }
+    Set<String> removedFiles = Sets.newHashSet(previousEntries.keySet());
+    typesMayHaveAppeared = false;
+    for (File file : files) {
+      String path = file.getAbsolutePath();
+      String contentHash = contentHash(file);
+      contentHashes.put(path, contentHash);
+      removedFiles.remove(path);
+      CachedFile previous = previousEntries.get(path);
+      if (previous == null || !previous.contentHash.equals(contentHash)) {
+        typesMayHaveAppeared = true;
+        if (previous != null) {
+          changedTypes.addAll(previous.declaredTypes);
+        }
+      }
+    }
+    for (String removedFile : removedFiles) {
+      changedTypes.addAll(previousEntries.get(removedFile).declaredTypes);
+    }
+    propagateChangedTypes();
+  }
+
+  /**
+   * Adds to changed types the types declared by the files of previous analysis which reference a changed type, transitively.
+   */
+  private void propagateChangedTypes() {
+    Multimap<String, CachedFile> referencingFiles = HashMultimap.create();
+    for (CachedFile cachedFile : previousEntries.values()) {
+      for (String referencedType : cachedFile.referencedTypes) {
+        referencingFiles.put(referencedType, cachedFile);
+      }
+    }
+    Deque<String> workList = new ArrayDeque<>(changedTypes);
+    while (!workList.isEmpty()) {
+      for (CachedFile referencingFile : referencingFiles.get(workList.pop())) {
+        for (String declaredType : referencingFile.declaredTypes) {
+          if (changedTypes.add(declaredType)) {
+            workList.push(declaredType);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Class files of the directories of the classpath are hashed one by one, as they are the output of sources of the project or of other
+   * modules, which are not all tracked by the content of the analyzed files. When a class file is present in several directories,
+   * the first one is kept, as for the loading of classes.
+   */
+  private void hashClassFiles(List<File> classpath) {
+    for (File directory : classpath) {
+      if (directory.isDirectory()) {
+        URI directoryUri = directory.toURI();
+        for (File classFile : FileUtils.listFiles(directory, new String[] {"class"}, true)) {
+          String relativePath = directoryUri.relativize(classFile.toURI()).getPath();
+          if (!classFileHashes.containsKey(relativePath)) {
+            classFileHashes.put(relativePath, contentHash(classFile));
+          }
+        }
+      }
+    }
+  }
+
+  private static String topLevelType(String classFile) {
+    String className = classFile.substring(0, classFile.length() - ".class".length());
+    int nestedClassSeparator = className.indexOf('$');
+    if (nestedClassSeparator >= 0) {
+      className = className.substring(0, nestedClassSeparator);
+    }
+    return className.replace('/', '.');
+  }
+
+  /**
+   * Issues found by previous analysis on the given file, if they are still valid.
+   *
+   * @return the issues to report, null if rules have to be executed on the file
+   */
+  @CheckForNull
+  public List<AnalyzerMessage> replay(File file) {
+    String path = file.getAbsolutePath();
+    CachedFile cachedFile = previousEntries.get(path);
+    if (!isUpToDate(path, cachedFile)) {
+      return null;
+    }
+    List<AnalyzerMessage> issues = Lists.newArrayList();
+    for (CachedIssue cachedIssue : cachedFile.issues) {
+      JavaCheck check = checksByRuleKey.get(cachedIssue.ruleKey);
+      if (check != null) {
+        issues.add(cachedIssue.toAnalyzerMessage(check, file));
+      }
+    }
+    entries.put(path, cachedFile);
+    synchronized (this) {
+      replayedFiles++;
+    }
+    return issues;
+  }
+
+  private boolean isUpToDate(String path, @Nullable CachedFile cachedFile) {
+    return cachedFile != null
+      && cachedFile.contentHash.equals(contentHashes.get(path))
+      && !(typesMayHaveAppeared && cachedFile.unknownReferences)
+      && Collections.disjoint(cachedFile.referencedTypes, changedTypes);
+  }
+
+  public boolean isRule(Object scanner) {
+    return scanner instanceof JavaCheck && sonarComponents.getRuleKey((JavaCheck) scanner) != null;
+  }
+
+  /**
+   * Stores issues raised by rules on an analyzed file.
+   */
+  public void store(File file, CompilationUnitTree tree, List<AnalyzerMessage> issues) {
+    String path = file.getAbsolutePath();
+    String contentHash = contentHashes.get(path);
+    if (contentHash == null) {
+      return;
+    }
+    ImmutableList.Builder<CachedIssue> cachedIssues = ImmutableList.builder();
+    for (AnalyzerMessage issue : issues) {
+      if (!file.equals(issue.getFile())) {
+        return;
+      }
+      RuleKey ruleKey = sonarComponents.getRuleKey(issue.getCheck());
+      if (ruleKey != null) {
+        cachedIssues.add(CachedIssue.from(ruleKey.toString(), issue));
+      }
+    }
+    TypeReferences typeReferences = new TypeReferences();
+    tree.accept(typeReferences);
+    entries.put(path, new CachedFile(contentHash, typeReferences.unknownReferences, typeReferences.declaredTypes, typeReferences.referencedTypes, cachedIssues.build()));
+  }
+
+  /**
+   * Writes the entries of analyzed files, entries of files which were not analyzed are dropped.
+   */
+  public void save() {
+    if (fingerprint == null) {
+      return;
+    }
+    LOG.info("{} files replayed from analysis cache", replayedFiles);
+    File parent = cacheFile.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      LOG.warn("Unable to create analysis cache directory " + parent.getAbsolutePath());
+      return;
+    }
+    File temporaryFile = new File(cacheFile.getPath() + ".tmp");
+    DataOutputStream out = null;
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temporaryFile))));
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(fingerprint);
+      writeHashes(out, classFileHashes);
+      out.writeInt(entries.size());
+      for (Map.Entry<String, CachedFile> entry : entries.entrySet()) {
+        out.writeUTF(entry.getKey());
+        entry.getValue().write(out);
+      }
+      out.close();
+      out = null;
+      Files.move(temporaryFile, cacheFile);
+    } catch (IOException e) {
+      LOG.warn("Unable to write analysis cache " + cacheFile.getAbsolutePath(), e);
+    } finally {
+      Closeables.closeQuietly(out);
+    }
+  }
+
+  private void load() {
+    if (!cacheFile.isFile()) {
+      return;
+    }
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))));
+      if (in.readInt() != FORMAT_VERSION || !fingerprint.equals(in.readUTF())) {
+        LOG.info("Analysis cache is outdated, all files will be analyzed");
+        return;
+      }
+      readHashes(in, previousClassFileHashes);
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        String path = in.readUTF();
+        previousEntries.put(path, CachedFile.read(in));
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to read analysis cache " + cacheFile.getAbsolutePath() + ", all files will be analyzed", e);
+      previousClassFileHashes.clear();
+      previousEntries.clear();
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+  }
+
+  private static void writeHashes(DataOutputStream out, Map<String, String> hashes) throws IOException {
+    out.writeInt(hashes.size());
+    for (Map.Entry<String, String> entry : hashes.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeUTF(entry.getValue());
+    }
+  }
+
+  private static void readHashes(DataInputStream in, Map<String, String> hashes) throws IOException {
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      hashes.put(in.readUTF(), in.readUTF());
+    }
+  }
+
+  @VisibleForTesting
+  String fingerprint(List<File> classpath, @Nullable JavaVersion javaVersion) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FORMAT_VERSION);
+    hasher.putString(String.valueOf(javaVersion), Charsets.UTF_8);
+    for (Map.Entry<String, JavaCheck> entry : new TreeMap<>(checksByRuleKey).entrySet()) {
+      hasher.putString(entry.getKey(), Charsets.UTF_8);
+      for (Class<?> clazz = entry.getValue().getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+        for (Field field : clazz.getDeclaredFields()) {
+          if (field.isAnnotationPresent(RuleProperty.class)) {
+            hasher.putString(field.getName() + "=" + ruleProperty(field, entry.getValue()), Charsets.UTF_8);
+          }
+        }
+      }
+    }
+    for (File file : classpath) {
+      hasher.putString(file.getAbsolutePath(), Charsets.UTF_8);
+      // class files of directories are tracked one by one, see hashClassFiles
+      if (file.isFile()) {
+        hasher.putLong(file.length());
+        hasher.putLong(file.lastModified());
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private static String ruleProperty(Field field, JavaCheck check) {
+    try {
+      field.setAccessible(true);
+      return String.valueOf(field.get(check));
+    } catch (IllegalAccessException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
+  private static String contentHash(File file) {
+    try {
+      return Files.hash(file, Hashing.sha256()).toString();
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
+  private static class TypeReferences extends BaseTreeVisitor {
+
+    private final Set<String> declaredTypes = Sets.newHashSet();
+    private final Set<String> referencedTypes = Sets.newHashSet();
+    private boolean unknownReferences = false;
+
+    @Override
+    public void visitClass(ClassTree tree) {
+      String topLevelType = topLevelType(tree.symbol());
+      if (topLevelType != null) {
+        declaredTypes.add(topLevelType);
+      }
+      super.visitClass(tree);
+    }
+
+    @Override
+    public void visitIdentifier(IdentifierTree tree) {
+      Symbol symbol = tree.symbol();
+      if (symbol.isUnknown()) {
+        unknownReferences = true;
+      } else if (!symbol.isPackageSymbol()) {
+        String topLevelType = topLevelType(symbol.enclosingClass());
+        if (topLevelType != null) {
+          referencedTypes.add(topLevelType);
+        }
+      }
+      super.visitIdentifier(tree);
+    }
+
+    @CheckForNull
+    private static String topLevelType(@Nullable Symbol.TypeSymbol typeSymbol) {
+      Symbol.TypeSymbol result = typeSymbol;
+      while (result != null && !result.isUnknown() && result.owner() != null && !result.owner().isPackageSymbol()) {
+        result = result.owner().enclosingClass();
+      }
+      if (result == null || result.isUnknown()) {
+        return null;
+      }
+      return result.type().fullyQualifiedName();
+    }
+  }
+
+  private static class CachedFile {
+
+    private final String contentHash;
+    private final boolean unknownReferences;
+    private final Set<String> declaredTypes;
+    private final Set<String> referencedTypes;
+    private final List<CachedIssue> issues;
+
+    CachedFile(String contentHash, boolean unknownReferences, Set<String> declaredTypes, Set<String> referencedTypes, List<CachedIssue> issues) {
+      this.contentHash = contentHash;
+      this.unknownReferences = unknownReferences;
+      this.declaredTypes = declaredTypes;
+      this.referencedTypes = referencedTypes;
+      this.issues = issues;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeUTF(contentHash);
+      out.writeBoolean(unknownReferences);
+      writeStrings(out, declaredTypes);
+      writeStrings(out, referencedTypes);
+      out.writeInt(issues.size());
+      for (CachedIssue issue : issues) {
+        issue.write(out);
+      }
+    }
+
+    static CachedFile read(DataInputStream in) throws IOException {
+      String contentHash = in.readUTF();
+      boolean unknownReferences = in.readBoolean();
+      Set<String> declaredTypes = readStrings(in);
+      Set<String> referencedTypes = readStrings(in);
+      int size = in.readInt();
+      List<CachedIssue> issues = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        issues.add(CachedIssue.read(in));
+      }
+      return new CachedFile(contentHash, unknownReferences, declaredTypes, referencedTypes, issues);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+      out.writeInt(strings.size());
+      for (String string : strings) {
+        out.writeUTF(string);
+      }
+    }
+
+    private static Set<String> readStrings(DataInputStream in) throws IOException {
+      int size = in.readInt();
+      ImmutableSet.Builder<String> strings = ImmutableSet.builder();
+      for (int i = 0; i < size; i++) {
+        strings.add(in.readUTF());
+      }
+      return strings.build();
+    }
+  }
+
+  private static class CachedIssue {
+
+    private final String ruleKey;
+    @Nullable
+    private final AnalyzerMessage.TextSpan textSpan;
+    private final String message;
+    private final int cost;
+    private final List<CachedIssue> secondaryLocations;
+
+    CachedIssue(String ruleKey, @Nullable AnalyzerMessage.TextSpan textSpan, String message, int cost, List<CachedIssue> secondaryLocations) {
+      this.ruleKey = ruleKey;
+      this.textSpan = textSpan;
+      this.message = message;
+      this.cost = cost;
+      this.secondaryLocations = secondaryLocations;
+    }
+
+    static CachedIssue from(String ruleKey, AnalyzerMessage analyzerMessage) {
+      ImmutableList.Builder<CachedIssue> secondaryLocations = ImmutableList.builder();
+      for (AnalyzerMessage secondaryLocation : analyzerMessage.secondaryLocations) {
+        secondaryLocations.add(from(ruleKey, secondaryLocation));
+      }
+      Double cost = analyzerMessage.getCost();
+      return new CachedIssue(ruleKey, analyzerMessage.primaryLocation(), analyzerMessage.getMessage(), cost == null ? 0 : cost.intValue(), secondaryLocations.build());
+    }
+
+    AnalyzerMessage toAnalyzerMessage(JavaCheck check, File file) {
+      AnalyzerMessage analyzerMessage = new AnalyzerMessage(check, file, textSpan, message, cost);
+      for (CachedIssue secondaryLocation : secondaryLocations) {
+        analyzerMessage.secondaryLocations.add(secondaryLocation.toAnalyzerMessage(check, file));
+      }
+      return analyzerMessage;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeUTF(ruleKey);
+      out.writeBoolean(textSpan != null);
+      if (textSpan != null) {
+        out.writeInt(textSpan.startLine);
+        out.writeInt(textSpan.startCharacter);
+        out.writeInt(textSpan.endLine);
+        out.writeInt(textSpan.endCharacter);
+      }
+      out.writeUTF(message);
+      out.writeInt(cost);
+      out.writeInt(secondaryLocations.size());
+      for (CachedIssue secondaryLocation : secondaryLocations) {
+        secondaryLocation.write(out);
+      }
+    }
+
+    static CachedIssue read(DataInputStream in) throws IOException {
+      String ruleKey = in.readUTF();
+      AnalyzerMessage.TextSpan textSpan = null;
+      if (in.readBoolean()) {
+        textSpan = new AnalyzerMessage.TextSpan(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+      }
+      String message = in.readUTF();
+      int cost = in.readInt();
+      int size = in.readInt();
+      List<CachedIssue> secondaryLocations = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        secondaryLocations.add(read(in));
+      }
+      return new CachedIssue(ruleKey, textSpan, message, cost, secondaryLocations);
+    }
+  }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Solver of gen/kill dataflow problems over the blocks of a {@link CFG}, facts being the bits of {@link BitSet}s.
+ * <p>
+ * For each block, the value at its join point (entry of the block for a forward analysis, exit for a backward one) is the meet of the
+ * values flowing from its neighbors, and the value after its transfer function is <code>gen | (join & ~kill)</code>. Blocks are visited
+ * in reverse postorder of the direction of the analysis until a fixpoint is reached. The boundary value, at the entry of the method for
+ * a forward analysis and at its exits for a backward one, is empty.
+ */
+public final class Dataflow {
+
+  public enum Direction {
+    FORWARD, BACKWARD
+  }
+
+  public enum Meet {
+    /**
+     * Facts holding on at least one path.
+     */
+    UNION,
+    /**
+     * Facts holding on all paths.
+     */
+    INTERSECTION
+  }
+
+  private final Direction direction;
+  private final int entryId;
+  private final BitSet[] join;
+  private final BitSet[] transfer;
+
+  private Dataflow(Direction direction, CFG cfg) {
+    this.direction = direction;
+    this.entryId = cfg.entry().id();
+    int blocks = cfg.reversedBlocks().size();
+    this.join = new BitSet[blocks];
+    this.transfer = new BitSet[blocks];
+  }
+
+  /**
+   * @param gen facts generated by each block, indexed by block id
+   * @param kill facts killed by each block, indexed by block id
+   * @param universe number of facts, used as initial value of an {@link Meet#INTERSECTION} analysis
+   */
+  public static Dataflow solve(CFG cfg, Direction direction, Meet meet, BitSet[] gen, BitSet[] kill, int universe) {
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    Preconditions.checkArgument(gen.length == blocks.size() && kill.length == blocks.size(), "One gen and one kill set are expected per block");
+    Dataflow dataflow = new Dataflow(direction, cfg);
+    for (CFG.Block block : blocks) {
+      dataflow.join[block.id()] = new BitSet(universe);
+      BitSet initial = new BitSet(universe);
+      if (meet == Meet.INTERSECTION) {
+        initial.set(0, universe);
+      }
+      dataflow.transfer[block.id()] = initial;
+    }
+    dataflow.solve(dataflow.order(cfg), meet, gen, kill, universe);
+    return dataflow;
+  }
+
+  private void solve(List<CFG.Block> order, Meet meet, BitSet[] gen, BitSet[] kill, int universe) {
+    BitSet result = new BitSet(universe);
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (CFG.Block block : order) {
+        int id = block.id();
+        BitSet blockJoin = join[id];
+        meet(blockJoin, neighbors(block), isBoundary(block), meet);
+        result.clear();
+        result.or(blockJoin);
+        result.andNot(kill[id]);
+        result.or(gen[id]);
+        if (!result.equals(transfer[id])) {
+          transfer[id].clear();
+          transfer[id].or(result);
+          changed = true;
+        }
+      }
+    }
+  }
+
+  private void meet(BitSet blockJoin, Collection<CFG.Block> neighbors, boolean boundary, Meet meet) {
+    blockJoin.clear();
+    if (neighbors.isEmpty() || (boundary && meet == Meet.INTERSECTION)) {
+      return;
+    }
+    Iterator<CFG.Block> iterator = neighbors.iterator();
+    blockJoin.or(transfer[iterator.next().id()]);
+    while (iterator.hasNext()) {
+      BitSet neighbor = transfer[iterator.next().id()];
+      if (meet == Meet.UNION) {
+        blockJoin.or(neighbor);
+      } else {
+        blockJoin.and(neighbor);
+      }
+    }
+  }
+
+  private Collection<CFG.Block> neighbors(CFG.Block block) {
+    return direction == Direction.FORWARD ? block.predecessors() : block.successors();
+  }
+
+  private Collection<CFG.Block> followers(CFG.Block block) {
+    return direction == Direction.FORWARD ? block.successors() : block.predecessors();
+  }
+
+  private boolean isBoundary(CFG.Block block) {
+    return direction == Direction.FORWARD ? block.id() == entryId : block.successors().isEmpty();
+  }
+
+  /**
+   * @return blocks in reverse postorder from the boundary of the analysis, followed by the blocks unreachable from it
+   */
+  private List<CFG.Block> order(CFG cfg) {
+    List<CFG.Block> roots = new ArrayList<>();
+    if (direction == Direction.FORWARD) {
+      roots.add(cfg.entry());
+    } else {
+      for (CFG.Block block : cfg.reversedBlocks()) {
+        if (block.successors().isEmpty()) {
+          roots.add(block);
+        }
+      }
+    }
+    int size = cfg.reversedBlocks().size();
+    BitSet visited = new BitSet(size);
+    List<CFG.Block> postorder = new ArrayList<>(size);
+    Deque<CFG.Block> stack = new ArrayDeque<>();
+    Deque<Iterator<CFG.Block>> iterators = new ArrayDeque<>();
+    for (CFG.Block root : roots) {
+      if (visited.get(root.id())) {
+        continue;
+      }
+      visited.set(root.id());
+      stack.push(root);
+      iterators.push(followers(root).iterator());
+      while (!stack.isEmpty()) {
+        Iterator<CFG.Block> iterator = iterators.peek();
+        if (iterator.hasNext()) {
+          CFG.Block next = iterator.next();
+          if (!visited.get(next.id())) {
+            visited.set(next.id());
+            stack.push(next);
+            iterators.push(followers(next).iterator());
+          }
+        } else {
+          postorder.add(stack.pop());
+          iterators.pop();
+        }
+      }
+    }
+    List<CFG.Block> order = new ArrayList<>(size);
+    for (int i = postorder.size() - 1; i >= 0; i--) {
+      order.add(postorder.get(i));
+    }
+    for (CFG.Block block : cfg.reversedBlocks()) {
+      if (!visited.get(block.id())) {
+        order.add(block);
+      }
+    }
+    return order;
+  }
+
+  /**
+   * @return facts at the entry of the given block. The returned set must not be modified.
+   */
+  public BitSet in(CFG.Block block) {
+    return direction == Direction.FORWARD ? join[block.id()] : transfer[block.id()];
+  }
+
+  /**
+   * @return facts at the exit of the given block. The returned set must not be modified.
+   */
+  public BitSet out(CFG.Block block) {
+    return direction == Direction.FORWARD ? transfer[block.id()] : join[block.id()];
+  }
+
+}
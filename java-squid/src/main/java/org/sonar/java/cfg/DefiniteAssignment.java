@@ -0,0 +1,82 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Forward analysis of the local variables assigned on every path from the entry of the method.
+ * Variables declared without initializer are unassigned until a definition (as computed by {@link ReachingDefinitions}) is met.
+ */
+public class DefiniteAssignment {
+
+  private final SymbolIndex symbols = new SymbolIndex();
+  private Dataflow dataflow;
+
+  private DefiniteAssignment() {
+  }
+
+  public static DefiniteAssignment analyze(CFG cfg) {
+    DefiniteAssignment definiteAssignment = new DefiniteAssignment();
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    BitSet[] gen = new BitSet[blocks.size()];
+    BitSet[] kill = new BitSet[blocks.size()];
+    for (CFG.Block block : blocks) {
+      BitSet blockGen = new BitSet();
+      BitSet blockKill = new BitSet();
+      for (Tree element : block.elements()) {
+        Symbol symbol = ReachingDefinitions.definedVariable(element);
+        if (symbol != null) {
+          blockGen.set(definiteAssignment.symbols.add(symbol));
+        } else if (element.is(Tree.Kind.VARIABLE)) {
+          int id = definiteAssignment.symbols.add(((VariableTree) element).symbol());
+          blockGen.clear(id);
+          blockKill.set(id);
+        }
+      }
+      gen[block.id()] = blockGen;
+      kill[block.id()] = blockKill;
+    }
+    definiteAssignment.dataflow = Dataflow.solve(cfg, Dataflow.Direction.FORWARD, Dataflow.Meet.INTERSECTION, gen, kill,
+      definiteAssignment.symbols.size());
+    return definiteAssignment;
+  }
+
+  /**
+   * @return variables definitely assigned at the entry of the given block
+   */
+  public Set<Symbol> getIn(CFG.Block block) {
+    return symbols.symbols(dataflow.in(block));
+  }
+
+  /**
+   * @return variables definitely assigned at the exit of the given block
+   */
+  public Set<Symbol> getOut(CFG.Block block) {
+    return symbols.symbols(dataflow.out(block));
+  }
+
+}
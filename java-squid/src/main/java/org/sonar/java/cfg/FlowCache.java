@@ -0,0 +1,84 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * Control flow graphs and live variables of the methods of a file, computed at most once per method and shared by the checks and the
+ * symbolic execution of the file. Methods of a file may be requested concurrently.
+ * Checks, custom rules included, get the cache of the file they scan with {@link #of(JavaFileScannerContext)}.
+ */
+public final class FlowCache {
+
+  private final LoadingCache<MethodTree, CFG> cfgs = CacheBuilder.newBuilder().build(new CacheLoader<MethodTree, CFG>() {
+    @Override
+    public CFG load(MethodTree methodTree) {
+      return CFG.build(methodTree);
+    }
+  });
+
+  private final LoadingCache<MethodTree, LiveVariables> liveVariables = CacheBuilder.newBuilder().build(new CacheLoader<MethodTree, LiveVariables>() {
+    @Override
+    public LiveVariables load(MethodTree methodTree) {
+      return LiveVariables.analyze(cfg(methodTree));
+    }
+  });
+
+  /**
+   * @return cache of the file of the given context, or a new cache if the context does not provide one
+   */
+  public static FlowCache of(JavaFileScannerContext context) {
+    if (context instanceof DefaultJavaFileScannerContext) {
+      return ((DefaultJavaFileScannerContext) context).flowCache();
+    }
+    return new FlowCache();
+  }
+
+  /**
+   * @param methodTree method with a body
+   */
+  public CFG cfg(MethodTree methodTree) {
+    return get(cfgs, methodTree);
+  }
+
+  /**
+   * @param methodTree method with a body
+   */
+  public LiveVariables liveVariables(MethodTree methodTree) {
+    return get(liveVariables, methodTree);
+  }
+
+  private static <V> V get(LoadingCache<MethodTree, V> cache, MethodTree methodTree) {
+    try {
+      return cache.getUnchecked(methodTree);
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+}
@@ -19,9 +19,7 @@
  */
 package org.sonar.java.cfg;
 
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -32,88 +30,91 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-public class
-    LiveVariables {
+/**
+ * Backward analysis of the local variables whose value may be read before being assigned again.
+ */
+public class LiveVariables {
 
   private final CFG cfg;
-  private final Map<CFG.Block, Set<Symbol>> out = new HashMap<>();
+  private final SymbolIndex symbols = new SymbolIndex();
+  private final ConcurrentMap<CFG.Block, Set<Symbol>> out = new ConcurrentHashMap<>();
+  private final ConcurrentMap<CFG.Block, Set<Symbol>> in = new ConcurrentHashMap<>();
+  private Dataflow dataflow;
 
   private LiveVariables(CFG cfg) {
     this.cfg = cfg;
   }
 
+  /**
+   * @return variables live at the exit of the given block
+   */
   public Set<Symbol> getOut(CFG.Block block) {
-    return out.get(block);
+    return symbols(out, block, dataflow.out(block));
   }
 
-  public static LiveVariables analyze(CFG cfg) {
-    LiveVariables liveVariables = new LiveVariables(cfg);
-    final Map<CFG.Block, Set<Symbol>> in = new HashMap<>();
-    // Generate kill/gen for each block in isolation
-    Map<CFG.Block, Set<Symbol>> kill = new HashMap<>();
-    Map<CFG.Block, Set<Symbol>> gen = new HashMap<>();
-    for (CFG.Block block : liveVariables.cfg.reversedBlocks()) {
-      Set<Symbol> blockKill = new HashSet<>();
-      Set<Symbol> blockGen = new HashSet<>();
-      liveVariables.processBlockElements(block, blockKill, blockGen);
-      kill.put(block, blockKill);
-      gen.put(block, blockGen);
-    }
-    liveVariables.analyzeCFG(in, kill, gen);
-    // out of exit block are empty by definition.
-    if (!liveVariables.out.get(liveVariables.cfg.reversedBlocks().get(0)).isEmpty()) {
-      throw new IllegalStateException("Out of exit block should be empty");
-    }
+  /**
+   * @return variables live at the entry of the given block
+   */
+  public Set<Symbol> getIn(CFG.Block block) {
+    return symbols(in, block, dataflow.in(block));
+  }
 
-    // Make things immutable.
-    for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.out.entrySet()) {
-      blockSetEntry.setValue(ImmutableSet.copyOf(blockSetEntry.getValue()));
+  private Set<Symbol> symbols(ConcurrentMap<CFG.Block, Set<Symbol>> cache, CFG.Block block, BitSet bits) {
+    Set<Symbol> result = cache.get(block);
+    if (result == null) {
+      result = symbols.symbols(bits);
+      cache.putIfAbsent(block, result);
     }
+    return result;
+  }
 
-    return liveVariables;
+  /**
+   * @return numbering of the variables of {@link #liveOut(CFG.Block)} and {@link #liveIn(CFG.Block)}
+   */
+  public SymbolIndex symbols() {
+    return symbols;
   }
 
-  private void analyzeCFG(Map<CFG.Block, Set<Symbol>> in, Map<CFG.Block, Set<Symbol>> kill, Map<CFG.Block, Set<Symbol>> gen) {
-    Deque<CFG.Block> workList = new LinkedList<>();
-    workList.addAll(cfg.reversedBlocks());
-    while (!workList.isEmpty()) {
-      CFG.Block block = workList.removeFirst();
+  /**
+   * @return ids of the variables live at the exit of the given block, not to be modified
+   */
+  public BitSet liveOut(CFG.Block block) {
+    return dataflow.out(block);
+  }
 
-      Set<Symbol> blockOut = out.get(block);
-      if (blockOut == null) {
-        blockOut = new HashSet<>();
-        out.put(block, blockOut);
-      }
-      for (CFG.Block successor : block.successors()) {
-        Set<Symbol> inOfSuccessor = in.get(successor);
-        if (inOfSuccessor != null) {
-          blockOut.addAll(inOfSuccessor);
-        }
-      }
-      // in = gen and (out - kill)
-      Set<Symbol> newIn = new HashSet<>(gen.get(block));
-      newIn.addAll(Sets.difference(blockOut, kill.get(block)));
+  /**
+   * @return ids of the variables live at the entry of the given block, not to be modified
+   */
+  public BitSet liveIn(CFG.Block block) {
+    return dataflow.in(block);
+  }
 
-      if (newIn.equals(in.get(block))) {
-        continue;
-      }
-      in.put(block, newIn);
-      for (CFG.Block predecessor : block.predecessors()) {
-        workList.addLast(predecessor);
-      }
+  public static LiveVariables analyze(CFG cfg) {
+    LiveVariables liveVariables = new LiveVariables(cfg);
+    // Generate kill/gen for each block in isolation
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    BitSet[] kill = new BitSet[blocks.size()];
+    BitSet[] gen = new BitSet[blocks.size()];
+    for (CFG.Block block : blocks) {
+      BitSet blockKill = new BitSet();
+      BitSet blockGen = new BitSet();
+      liveVariables.processBlockElements(block, blockKill, blockGen);
+      kill[block.id()] = blockKill;
+      gen[block.id()] = blockGen;
     }
+    liveVariables.dataflow = Dataflow.solve(cfg, Dataflow.Direction.BACKWARD, Dataflow.Meet.UNION, gen, kill, liveVariables.symbols.size());
+    return liveVariables;
   }
 
-  private void processBlockElements(CFG.Block block, Set<Symbol> blockKill, Set<Symbol> blockGen) {
+  private void processBlockElements(CFG.Block block, BitSet blockKill, BitSet blockGen) {
     // process elements from bottom to top
     Set<Tree> assignmentLHS = new HashSet<>();
     for (Tree element : Lists.reverse(block.elements())) {
@@ -123,28 +124,26 @@ public class
           ExpressionTree lhs = ((AssignmentExpressionTree) element).variable();
           if (lhs.is(Tree.Kind.IDENTIFIER)) {
             symbol = ((IdentifierTree) lhs).symbol();
-            if (isLocalVariable(symbol)) {
+            if (SymbolIndex.isLocalVariable(symbol)) {
               assignmentLHS.add(lhs);
-              blockGen.remove(symbol);
-              blockKill.add(symbol);
+              kill(symbol, blockKill, blockGen);
             }
           }
           break;
         case IDENTIFIER:
           symbol = ((IdentifierTree) element).symbol();
-          if (!assignmentLHS.contains(element) && isLocalVariable(symbol)) {
-            blockGen.add(symbol);
+          if (!assignmentLHS.contains(element) && SymbolIndex.isLocalVariable(symbol)) {
+            blockGen.set(symbols.add(symbol));
           }
           break;
         case VARIABLE:
-          blockKill.add(((VariableTree) element).symbol());
-          blockGen.remove(((VariableTree) element).symbol());
+          kill(((VariableTree) element).symbol(), blockKill, blockGen);
           break;
         case LAMBDA_EXPRESSION:
-          blockGen.addAll(getUsedVariables(((LambdaExpressionTree) element).body(), cfg.methodSymbol()));
+          gen(getUsedVariables(((LambdaExpressionTree) element).body(), cfg.methodSymbol()), blockGen);
           break;
         case NEW_CLASS:
-          blockGen.addAll(getUsedVariables(((NewClassTree) element).classBody(), cfg.methodSymbol()));
+          gen(getUsedVariables(((NewClassTree) element).classBody(), cfg.methodSymbol()), blockGen);
           break;
         default:
           // Ignore other kind of elements, no change of gen/kill
@@ -152,8 +151,16 @@ public class
     }
   }
 
-  private static boolean isLocalVariable(Symbol symbol) {
-    return symbol.owner().isMethodSymbol();
+  private void kill(Symbol symbol, BitSet blockKill, BitSet blockGen) {
+    int id = symbols.add(symbol);
+    blockKill.set(id);
+    blockGen.clear(id);
+  }
+
+  private void gen(List<Symbol> usedVariables, BitSet blockGen) {
+    for (Symbol usedVariable : usedVariables) {
+      blockGen.set(symbols.add(usedVariable));
+    }
   }
 
   private static List<Symbol> getUsedVariables(@Nullable Tree syntaxNode, Symbol.MethodSymbol owner) {
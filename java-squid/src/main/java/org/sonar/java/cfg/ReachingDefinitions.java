@@ -0,0 +1,184 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import com.google.common.collect.ImmutableSet;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Forward analysis of the assignments of local variables which may reach each block without being overwritten.
+ * A definition is a variable declared with an initializer or as for-each variable, an assignment, a compound assignment or an
+ * increment/decrement of a local variable.
+ */
+public class ReachingDefinitions {
+
+  private final SymbolIndex symbols = new SymbolIndex();
+  private final List<Tree> definitions = new ArrayList<>();
+  private final List<Symbol> definedSymbols = new ArrayList<>();
+  private final List<BitSet> definitionsOfSymbol = new ArrayList<>();
+  private Dataflow dataflow;
+
+  private ReachingDefinitions() {
+  }
+
+  public static ReachingDefinitions analyze(CFG cfg) {
+    ReachingDefinitions reachingDefinitions = new ReachingDefinitions();
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    // Number definitions first: kill sets of a block depend on the definitions of the whole method
+    for (CFG.Block block : blocks) {
+      for (Tree element : block.elements()) {
+        Symbol symbol = definedVariable(element);
+        if (symbol != null) {
+          reachingDefinitions.addDefinition(element, symbol);
+        }
+      }
+    }
+    BitSet[] gen = new BitSet[blocks.size()];
+    BitSet[] kill = new BitSet[blocks.size()];
+    int definition = 0;
+    for (CFG.Block block : blocks) {
+      BitSet blockGen = new BitSet();
+      BitSet blockKill = new BitSet();
+      for (Tree element : block.elements()) {
+        Symbol symbol = definedVariable(element);
+        if (symbol != null) {
+          BitSet definitionsOfSymbol = reachingDefinitions.definitionsOfSymbol.get(reachingDefinitions.symbols.id(symbol));
+          blockGen.andNot(definitionsOfSymbol);
+          blockGen.set(definition);
+          blockKill.or(definitionsOfSymbol);
+          definition++;
+        }
+      }
+      gen[block.id()] = blockGen;
+      kill[block.id()] = blockKill;
+    }
+    reachingDefinitions.dataflow = Dataflow.solve(cfg, Dataflow.Direction.FORWARD, Dataflow.Meet.UNION, gen, kill,
+      reachingDefinitions.definitions.size());
+    return reachingDefinitions;
+  }
+
+  private void addDefinition(Tree element, Symbol symbol) {
+    int symbolId = symbols.id(symbol);
+    if (symbolId < 0) {
+      symbolId = symbols.add(symbol);
+      definitionsOfSymbol.add(new BitSet());
+    }
+    definitionsOfSymbol.get(symbolId).set(definitions.size());
+    definitions.add(element);
+    definedSymbols.add(symbol);
+  }
+
+  /**
+   * @return definitions reaching the entry of the given block
+   */
+  public Set<Tree> getIn(CFG.Block block) {
+    return definitions(dataflow.in(block), null);
+  }
+
+  /**
+   * @return definitions reaching the exit of the given block
+   */
+  public Set<Tree> getOut(CFG.Block block) {
+    return definitions(dataflow.out(block), null);
+  }
+
+  /**
+   * @return definitions of the given variable reaching the entry of the given block
+   */
+  public Set<Tree> getIn(CFG.Block block, Symbol symbol) {
+    return definitions(dataflow.in(block), symbol);
+  }
+
+  private Set<Tree> definitions(BitSet bits, @Nullable Symbol symbol) {
+    ImmutableSet.Builder<Tree> builder = ImmutableSet.builder();
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      if (symbol == null || symbol.equals(definedSymbols.get(i))) {
+        builder.add(definitions.get(i));
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the local variable written by the given element of a block, null if it does not define any
+   */
+  @CheckForNull
+  static Symbol definedVariable(Tree element) {
+    switch (element.kind()) {
+      case ASSIGNMENT:
+      case MULTIPLY_ASSIGNMENT:
+      case DIVIDE_ASSIGNMENT:
+      case REMAINDER_ASSIGNMENT:
+      case PLUS_ASSIGNMENT:
+      case MINUS_ASSIGNMENT:
+      case LEFT_SHIFT_ASSIGNMENT:
+      case RIGHT_SHIFT_ASSIGNMENT:
+      case UNSIGNED_RIGHT_SHIFT_ASSIGNMENT:
+      case AND_ASSIGNMENT:
+      case XOR_ASSIGNMENT:
+      case OR_ASSIGNMENT:
+        return localVariable(((AssignmentExpressionTree) element).variable());
+      case PREFIX_INCREMENT:
+      case PREFIX_DECREMENT:
+      case POSTFIX_INCREMENT:
+      case POSTFIX_DECREMENT:
+        return localVariable(((UnaryExpressionTree) element).expression());
+      case VARIABLE:
+        VariableTree variable = (VariableTree) element;
+        if (variable.initializer() != null || isForEachVariable(variable)) {
+          return variable.symbol();
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  static boolean isForEachVariable(VariableTree variable) {
+    Tree parent = ((JavaTree) variable).parent();
+    return parent != null && parent.is(Tree.Kind.FOR_EACH_STATEMENT);
+  }
+
+  @CheckForNull
+  private static Symbol localVariable(ExpressionTree expression) {
+    if (expression.is(Tree.Kind.IDENTIFIER)) {
+      Symbol symbol = ((IdentifierTree) expression).symbol();
+      if (SymbolIndex.isLocalVariable(symbol)) {
+        return symbol;
+      }
+    }
+    return null;
+  }
+
+}
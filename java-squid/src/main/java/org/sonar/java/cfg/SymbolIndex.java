@@ -0,0 +1,83 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import com.google.common.collect.ImmutableSet;
+import org.sonar.plugins.java.api.semantic.Symbol;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dense numbering of the local variables of a method, for their facts to be stored in {@link BitSet}s.
+ */
+public final class SymbolIndex {
+
+  private final Map<Symbol, Integer> ids = new HashMap<>();
+  private final List<Symbol> symbols = new ArrayList<>();
+
+  /**
+   * @return id of the given symbol, a new id being assigned to symbols not yet numbered
+   */
+  public int add(Symbol symbol) {
+    Integer id = ids.get(symbol);
+    if (id == null) {
+      id = symbols.size();
+      ids.put(symbol, id);
+      symbols.add(symbol);
+    }
+    return id;
+  }
+
+  /**
+   * @return id of the given symbol, or -1 if it is not numbered
+   */
+  public int id(Symbol symbol) {
+    Integer id = ids.get(symbol);
+    return id == null ? -1 : id;
+  }
+
+  public Symbol symbol(int id) {
+    return symbols.get(id);
+  }
+
+  public int size() {
+    return symbols.size();
+  }
+
+  public Set<Symbol> symbols(BitSet bits) {
+    ImmutableSet.Builder<Symbol> result = ImmutableSet.builder();
+    for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+      result.add(symbols.get(id));
+    }
+    return result.build();
+  }
+
+  static boolean isLocalVariable(@Nullable Symbol symbol) {
+    return symbol != null && symbol.owner().isMethodSymbol();
+  }
+
+}
@@ -0,0 +1,524 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.collections;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Hash array mapped trie, in its compressed form (CHAMP): entries are kept inline in the nodes, sub-nodes are stored at the end of
+ * the node array, and nodes are canonical, so that two tries with the same content have the same structure whatever order of insertions.
+ *
+ * http://michael.steindorfer.name/publications/oopsla15.pdf
+ *
+ * Compared to {@link AVLTree}, an update copies at most one small node per level of the 32-ary trie, hash code of the trie is maintained on
+ * updates and equality is based on content, with shortcuts on shared nodes.
+ */
+public final class HashArrayMappedTrie<K, V> implements PMap<K, V>, PSet<K> {
+
+  private static final int BITS = 5;
+  private static final int HASH_BITS = 32;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final HashArrayMappedTrie EMPTY = new HashArrayMappedTrie(BitmapNode.EMPTY, 0, 0);
+
+  private final Node root;
+  private final int size;
+  private final int hashCode;
+
+  private HashArrayMappedTrie(Node root, int size, int hashCode) {
+    this.root = root;
+    this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  /**
+   * @return empty trie
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> HashArrayMappedTrie<K, V> create() {
+    return EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public HashArrayMappedTrie<K, V> add(K e) {
+    return put(e, (V) e);
+  }
+
+  @Override
+  public boolean contains(K k) {
+    return get(k) != null;
+  }
+
+  @Override
+  public HashArrayMappedTrie<K, V> put(K key, V value) {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(value);
+    Change change = new Change();
+    Node newRoot = root.put(key, value, key.hashCode(), 0, change);
+    if (newRoot == root) {
+      return this;
+    }
+    if (change.oldValue == null) {
+      return new HashArrayMappedTrie<>(newRoot, size + 1, hashCode + entryHashCode(key, value));
+    }
+    return new HashArrayMappedTrie<>(newRoot, size, hashCode - entryHashCode(key, change.oldValue) + entryHashCode(key, value));
+  }
+
+  @Override
+  public HashArrayMappedTrie<K, V> remove(K key) {
+    Preconditions.checkNotNull(key);
+    Change change = new Change();
+    Node newRoot = root.remove(key, key.hashCode(), 0, change);
+    if (newRoot == root) {
+      return this;
+    }
+    if (size == 1) {
+      return create();
+    }
+    return new HashArrayMappedTrie<>(newRoot, size - 1, hashCode - entryHashCode(key, change.oldValue));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  @Override
+  public V get(K key) {
+    Preconditions.checkNotNull(key);
+    return (V) root.get(key, key.hashCode(), 0);
+  }
+
+  @Override
+  public void forEach(PMap.Consumer<K, V> action) {
+    root.forEach(action);
+  }
+
+  @Override
+  public void forEach(final PSet.Consumer<K> action) {
+    root.forEach(new PMap.Consumer<K, V>() {
+      @Override
+      public void accept(K key, V value) {
+        action.accept(key);
+      }
+    });
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj instanceof HashArrayMappedTrie) {
+      HashArrayMappedTrie other = (HashArrayMappedTrie) obj;
+      return size == other.size && hashCode == other.hashCode && root.equals(other.root);
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    forEach(new PMap.Consumer<K, V>() {
+      @Override
+      public void accept(K key, V value) {
+        sb.append(' ').append(key).append("->").append(value);
+      }
+    });
+    return sb.toString();
+  }
+
+  private static int entryHashCode(Object key, Object value) {
+    return key.hashCode() * 31 + value.hashCode();
+  }
+
+  private static int mask(int hash, int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  private static int bitpos(int hash, int shift) {
+    return 1 << mask(hash, shift);
+  }
+
+  /**
+   * Value replaced or removed by an update, null when an entry has been added.
+   */
+  private static class Change {
+    Object oldValue;
+  }
+
+  private abstract static class Node {
+
+    @Nullable
+    abstract Object get(Object key, int hash, int shift);
+
+    /**
+     * @return this node when it already contains the given entry
+     */
+    abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+    /**
+     * @return this node when it does not contain the given key
+     */
+    abstract Node remove(Object key, int hash, int shift, Change change);
+
+    abstract void forEach(PMap.Consumer action);
+
+    /**
+     * Nodes with a single entry are only transient: the entry is moved into the parent node.
+     */
+    abstract boolean hasSingleEntry();
+
+    abstract Object key(int index);
+
+    abstract Object value(int index);
+
+  }
+
+  /**
+   * Node of the trie with entries and sub-nodes indexed by 5 bits of the hash of keys.
+   * Content array holds key-value pairs in order of their bit, followed by the sub-nodes in reverse order of their bit.
+   */
+  private static final class BitmapNode extends Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+    private final int dataMap;
+    private final int nodeMap;
+    private final Object[] content;
+
+    BitmapNode(int dataMap, int nodeMap, Object[] content) {
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.content = content;
+    }
+
+    private int dataIndex(int bit) {
+      return 2 * Integer.bitCount(dataMap & (bit - 1));
+    }
+
+    private int nodeIndex(int bit) {
+      return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int bit = bitpos(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = dataIndex(bit);
+        return key.equals(content[index]) ? content[index + 1] : null;
+      }
+      if ((nodeMap & bit) != 0) {
+        return ((Node) content[nodeIndex(bit)]).get(key, hash, shift + BITS);
+      }
+      return null;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift, Change change) {
+      int bit = bitpos(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = dataIndex(bit);
+        Object currentKey = content[index];
+        Object currentValue = content[index + 1];
+        if (currentKey.equals(key)) {
+          if (currentValue.equals(value)) {
+            return this;
+          }
+          change.oldValue = currentValue;
+          Object[] newContent = content.clone();
+          newContent[index + 1] = value;
+          return new BitmapNode(dataMap, nodeMap, newContent);
+        }
+        Node subNode = createNode(currentKey, currentValue, currentKey.hashCode(), key, value, hash, shift + BITS);
+        return migrateToNode(bit, subNode);
+      }
+      if ((nodeMap & bit) != 0) {
+        int index = nodeIndex(bit);
+        Node subNode = (Node) content[index];
+        Node newSubNode = subNode.put(key, value, hash, shift + BITS, change);
+        if (newSubNode == subNode) {
+          return this;
+        }
+        return setNode(index, newSubNode);
+      }
+      int index = dataIndex(bit);
+      Object[] newContent = new Object[content.length + 2];
+      System.arraycopy(content, 0, newContent, 0, index);
+      newContent[index] = key;
+      newContent[index + 1] = value;
+      System.arraycopy(content, index, newContent, index + 2, content.length - index);
+      return new BitmapNode(dataMap | bit, nodeMap, newContent);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift, Change change) {
+      int bit = bitpos(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = dataIndex(bit);
+        if (!key.equals(content[index])) {
+          return this;
+        }
+        change.oldValue = content[index + 1];
+        Object[] newContent = new Object[content.length - 2];
+        System.arraycopy(content, 0, newContent, 0, index);
+        System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+        return new BitmapNode(dataMap ^ bit, nodeMap, newContent);
+      }
+      if ((nodeMap & bit) != 0) {
+        int index = nodeIndex(bit);
+        Node subNode = (Node) content[index];
+        Node newSubNode = subNode.remove(key, hash, shift + BITS, change);
+        if (newSubNode == subNode) {
+          return this;
+        }
+        if (!newSubNode.hasSingleEntry()) {
+          return setNode(index, newSubNode);
+        }
+        if (shift > 0 && dataMap == 0 && Integer.bitCount(nodeMap) == 1) {
+          // this node would then have a single entry: let parent node inline it
+          return newSubNode;
+        }
+        return migrateToInline(bit, newSubNode);
+      }
+      return this;
+    }
+
+    private Node setNode(int index, Node node) {
+      Object[] newContent = content.clone();
+      newContent[index] = node;
+      return new BitmapNode(dataMap, nodeMap, newContent);
+    }
+
+    private Node migrateToNode(int bit, Node node) {
+      int oldIndex = dataIndex(bit);
+      int newIndex = nodeIndex(bit) - 1;
+      Object[] newContent = new Object[content.length - 1];
+      System.arraycopy(content, 0, newContent, 0, oldIndex);
+      System.arraycopy(content, oldIndex + 2, newContent, oldIndex, newIndex - oldIndex);
+      newContent[newIndex] = node;
+      System.arraycopy(content, newIndex + 2, newContent, newIndex + 1, content.length - newIndex - 2);
+      return new BitmapNode(dataMap ^ bit, nodeMap | bit, newContent);
+    }
+
+    private Node migrateToInline(int bit, Node node) {
+      int oldIndex = nodeIndex(bit);
+      int newIndex = dataIndex(bit);
+      Object[] newContent = new Object[content.length + 1];
+      System.arraycopy(content, 0, newContent, 0, newIndex);
+      newContent[newIndex] = node.key(0);
+      newContent[newIndex + 1] = node.value(0);
+      System.arraycopy(content, newIndex, newContent, newIndex + 2, oldIndex - newIndex);
+      System.arraycopy(content, oldIndex + 1, newContent, oldIndex + 2, content.length - oldIndex - 1);
+      return new BitmapNode(dataMap | bit, nodeMap ^ bit, newContent);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    void forEach(PMap.Consumer action) {
+      int dataLength = 2 * Integer.bitCount(dataMap);
+      for (int i = 0; i < dataLength; i += 2) {
+        action.accept(content[i], content[i + 1]);
+      }
+      for (int i = dataLength; i < content.length; i++) {
+        ((Node) content[i]).forEach(action);
+      }
+    }
+
+    @Override
+    boolean hasSingleEntry() {
+      return nodeMap == 0 && Integer.bitCount(dataMap) == 1;
+    }
+
+    @Override
+    Object key(int index) {
+      return content[2 * index];
+    }
+
+    @Override
+    Object value(int index) {
+      return content[2 * index + 1];
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * dataMap + nodeMap) + Arrays.hashCode(content);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof BitmapNode) {
+        BitmapNode other = (BitmapNode) obj;
+        return dataMap == other.dataMap && nodeMap == other.nodeMap && Arrays.equals(content, other.content);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Node holding entries whose keys have the same hash code.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+    private final Object[] content;
+
+    CollisionNode(int hash, Object[] content) {
+      this.hash = hash;
+      this.content = content;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < content.length; i += 2) {
+        if (key.equals(content[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int index = indexOf(key);
+      return index < 0 ? null : content[index + 1];
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift, Change change) {
+      int index = indexOf(key);
+      if (index < 0) {
+        Object[] newContent = Arrays.copyOf(content, content.length + 2);
+        newContent[content.length] = key;
+        newContent[content.length + 1] = value;
+        return new CollisionNode(hash, newContent);
+      }
+      if (content[index + 1].equals(value)) {
+        return this;
+      }
+      change.oldValue = content[index + 1];
+      Object[] newContent = content.clone();
+      newContent[index + 1] = value;
+      return new CollisionNode(hash, newContent);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift, Change change) {
+      int index = indexOf(key);
+      if (index < 0) {
+        return this;
+      }
+      change.oldValue = content[index + 1];
+      Object[] newContent = new Object[content.length - 2];
+      System.arraycopy(content, 0, newContent, 0, index);
+      System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+      return new CollisionNode(hash, newContent);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    void forEach(PMap.Consumer action) {
+      for (int i = 0; i < content.length; i += 2) {
+        action.accept(content[i], content[i + 1]);
+      }
+    }
+
+    @Override
+    boolean hasSingleEntry() {
+      return content.length == 2;
+    }
+
+    @Override
+    Object key(int index) {
+      return content[2 * index];
+    }
+
+    @Override
+    Object value(int index) {
+      return content[2 * index + 1];
+    }
+
+    @Override
+    public int hashCode() {
+      int result = hash;
+      for (int i = 0; i < content.length; i += 2) {
+        result += entryHashCode(content[i], content[i + 1]);
+      }
+      return result;
+    }
+
+    /**
+     * Order of entries depends on order of insertions.
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof CollisionNode) {
+        CollisionNode other = (CollisionNode) obj;
+        if (hash != other.hash || content.length != other.content.length) {
+          return false;
+        }
+        for (int i = 0; i < content.length; i += 2) {
+          Object otherValue = other.get(content[i], hash, HASH_BITS);
+          if (!content[i + 1].equals(otherValue)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static Node createNode(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+    if (shift >= HASH_BITS) {
+      return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+    }
+    int mask1 = mask(hash1, shift);
+    int mask2 = mask(hash2, shift);
+    if (mask1 == mask2) {
+      Node subNode = createNode(key1, value1, hash1, key2, value2, hash2, shift + BITS);
+      return new BitmapNode(0, 1 << mask1, new Object[] {subNode});
+    }
+    Object[] content = mask1 < mask2 ? new Object[] {key1, value1, key2, value2} : new Object[] {key2, value2, key1, value1};
+    return new BitmapNode((1 << mask1) | (1 << mask2), 0, content);
+  }
+
+}
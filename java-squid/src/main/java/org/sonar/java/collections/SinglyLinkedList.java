@@ -0,0 +1,145 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.collections;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Stack where each element is a node referencing the rest of the stack: push, pop and peek allocate at most one node,
+ * and stacks share their common bottom.
+ */
+final class SinglyLinkedList<E> implements PStack<E> {
+
+  private static final SinglyLinkedList EMPTY = new SinglyLinkedList<>(null, null, 0);
+
+  @Nullable
+  private final E element;
+  @Nullable
+  private final SinglyLinkedList<E> next;
+  private final int size;
+
+  private SinglyLinkedList(@Nullable E element, @Nullable SinglyLinkedList<E> next, int size) {
+    this.element = element;
+    this.next = next;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <E> SinglyLinkedList<E> empty() {
+    return EMPTY;
+  }
+
+  @Override
+  public SinglyLinkedList<E> push(E e) {
+    Preconditions.checkNotNull(e);
+    return new SinglyLinkedList<>(e, this, size + 1);
+  }
+
+  @Override
+  public E peek() {
+    Preconditions.checkState(size > 0, "Stack is empty");
+    return element;
+  }
+
+  @Override
+  public E peek(int depth) {
+    Preconditions.checkState(depth < size, "At least %s elements were expected on the stack", depth + 1);
+    SinglyLinkedList<E> result = this;
+    for (int i = 0; i < depth; i++) {
+      result = result.next;
+    }
+    return result.element;
+  }
+
+  @Override
+  public SinglyLinkedList<E> pop() {
+    Preconditions.checkState(size > 0, "Stack is empty");
+    return next;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void forEach(PSet.Consumer<E> action) {
+    SinglyLinkedList<E> current = this;
+    while (current.size > 0) {
+      action.accept(current.element);
+      current = current.next;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 0;
+    SinglyLinkedList<E> current = this;
+    while (current.size > 0) {
+      result = result * 31 + current.element.hashCode();
+      current = current.next;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof SinglyLinkedList)) {
+      return false;
+    }
+    SinglyLinkedList current = this;
+    SinglyLinkedList other = (SinglyLinkedList) obj;
+    if (current.size != other.size) {
+      return false;
+    }
+    while (current != other) {
+      if (!Objects.equals(current.element, other.element)) {
+        return false;
+      }
+      current = current.next;
+      other = other.next;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    SinglyLinkedList<E> current = this;
+    while (current.size > 0) {
+      sb.append(current.element);
+      current = current.next;
+      if (current.size > 0) {
+        sb.append(", ");
+      }
+    }
+    return sb.append(']').toString();
+  }
+
+}
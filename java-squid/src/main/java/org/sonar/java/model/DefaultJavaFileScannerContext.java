@@ -23,11 +23,13 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import org.sonar.java.AnalyzerMessage;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.visitors.ComplexityVisitor;
+import org.sonar.java.cfg.FlowCache;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.se.checks.SECheck;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -42,6 +44,7 @@ import org.sonar.squidbridge.api.SourceFile;
 import javax.annotation.Nullable;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,10 +60,27 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
   private final JavaVersion javaVersion;
   private final boolean fileParsed;
   private final Map<Class<? extends SECheck>, SetMultimap<Tree, String>> seIssues = new HashMap<>();
+  private List<AnalyzerMessage> recordedIssues = null;
+  private List<AnalyzerMessage> bufferedIssues = null;
+  private final Charset charset;
+  private FileText fileText;
+  private final FlowCache flowCache = new FlowCache();
 
   public DefaultJavaFileScannerContext(
     CompilationUnitTree tree, SourceFile sourceFile, File file, SemanticModel semanticModel, boolean analyseAccessors, @Nullable SonarComponents sonarComponents,
     JavaVersion javaVersion, boolean fileParsed) {
+    this(tree, sourceFile, file, semanticModel, analyseAccessors, sonarComponents, javaVersion, fileParsed, null, null);
+  }
+
+  /**
+   * @param fileText text of the file, read on first access when null
+   * @param charset charset of the file, the default charset of the platform when null
+   */
+  public DefaultJavaFileScannerContext(
+    CompilationUnitTree tree, SourceFile sourceFile, File file, SemanticModel semanticModel, boolean analyseAccessors, @Nullable SonarComponents sonarComponents,
+    JavaVersion javaVersion, boolean fileParsed, @Nullable FileText fileText, @Nullable Charset charset) {
+    this.fileText = fileText;
+    this.charset = charset != null ? charset : Charset.defaultCharset();
     this.tree = tree;
     this.sourceFile = sourceFile;
     this.file = file;
@@ -98,7 +118,11 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
 
   @Override
   public void addIssue(int line, JavaCheck javaCheck, String message, @Nullable Double cost) {
-    sonarComponents.addIssue(file, javaCheck, line, message, cost);
+    AnalyzerMessage analyzerMessage = new AnalyzerMessage(javaCheck, file, line, message, cost != null ? cost.intValue() : 0);
+    record(analyzerMessage);
+    if (!buffer(analyzerMessage)) {
+      sonarComponents.addIssue(file, javaCheck, line, message, cost);
+    }
   }
 
   @Override
@@ -125,7 +149,11 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
   @Override
   public void addIssue(File file, JavaCheck check, int line, String message) {
     if (sonarComponents != null) {
-      sonarComponents.addIssue(file, check, line, message, null);
+      AnalyzerMessage analyzerMessage = new AnalyzerMessage(check, file, line, message, 0);
+      record(analyzerMessage);
+      if (!buffer(analyzerMessage)) {
+        sonarComponents.addIssue(file, check, line, message, null);
+      }
     }
   }
 
@@ -141,7 +169,62 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
       AnalyzerMessage secondaryLocation = new AnalyzerMessage(javaCheck, file, AnalyzerMessage.textSpanFor(location.syntaxNode), location.msg, 0);
       analyzerMessage.secondaryLocations.add(secondaryLocation);
     }
-    sonarComponents.reportIssue(analyzerMessage);
+    reportIssue(analyzerMessage);
+  }
+
+  public void reportIssue(AnalyzerMessage analyzerMessage) {
+    record(analyzerMessage);
+    if (!buffer(analyzerMessage)) {
+      sonarComponents.reportIssue(analyzerMessage);
+    }
+  }
+
+  /**
+   * Keeps a copy of the issues reported from now on, see {@link #recordedIssues()}.
+   */
+  public void recordIssues() {
+    recordedIssues = Lists.newArrayList();
+  }
+
+  public List<AnalyzerMessage> recordedIssues() {
+    return recordedIssues == null ? ImmutableList.<AnalyzerMessage>of() : recordedIssues;
+  }
+
+  private void record(AnalyzerMessage analyzerMessage) {
+    if (recordedIssues != null) {
+      recordedIssues.add(analyzerMessage);
+    }
+  }
+
+  /**
+   * Holds back the issues reported from now on until {@link #flushIssues()}, so that issues of files scanned in parallel are
+   * reported in the order of the files.
+   */
+  public void bufferIssues() {
+    if (bufferedIssues == null) {
+      bufferedIssues = Lists.newArrayList();
+    }
+  }
+
+  /**
+   * Reports the issues held back since {@link #bufferIssues()}, subsequent issues are reported immediately.
+   */
+  public void flushIssues() {
+    if (bufferedIssues != null) {
+      List<AnalyzerMessage> issues = bufferedIssues;
+      bufferedIssues = null;
+      for (AnalyzerMessage issue : issues) {
+        sonarComponents.reportIssue(issue);
+      }
+    }
+  }
+
+  private boolean buffer(AnalyzerMessage analyzerMessage) {
+    if (bufferedIssues == null) {
+      return false;
+    }
+    bufferedIssues.add(analyzerMessage);
+    return true;
   }
 
   @Override
@@ -149,6 +232,41 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
     return file;
   }
 
+  /**
+   * @return charset with which the text of the file is read
+   */
+  Charset charset() {
+    return charset;
+  }
+
+  public FileText fileText() {
+    if (fileText == null) {
+      fileText = FileText.load(file, charset);
+    }
+    return fileText;
+  }
+
+  /**
+   * @return control flow graphs and live variables of the methods of this file
+   */
+  public FlowCache flowCache() {
+    return flowCache;
+  }
+
+  /**
+   * @return content of the file, read once for all the visitors of the file
+   */
+  public String getFileContent() {
+    return fileText().content();
+  }
+
+  /**
+   * @return lines of the file without their terminator
+   */
+  public List<String> getFileLines() {
+    return fileText().lines();
+  }
+
   @Override
   public int getComplexity(Tree tree) {
     return getComplexityNodes(tree).size();
@@ -0,0 +1,147 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.model;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Content of a source file, read once and shared by the parser and the visitors of the file, with the offsets at which its lines start.
+ * Lines are terminated by "\n", "\r\n" or "\r".
+ */
+public final class FileText {
+
+  private final String content;
+  private final int[] lineStarts;
+  private List<String> lines;
+
+  public FileText(String content) {
+    this.content = content;
+    this.lineStarts = lineStarts(content);
+  }
+
+  public static FileText load(File file, Charset charset) {
+    try {
+      return new FileText(Files.toString(file, charset));
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
+  /**
+   * @return text of the file of the given context read with the given charset, shared with the other visitors of the file when the
+   * context holds the text read with this charset
+   */
+  public static FileText of(JavaFileScannerContext context, Charset charset) {
+    if (context instanceof DefaultJavaFileScannerContext) {
+      DefaultJavaFileScannerContext defaultContext = (DefaultJavaFileScannerContext) context;
+      if (charset.equals(defaultContext.charset())) {
+        return defaultContext.fileText();
+      }
+    }
+    return load(context.getFile(), charset);
+  }
+
+  private static int[] lineStarts(String content) {
+    int[] starts = new int[16];
+    int count = 1;
+    int length = content.length();
+    for (int i = 0; i < length; i++) {
+      char c = content.charAt(i);
+      if (c == '\n' || (c == '\r' && (i + 1 == length || content.charAt(i + 1) != '\n'))) {
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, count * 2);
+        }
+        starts[count] = i + 1;
+        count++;
+      }
+    }
+    return Arrays.copyOf(starts, count);
+  }
+
+  public String content() {
+    return content;
+  }
+
+  /**
+   * @return number of lines, a line terminator at the end of the content being followed by an empty line
+   */
+  public int lineCount() {
+    return lineStarts.length;
+  }
+
+  /**
+   * @param line starts from 1
+   * @return offset in the content of the first character of the line
+   */
+  public int lineStart(int line) {
+    Preconditions.checkArgument(line >= 1 && line <= lineStarts.length, "Line %s not in [1, %s]", line, lineStarts.length);
+    return lineStarts[line - 1];
+  }
+
+  /**
+   * @param line starts from 1
+   * @param column starts from 0
+   * @return offset in the content of the character at the given position
+   */
+  public int offset(int line, int column) {
+    return lineStart(line) + column;
+  }
+
+  /**
+   * @return lines without their terminator, as read by {@link Files#readLines(File, Charset)}: there is no empty line after a
+   * terminator ending the content
+   */
+  public List<String> lines() {
+    if (lines == null) {
+      ImmutableList.Builder<String> builder = ImmutableList.builder();
+      for (int line = 1; line <= lineStarts.length; line++) {
+        int start = lineStarts[line - 1];
+        if (line == lineStarts.length) {
+          if (start < content.length()) {
+            builder.add(content.substring(start));
+          }
+        } else {
+          builder.add(content.substring(start, lineEnd(line)));
+        }
+      }
+      lines = builder.build();
+    }
+    return lines;
+  }
+
+  private int lineEnd(int line) {
+    int end = lineStarts[line] - 1;
+    if (end > lineStarts[line - 1] && content.charAt(end) == '\n' && content.charAt(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
+}
@@ -21,30 +21,46 @@ package org.sonar.java.model;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.sonar.sslr.api.RecognitionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.java.AnalyzerMessage;
 import org.sonar.java.CharsetAwareVisitor;
+import org.sonar.java.CheckCopies;
 import org.sonar.java.JavaVersionAwareVisitor;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
+import org.sonar.java.ast.visitors.SubscriptionDispatcher;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.ast.visitors.VisitorContext;
+import org.sonar.java.cache.AnalysisCache;
+import org.sonar.java.resolve.BytecodeCache;
+import org.sonar.java.resolve.PackageIndex;
 import org.sonar.java.resolve.SemanticModel;
+import org.sonar.java.se.SymbolicExecutionConfiguration;
+import org.sonar.java.se.SymbolicExecutionMetrics;
 import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.checks.SECheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.ThreadSafeVisitor;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.ImportClauseTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.squidbridge.AstScannerExceptionHandler;
 import org.sonar.squidbridge.api.SourceFile;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 public class InternalVisitorsBridge {
 
@@ -53,11 +69,19 @@ public class InternalVisitorsBridge {
   private final List<JavaFileScanner> scanners;
   private final SonarComponents sonarComponents;
   private final boolean symbolicExecutionEnabled;
+  private final SymbolicExecutionMetrics symbolicExecutionMetrics;
+  private SymbolicExecutionConfiguration symbolicExecutionConfiguration = new SymbolicExecutionConfiguration();
+  private ForkJoinPool symbolicExecutionPool;
+  private final Set<JavaFileScanner> orderedScanners;
+  private final boolean worker;
+  private PendingFile pendingFile;
   private SemanticModel semanticModel;
-  private List<File> projectClasspath;
+  private final BytecodeCache bytecodeCache;
+  private AnalysisCache analysisCache;
   private boolean analyseAccessors;
   private VisitorContext context;
   private JavaVersion javaVersion;
+  private Charset charset;
 
   public InternalVisitorsBridge(Iterable visitors, List<File> projectClasspath, @Nullable SonarComponents sonarComponents) {
     this(visitors, projectClasspath, sonarComponents, true);
@@ -72,8 +96,71 @@ public class InternalVisitorsBridge {
     }
     this.scanners = scannersBuilder.build();
     this.sonarComponents = sonarComponents;
-    this.projectClasspath = projectClasspath;
+    this.bytecodeCache = new BytecodeCache(projectClasspath);
     this.symbolicExecutionEnabled = symbolicExecutionEnabled;
+    this.symbolicExecutionMetrics = new SymbolicExecutionMetrics();
+    this.orderedScanners = Collections.emptySet();
+    this.worker = false;
+    registerSymbolicExecutionChecks(symbolicExecutionConfiguration);
+  }
+
+  private InternalVisitorsBridge(InternalVisitorsBridge original, List<JavaFileScanner> scanners, Set<JavaFileScanner> orderedScanners) {
+    this.scanners = scanners;
+    this.sonarComponents = original.sonarComponents;
+    this.bytecodeCache = original.bytecodeCache;
+    this.analysisCache = original.analysisCache;
+    this.symbolicExecutionEnabled = original.symbolicExecutionEnabled;
+    this.symbolicExecutionMetrics = original.symbolicExecutionMetrics;
+    this.symbolicExecutionConfiguration = original.symbolicExecutionConfiguration;
+    this.symbolicExecutionPool = original.symbolicExecutionPool;
+    this.orderedScanners = orderedScanners;
+    this.worker = true;
+    this.analyseAccessors = original.analyseAccessors;
+    this.javaVersion = original.javaVersion;
+  }
+
+  /**
+   * Creates a bridge to be used by a single worker of a parallel scan.
+   * Scanners implementing {@link ThreadSafeVisitor} are shared with this bridge and executed by the worker, other scanners are
+   * instantiated again for the worker when they have a no-arg constructor (rule properties being copied).
+   * Scanners which can not be instantiated are never executed by the worker: they are executed by the scanning thread, one file
+   * at a time, when the pending file is completed (see {@link #takePendingFile()}), which is also when issues are reported.
+   */
+  public InternalVisitorsBridge copyForWorker() {
+    ImmutableList.Builder<JavaFileScanner> workerScanners = ImmutableList.builder();
+    Set<JavaFileScanner> ordered = Sets.newIdentityHashSet();
+    for (JavaFileScanner scanner : scanners) {
+      JavaFileScanner workerScanner = scanner;
+      if (!(scanner instanceof ThreadSafeVisitor)) {
+        workerScanner = newInstance(scanner);
+        if (workerScanner == null) {
+          workerScanner = scanner;
+          ordered.add(scanner);
+        } else if (sonarComponents != null) {
+          sonarComponents.registerCheckCopy(workerScanner, scanner);
+        }
+      }
+      workerScanners.add(workerScanner);
+    }
+    InternalVisitorsBridge copy = new InternalVisitorsBridge(this, workerScanners.build(), ordered);
+    if (charset != null) {
+      copy.setCharset(charset);
+    }
+    return copy;
+  }
+
+  @Nullable
+  private static JavaFileScanner newInstance(JavaFileScanner scanner) {
+    Class<? extends JavaFileScanner> scannerClass = scanner.getClass();
+    try {
+      return CheckCopies.copyOf(scanner);
+    } catch (NoSuchMethodException e) {
+      LOG.debug(scannerClass.getName() + " has no no-arg constructor, it will be executed on one file at a time");
+      return null;
+    } catch (ReflectiveOperationException e) {
+      LOG.debug("Unable to instantiate " + scannerClass.getName() + " for parallel analysis, it will be executed on one file at a time", e);
+      return null;
+    }
   }
 
   public void setAnalyseAccessors(boolean analyseAccessors) {
@@ -81,6 +168,7 @@ public class InternalVisitorsBridge {
   }
 
   public void setCharset(Charset charset) {
+    this.charset = charset;
     for (JavaFileScanner scanner : scanners) {
       if (scanner instanceof CharsetAwareVisitor) {
         ((CharsetAwareVisitor) scanner).setCharset(charset);
@@ -88,6 +176,25 @@ public class InternalVisitorsBridge {
     }
   }
 
+  /**
+   * Settings of symbolic execution, which may be shared by several bridges: checks of this bridge are registered on a copy of them.
+   */
+  public void setSymbolicExecutionConfiguration(SymbolicExecutionConfiguration symbolicExecutionConfiguration) {
+    this.symbolicExecutionConfiguration = symbolicExecutionConfiguration.copy();
+    registerSymbolicExecutionChecks(this.symbolicExecutionConfiguration);
+  }
+
+  /**
+   * Scanners which are symbolic execution checks are run by the exploration of methods, in addition to the built-in checks.
+   */
+  private void registerSymbolicExecutionChecks(SymbolicExecutionConfiguration configuration) {
+    for (JavaFileScanner scanner : scanners) {
+      if (scanner instanceof SECheck) {
+        configuration.addCheck((SECheck) scanner);
+      }
+    }
+  }
+
   public void setJavaVersion(JavaVersion javaVersion) {
     this.javaVersion = javaVersion;
   }
@@ -96,46 +203,98 @@ public class InternalVisitorsBridge {
     return this.javaVersion;
   }
 
+  @Nullable
+  public Charset getCharset() {
+    return charset;
+  }
+
   public void visitFile(@Nullable Tree parsedTree) {
+    visitFile(parsedTree, null);
+  }
+
+  /**
+   * @param fileText text of the file read by the parser, shared with the visitors of the file
+   */
+  public void visitFile(@Nullable Tree parsedTree, @Nullable FileText fileText) {
     semanticModel = null;
+    pendingFile = null;
     CompilationUnitTree tree = new JavaTree.CompilationUnitTreeImpl(null, Lists.<ImportClauseTree>newArrayList(), Lists.<Tree>newArrayList(), null);
     boolean fileParsed = parsedTree != null;
     if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
       tree = (CompilationUnitTree) parsedTree;
       if (isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
         try {
-          semanticModel = SemanticModel.createFor(tree, getProjectClasspath());
+          semanticModel = SemanticModel.createFor(tree, bytecodeCache);
         } catch (Exception e) {
           LOG.error("Unable to create symbol table for : " + getContext().getFile().getAbsolutePath(), e);
           return;
         }
-        createSonarSymbolTable(tree);
       } else {
         SemanticModel.handleMissingTypes(tree);
       }
     }
-    JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, semanticModel, analyseAccessors, sonarComponents, fileParsed);
+    JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, semanticModel, analyseAccessors, sonarComponents, fileParsed, fileText);
+    boolean cacheable = analysisCache != null && semanticModel != null && javaFileScannerContext instanceof DefaultJavaFileScannerContext;
+    if (worker && javaFileScannerContext instanceof DefaultJavaFileScannerContext) {
+      ((DefaultJavaFileScannerContext) javaFileScannerContext).bufferIssues();
+    }
+    List<AnalyzerMessage> replayedIssues = cacheable ? analysisCache.replay(getContext().getFile()) : null;
+    boolean replayed = replayedIssues != null;
+    if (replayed) {
+      for (AnalyzerMessage issue : replayedIssues) {
+        ((DefaultJavaFileScannerContext) javaFileScannerContext).reportIssue(issue);
+      }
+    } else if (cacheable) {
+      ((DefaultJavaFileScannerContext) javaFileScannerContext).recordIssues();
+    }
     // Symbolic execution checks
-    if (symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
-      new SymbolicExecutionVisitor().scanFile(javaFileScannerContext);
+    if (!replayed && symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
+      new SymbolicExecutionVisitor(symbolicExecutionConfiguration, symbolicExecutionMetrics, symbolicExecutionPool).scanFile(javaFileScannerContext);
     }
-    for (JavaFileScanner scanner : executableScanners(scanners)) {
+    for (JavaFileScanner scanner : fileScanners(replayed, false)) {
       scanner.scanFile(javaFileScannerContext);
     }
-    if (semanticModel != null) {
-      // Close class loader after all the checks.
-      semanticModel.done();
+    PendingFile file = new PendingFile(getContext().getFile(), tree, semanticModel, javaFileScannerContext, fileScanners(replayed, true), cacheable && !replayed);
+    if (worker) {
+      pendingFile = file;
+    } else {
+      file.complete();
     }
   }
 
-  private List<JavaFileScanner> executableScanners(List<JavaFileScanner> scanners) {
-    ImmutableList.Builder<JavaFileScanner> results = ImmutableList.builder();
+  /**
+   * @return the file last visited by this bridge if it is a copy for a worker, null otherwise
+   */
+  @CheckForNull
+  public PendingFile takePendingFile() {
+    PendingFile result = pendingFile;
+    pendingFile = null;
+    return result;
+  }
+
+  /**
+   * Subscription visitors which can be dispatched are replaced, at the position of the first of them, by a single dispatcher
+   * visiting the tree once for all of them.
+   *
+   * @param ordered true for the scanners executed by the scanning thread in the order of the files, false for the scanners executed by this bridge
+   */
+  private List<JavaFileScanner> fileScanners(boolean replayed, boolean ordered) {
+    List<JavaFileScanner> results = Lists.newArrayList();
+    List<SubscriptionVisitor> subscriptionVisitors = Lists.newArrayList();
     for (JavaFileScanner scanner : scanners) {
-      if (shouldBeExecuted(scanner)) {
+      if (!shouldBeExecuted(scanner) || (replayed && analysisCache.isRule(scanner)) || orderedScanners.contains(scanner) != ordered) {
+        continue;
+      }
+      if (SubscriptionDispatcher.canDispatch(scanner)) {
+        if (subscriptionVisitors.isEmpty()) {
+          results.add(new SubscriptionDispatcher(subscriptionVisitors));
+        }
+        subscriptionVisitors.add((SubscriptionVisitor) scanner);
+      } else {
         results.add(scanner);
       }
     }
-    return results.build();
+    return results;
   }
 
   private boolean shouldBeExecuted(JavaFileScanner scanner) {
@@ -146,7 +305,8 @@ public class InternalVisitorsBridge {
   }
 
   protected JavaFileScannerContext createScannerContext(
-    CompilationUnitTree tree, SemanticModel semanticModel, boolean analyseAccessors, SonarComponents sonarComponents, boolean fileParsed) {
+    CompilationUnitTree tree, SemanticModel semanticModel, boolean analyseAccessors, SonarComponents sonarComponents, boolean fileParsed,
+    @Nullable FileText fileText) {
     return new DefaultJavaFileScannerContext(
       tree,
       (SourceFile) getContext().peekSourceCode(),
@@ -155,7 +315,9 @@ public class InternalVisitorsBridge {
       analyseAccessors,
       sonarComponents,
       javaVersion,
-      fileParsed);
+      fileParsed,
+      fileText,
+      charset);
   }
 
   private boolean isNotJavaLangOrSerializable(String packageName) {
@@ -175,13 +337,49 @@ public class InternalVisitorsBridge {
     return "java/lang".equals(packageName);
   }
 
-  private List<File> getProjectClasspath() {
-    return projectClasspath;
+  /**
+   * Rules are not executed on files for which the given cache holds up to date issues.
+   */
+  public void setAnalysisCache(@Nullable AnalysisCache analysisCache) {
+    this.analysisCache = analysisCache;
+  }
+
+  /**
+   * Classes of packages which are not in the given index are considered as missing without looking at the classpath.
+   */
+  public void setPackageIndex(@Nullable PackageIndex packageIndex) {
+    bytecodeCache.setPackageIndex(packageIndex);
+  }
+
+  public void startOfAnalysis(Iterable<File> files) {
+    if (symbolicExecutionEnabled && symbolicExecutionConfiguration.parallelism() > 1) {
+      symbolicExecutionPool = new ForkJoinPool(symbolicExecutionConfiguration.parallelism());
+    }
+    if (analysisCache != null) {
+      analysisCache.prepare(files, scanners, bytecodeCache.classpath(), javaVersion);
+    }
+  }
+
+  /**
+   * Releases classpath shared by the semantic models of the scanned files and threads of symbolic execution, and saves the analysis cache.
+   */
+  public void endOfAnalysis() {
+    if (symbolicExecutionPool != null) {
+      symbolicExecutionPool.shutdown();
+      symbolicExecutionPool = null;
+    }
+    if (symbolicExecutionMetrics.methods() > 0) {
+      LOG.debug("Symbolic execution: " + symbolicExecutionMetrics);
+    }
+    bytecodeCache.close();
+    if (analysisCache != null) {
+      analysisCache.save();
+    }
   }
 
-  private void createSonarSymbolTable(CompilationUnitTree tree) {
+  private void createSonarSymbolTable(File file, CompilationUnitTree tree, SemanticModel semanticModel) {
     if (sonarComponents != null) {
-      SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(getContext().getFile()), semanticModel);
+      SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(file), semanticModel);
       symVisitor.visitCompilationUnit(tree);
     }
   }
@@ -189,7 +387,64 @@ public class InternalVisitorsBridge {
   public void processRecognitionException(RecognitionException e) {
     for (JavaFileScanner scanner : scanners) {
       if (scanner instanceof AstScannerExceptionHandler) {
-        ((AstScannerExceptionHandler) scanner).processRecognitionException(e);
+        if (pendingFile != null && orderedScanners.contains(scanner)) {
+          pendingFile.recognitionException = e;
+        } else {
+          ((AstScannerExceptionHandler) scanner).processRecognitionException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * File visited by the scanners of a bridge, whose ordered scanners and reporting of issues are left to the scanning thread.
+   */
+  public class PendingFile {
+
+    private final File file;
+    private final CompilationUnitTree tree;
+    private final SemanticModel semanticModel;
+    private final JavaFileScannerContext javaFileScannerContext;
+    private final List<JavaFileScanner> scanners;
+    private final boolean storeInCache;
+    private RecognitionException recognitionException;
+
+    private PendingFile(File file, CompilationUnitTree tree, @Nullable SemanticModel semanticModel, JavaFileScannerContext javaFileScannerContext,
+      List<JavaFileScanner> scanners, boolean storeInCache) {
+      this.file = file;
+      this.tree = tree;
+      this.semanticModel = semanticModel;
+      this.javaFileScannerContext = javaFileScannerContext;
+      this.scanners = scanners;
+      this.storeInCache = storeInCache;
+    }
+
+    /**
+     * Executes the ordered scanners on the file and reports its issues, files have to be completed one at a time.
+     */
+    public void complete() {
+      if (semanticModel != null) {
+        createSonarSymbolTable(file, tree, semanticModel);
+      }
+      for (JavaFileScanner scanner : scanners) {
+        scanner.scanFile(javaFileScannerContext);
+      }
+      if (recognitionException != null) {
+        for (JavaFileScanner scanner : InternalVisitorsBridge.this.scanners) {
+          if (scanner instanceof AstScannerExceptionHandler && orderedScanners.contains(scanner)) {
+            ((AstScannerExceptionHandler) scanner).processRecognitionException(recognitionException);
+          }
+        }
+      }
+      if (javaFileScannerContext instanceof DefaultJavaFileScannerContext) {
+        ((DefaultJavaFileScannerContext) javaFileScannerContext).flushIssues();
+      }
+      if (storeInCache) {
+        analysisCache.store(file, tree, ((DefaultJavaFileScannerContext) javaFileScannerContext).recordedIssues());
+      }
+      if (semanticModel != null) {
+        // Close class loader after all the checks.
+        semanticModel.done();
       }
     }
   }
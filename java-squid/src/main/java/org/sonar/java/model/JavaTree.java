@@ -26,6 +26,7 @@ import org.sonar.java.ast.parser.TypeUnionListTreeImpl;
 import org.sonar.java.model.declaration.AnnotationTreeImpl;
 import org.sonar.java.model.expression.TypeArgumentListTreeImpl;
 import org.sonar.java.syntaxtoken.FirstSyntaxTokenFinder;
+import org.sonar.java.syntaxtoken.LastSyntaxTokenFinder;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ArrayTypeTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
@@ -60,19 +61,64 @@ public abstract class JavaTree implements Tree {
   @Nullable
   private Tree parent;
 
+  @Nullable
+  private SyntaxToken firstToken;
+
+  @Nullable
+  private SyntaxToken lastToken;
+
+  /**
+   * Cache of {@link SyntacticEquivalence#hash(Tree)}, 0 when not computed yet.
+   */
+  int syntacticHash;
+
   protected GrammarRuleKey grammarRuleKey;
 
   public JavaTree(GrammarRuleKey grammarRuleKey) {
     this.grammarRuleKey = grammarRuleKey;
   }
   public int getLine() {
-    SyntaxToken firstSyntaxToken = FirstSyntaxTokenFinder.firstSyntaxToken(this);
+    SyntaxToken firstSyntaxToken = firstToken();
     if (firstSyntaxToken == null) {
       return -1;
     }
     return firstSyntaxToken.line();
   }
 
+  /**
+   * First token of this tree, computed once: positions of issues and checks read it many times for the same trees.
+   * @return null for the trees without tokens, as empty lists of modifiers
+   */
+  @Nullable
+  public SyntaxToken firstToken() {
+    if (is(Kind.TOKEN)) {
+      return (SyntaxToken) this;
+    }
+    SyntaxToken result = firstToken;
+    if (result == null) {
+      result = FirstSyntaxTokenFinder.computeFirstSyntaxToken(this);
+      firstToken = result;
+    }
+    return result;
+  }
+
+  /**
+   * Last token of this tree, computed once.
+   * @return null for the trees without tokens, as empty lists of modifiers
+   */
+  @Nullable
+  public SyntaxToken lastToken() {
+    if (is(Kind.TOKEN)) {
+      return (SyntaxToken) this;
+    }
+    SyntaxToken result = lastToken;
+    if (result == null) {
+      result = LastSyntaxTokenFinder.computeLastSyntaxToken(this);
+      lastToken = result;
+    }
+    return result;
+  }
+
   @Override
   public final boolean is(Kind... kind) {
     if (kind() != null) {
@@ -30,16 +30,80 @@ import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.List;
 
+/**
+ * Syntactic equivalence of trees: trees of the same kinds, with the same identifiers and tokens, whatever their trivia.
+ * Each tree has a structural hash, equal for equivalent trees, for candidates to be grouped by hash before being compared.
+ */
 public final class SyntacticEquivalence {
 
   private SyntacticEquivalence() {
   }
 
+  /**
+   * Structural hash of the tree, computed once for each tree: equivalent trees have the same hash, so trees with different hashes
+   * are not equivalent. Can be used to find duplicated code without comparing all the pairs of trees.
+   */
+  public static int hash(@Nullable Tree tree) {
+    if (tree == null) {
+      return 0;
+    }
+    JavaTree javaTree = (JavaTree) tree;
+    int result = javaTree.syntacticHash;
+    if (result == 0) {
+      result = computeHash(javaTree);
+      if (result == 0) {
+        // 0 means not computed
+        result = 1;
+      }
+      javaTree.syntacticHash = result;
+    }
+    return result;
+  }
+
+  /**
+   * Structural hash of the list of trees: equivalent lists have the same hash.
+   */
+  public static int hash(List<? extends Tree> trees) {
+    int result = 1;
+    for (Tree tree : trees) {
+      result = 31 * result + hash(tree);
+    }
+    return result;
+  }
+
+  private static int computeHash(JavaTree tree) {
+    Tree.Kind kind = tree.kind();
+    int result = kind == null ? 0 : (kind.ordinal() + 1);
+    if (tree.isLeaf()) {
+      return 31 * result + leafHash(tree);
+    }
+    if (tree.is(Tree.Kind.OTHER)) {
+      // never equivalent to another tree
+      return result;
+    }
+    Iterator<Tree> children = tree.childrenIterator();
+    while (children.hasNext()) {
+      result = 31 * result + hash(children.next());
+    }
+    return result;
+  }
+
+  private static int leafHash(JavaTree leaf) {
+    if (leaf instanceof IdentifierTree) {
+      return ((IdentifierTree) leaf).name().hashCode();
+    } else if (leaf instanceof PrimitiveTypeTree) {
+      return ((PrimitiveTypeTree) leaf).keyword().text().hashCode();
+    } else if (leaf instanceof SyntaxToken) {
+      return ((SyntaxToken) leaf).text().hashCode();
+    }
+    return 0;
+  }
+
   /**
    * @return true, if nodes are syntactically equivalent
    */
   public static boolean areEquivalent(List<? extends Tree> leftList, List<? extends Tree> rightList) {
-    if (leftList.size() != rightList.size()) {
+    if (leftList.size() != rightList.size() || hash(leftList) != hash(rightList)) {
       return false;
     }
     for (int i = 0; i < leftList.size(); i++) {
@@ -56,6 +120,9 @@ public final class SyntacticEquivalence {
   * @return true, if nodes are syntactically equivalent
   */
   public static boolean areEquivalent(@Nullable Tree leftNode, @Nullable Tree rightNode) {
+    if (leftNode != rightNode && hash(leftNode) != hash(rightNode)) {
+      return false;
+    }
     return areEquivalent((JavaTree) leftNode, (JavaTree) rightNode);
   }
 
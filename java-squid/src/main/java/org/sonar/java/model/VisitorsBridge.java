@@ -39,6 +39,7 @@ import org.sonar.squidbridge.api.SourceFile;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.lang.annotation.Annotation;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -74,9 +75,9 @@ public class VisitorsBridge extends InternalVisitorsBridge {
 
   @Override
   protected JavaFileScannerContext createScannerContext(CompilationUnitTree tree, SemanticModel semanticModel, boolean analyseAccessors, SonarComponents sonarComponents,
-    boolean failedParsing) {
+    boolean failedParsing, @Nullable FileText fileText) {
     testContext = new TestJavaFileScannerContext(tree, (SourceFile) getContext().peekSourceCode(), getContext().getFile(), semanticModel, analyseAccessors, sonarComponents,
-      getJavaVersion(), failedParsing);
+      getJavaVersion(), failedParsing, fileText, getCharset());
     return testContext;
   }
 
@@ -91,7 +92,13 @@ public class VisitorsBridge extends InternalVisitorsBridge {
     public TestJavaFileScannerContext(
       CompilationUnitTree tree, SourceFile sourceFile, File file, SemanticModel semanticModel, boolean analyseAccessors, @Nullable SonarComponents sonarComponents,
       JavaVersion javaVersion, boolean failedParsing) {
-      super(tree, sourceFile, file, semanticModel, analyseAccessors, sonarComponents, javaVersion, failedParsing);
+      this(tree, sourceFile, file, semanticModel, analyseAccessors, sonarComponents, javaVersion, failedParsing, null, null);
+    }
+
+    public TestJavaFileScannerContext(
+      CompilationUnitTree tree, SourceFile sourceFile, File file, SemanticModel semanticModel, boolean analyseAccessors, @Nullable SonarComponents sonarComponents,
+      JavaVersion javaVersion, boolean failedParsing, @Nullable FileText fileText, @Nullable Charset charset) {
+      super(tree, sourceFile, file, semanticModel, analyseAccessors, sonarComponents, javaVersion, failedParsing, fileText, charset);
     }
 
     public Set<AnalyzerMessage> getIssues() {
@@ -0,0 +1,176 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closeables;
+import org.objectweb.asm.ClassReader;
+import org.sonar.java.bytecode.ClassLoaderBuilder;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+/**
+ * Project-wide cache of the class files found on a classpath, shared by the {@link BytecodeCompleter} of every analyzed file.
+ * Class files are read from jars and directories once as long as they stay in the cache, which keeps the most recently used ones.
+ * Symbols are not shared: they are still completed per file from the cached {@link ClassReader}, as they are bound to the sources
+ * and predefined {@link Symbols} of the file.
+ * This class is thread-safe.
+ */
+public class BytecodeCache implements Closeable {
+
+  /**
+   * Each reader holds the whole content of its class file: cache is bounded to a few tens of megabytes, whatever the size of the classpath.
+   */
+  private static final int MAX_CLASS_READERS = 5000;
+
+  /**
+   * Class loader without parent, which only gives access to the classes of the JDK.
+   */
+  private static final ClassLoader JDK_CLASS_LOADER = new URLClassLoader(new URL[0], null);
+
+  private final List<File> classpath;
+  private final Cache<String, Optional<ClassReader>> classReaders;
+  private SquidClassLoader classLoader;
+  private volatile PackageIndex packageIndex;
+
+  public BytecodeCache(List<File> classpath) {
+    this(classpath, MAX_CLASS_READERS);
+  }
+
+  @VisibleForTesting
+  BytecodeCache(List<File> classpath, int maxClassReaders) {
+    this.classpath = ImmutableList.copyOf(classpath);
+    this.classReaders = CacheBuilder.newBuilder().maximumSize(maxClassReaders).build();
+  }
+
+  public List<File> classpath() {
+    return classpath;
+  }
+
+  /**
+   * @param packageIndex index, possibly shared with other caches, covering at least the classpath of this cache
+   */
+  public void setPackageIndex(@Nullable PackageIndex packageIndex) {
+    Preconditions.checkArgument(packageIndex == null || packageIndex.covers(classpath), "Package index does not cover the classpath");
+    this.packageIndex = packageIndex;
+  }
+
+  /**
+   * @param bytecodeName name of the class, as for instance <code>java/lang/Object</code>
+   * @return reader on content of the class file, or null if there is no such class on the classpath
+   */
+  @CheckForNull
+  public ClassReader classReader(String bytecodeName) {
+    if (!mayExist(bytecodeName)) {
+      return null;
+    }
+    Optional<ClassReader> classReader = classReaders.getIfPresent(bytecodeName);
+    if (classReader == null) {
+      classReader = Optional.fromNullable(read(bytecodeName));
+      Optional<ClassReader> previous = classReaders.asMap().putIfAbsent(bytecodeName, classReader);
+      if (previous != null) {
+        classReader = previous;
+      }
+    }
+    return classReader.orNull();
+  }
+
+  /**
+   * Answered from the index of the class loader and the JDK, without reading the class file.
+   */
+  public boolean contains(String bytecodeName) {
+    if (!mayExist(bytecodeName)) {
+      return false;
+    }
+    Optional<ClassReader> classReader = classReaders.getIfPresent(bytecodeName);
+    if (classReader != null) {
+      return classReader.isPresent();
+    }
+    String resourceName = bytecodeName + ".class";
+    return JDK_CLASS_LOADER.getResource(resourceName) != null || getClassLoader().hasResource(resourceName);
+  }
+
+  private boolean mayExist(String bytecodeName) {
+    PackageIndex index = packageIndex;
+    if (index == null) {
+      return true;
+    }
+    int separator = bytecodeName.lastIndexOf('/');
+    return index.mayContainClassesOf(separator < 0 ? "" : bytecodeName.substring(0, separator));
+  }
+
+  /**
+   * As for the class loaders of the JDK, classes of the JDK running the analysis take precedence over the classpath: classes of
+   * <code>java.*</code> packages bundled in a jar of the classpath (android.jar for instance) are ignored.
+   * Classes of the classpath are read through the index of the class loader.
+   */
+  @CheckForNull
+  private ClassReader read(String bytecodeName) {
+    String resourceName = bytecodeName + ".class";
+    InputStream inputStream = JDK_CLASS_LOADER.getResourceAsStream(resourceName);
+    if (inputStream == null) {
+      byte[] bytes = getClassLoader().loadBytes(resourceName);
+      return bytes == null ? null : new ClassReader(bytes);
+    }
+    try {
+      return new ClassReader(inputStream);
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    } finally {
+      Closeables.closeQuietly(inputStream);
+    }
+  }
+
+  private synchronized SquidClassLoader getClassLoader() {
+    if (classLoader == null) {
+      classLoader = ClassLoaderBuilder.create(classpath);
+    }
+    return classLoader;
+  }
+
+  /**
+   * Releases class files and closes class loader. Cache can still be used afterwards, classpath being then read again.
+   */
+  @Override
+  public synchronized void close() {
+    classReaders.invalidateAll();
+    if (classLoader != null) {
+      classLoader.close();
+    }
+    classLoader = null;
+  }
+
+}
@@ -61,7 +61,8 @@ public class JavaSymbol implements Symbol {
 
   JavaSymbol owner;
 
-  Completer completer;
+  volatile Completer completer;
+  private boolean completing;
 
   JavaType type;
 
@@ -99,10 +100,21 @@ public class JavaSymbol implements Symbol {
   }
 
   public void complete() {
-    if (completer != null) {
-      Completer c = completer;
-      completer = null;
-      c.complete(this);
+    Completer c = completer;
+    if (c != null) {
+      // Symbols of a file can be completed concurrently once semantic model is built, as by parallel symbolic execution
+      Object lock = c.completionLock();
+      synchronized (lock == null ? this : lock) {
+        if (completer == c && !completing) {
+          completing = true;
+          try {
+            c.complete(this);
+          } finally {
+            completer = null;
+            completing = false;
+          }
+        }
+      }
     }
   }
 
@@ -263,6 +275,12 @@ public class JavaSymbol implements Symbol {
 
   interface Completer {
     void complete(JavaSymbol symbol);
+
+    /**
+     * @return lock shared by all the completers of a file, held while completing a symbol, or null to lock on the completed symbol
+     */
+    @CheckForNull
+    Object completionLock();
   }
 
   /**
@@ -294,6 +312,12 @@ public class JavaSymbol implements Symbol {
     ClassTree declaration;
     private final String internalName;
     private final Multiset<String> internalNames = HashMultiset.create();
+    /**
+     * Fully qualified name and supertypes, cached once they can no longer change.
+     */
+    private String fullyQualifiedName;
+    private Set<JavaType.ClassJavaType> superTypes;
+    private Set<String> superTypeNames;
 
     public TypeJavaSymbol(int flags, String name, JavaSymbol owner) {
       super(TYP, flags, name, owner);
@@ -345,6 +369,17 @@ public class JavaSymbol implements Symbol {
     }
 
     public String getFullyQualifiedName() {
+      String result = fullyQualifiedName;
+      if (result == null) {
+        result = computeFullyQualifiedName();
+        if (isStable()) {
+          fullyQualifiedName = result;
+        }
+      }
+      return result;
+    }
+
+    private String computeFullyQualifiedName() {
       String newQualification = "";
       if (owner.isPackageSymbol()) {
         if (!owner.name.isEmpty()) {
@@ -360,11 +395,73 @@ public class JavaSymbol implements Symbol {
       return newQualification + getInternalName();
     }
 
+    /**
+     * Name, owner and supertypes of a class read from bytecode are only known once the class and its outer classes are completed.
+     */
+    private boolean isStable() {
+      if (completer != null) {
+        return false;
+      }
+      if (owner.isTypeSymbol()) {
+        return ((TypeJavaSymbol) owner).isStable();
+      } else if (owner.isMethodSymbol()) {
+        return ((TypeJavaSymbol) owner.owner).isStable();
+      }
+      return true;
+    }
+
     /**
      * Includes superclass and super interface hierarchy.
      * @return list of classTypes.
      */
     public Set<JavaType.ClassJavaType> superTypes() {
+      Set<JavaType.ClassJavaType> result = superTypes;
+      if (result == null) {
+        result = computeSuperTypes();
+        if (isStable() && areStable(result)) {
+          superTypes = result;
+        }
+      }
+      return result;
+    }
+
+    /**
+     * @return fully qualified names of {@link #superTypes()}
+     */
+    Set<String> superTypeNames() {
+      Set<String> result = superTypeNames;
+      if (result == null) {
+        Set<JavaType.ClassJavaType> types = superTypes();
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        for (JavaType.ClassJavaType classType : types) {
+          names.add(classType.symbol.getFullyQualifiedName());
+        }
+        result = names.build();
+        if (superTypes == types) {
+          superTypeNames = result;
+        }
+      }
+      return result;
+    }
+
+    /**
+     * To be called when the supertypes of this class are set after its completion, as for anonymous classes.
+     */
+    void resetSuperTypes() {
+      superTypes = null;
+      superTypeNames = null;
+    }
+
+    private static boolean areStable(Set<JavaType.ClassJavaType> types) {
+      for (JavaType.ClassJavaType type : types) {
+        if (!type.symbol.isStable()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Set<JavaType.ClassJavaType> computeSuperTypes() {
       ImmutableSet.Builder<JavaType.ClassJavaType> types = ImmutableSet.builder();
       JavaType.ClassJavaType superClassType = (JavaType.ClassJavaType) this.superClass();
       types.addAll(this.interfacesOfType());
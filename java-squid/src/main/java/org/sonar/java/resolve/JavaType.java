@@ -79,18 +79,29 @@ public class JavaType implements Type {
   }
 
   @Override
-  public boolean is(String fullyQualifiedName) {
+  public final boolean is(String fullyQualifiedName) {
+    return is(fullyQualifiedName, fullyQualifiedName.length());
+  }
+
+  /**
+   * Same as {@link #is(String)} on the first characters of the given name, so that array types do not build the names of their elements.
+   */
+  boolean is(String fullyQualifiedName, int length) {
     if (tag < CLASS) {
       // primitive type
-      return fullyQualifiedName.equals(symbol.name);
+      return hasName(symbol.name, fullyQualifiedName, length);
     } else if (isTagged(ARRAY)) {
-      return fullyQualifiedName.endsWith("[]") && ((ArrayJavaType) this).elementType.is(fullyQualifiedName.substring(0, fullyQualifiedName.length() - 2));
+      return length > 2 && fullyQualifiedName.startsWith("[]", length - 2) && ((ArrayJavaType) this).elementType.is(fullyQualifiedName, length - 2);
     } else if (isTagged(TYPEVAR)) {
       return false;
     }
     return false;
   }
 
+  static boolean hasName(String name, String fullyQualifiedName, int length) {
+    return name.length() == length && fullyQualifiedName.startsWith(name);
+  }
+
   @Override
   public boolean isSubtypeOf(String fullyQualifiedName) {
     if (isTagged(ARRAY)) {
@@ -217,8 +228,8 @@ public class JavaType implements Type {
     }
 
     @Override
-    public boolean is(String fullyQualifiedName) {
-      return isTagged(BOT) || fullyQualifiedName.equals(symbol.getFullyQualifiedName());
+    boolean is(String fullyQualifiedName, int length) {
+      return isTagged(BOT) || hasName(symbol.getFullyQualifiedName(), fullyQualifiedName, length);
     }
 
     @Override
@@ -242,12 +253,7 @@ public class JavaType implements Type {
     }
 
     private boolean superTypeContains(String fullyQualifiedName) {
-      for (ClassJavaType classType : symbol.superTypes()) {
-        if (classType.is(fullyQualifiedName)) {
-          return true;
-        }
-      }
-      return false;
+      return symbol.superTypeNames().contains(fullyQualifiedName);
     }
   }
 
@@ -0,0 +1,94 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+import javax.annotation.Nullable;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Names of the packages containing class files, over a classpath and the boot class path of the JDK running the analysis.
+ * It lets {@link BytecodeCache} answer that a class does not exist without looking it up when its package does not exist, which is the
+ * case of most names tried by {@link Resolve} to tell packages from types in qualified names (<code>org</code>, <code>org.sonar</code>...).
+ * Index is built once per analysis over main and test classpaths, and shared by their scanners.
+ * <p>
+ * When the boot class path is not known (JDK 9 and later), a package which is not on the classpath may still belong to the JDK:
+ * its classes are then always looked up.
+ * </p>
+ * This class is immutable.
+ */
+public class PackageIndex {
+
+  private final List<File> classpath;
+  private final Set<String> packageNames;
+  private final boolean complete;
+
+  @VisibleForTesting
+  PackageIndex(List<File> classpath, Set<String> packageNames, boolean complete) {
+    this.classpath = ImmutableList.copyOf(classpath);
+    this.packageNames = ImmutableSet.copyOf(packageNames);
+    this.complete = complete;
+  }
+
+  public static PackageIndex create(List<File> classpath) {
+    return create(classpath, System.getProperty("sun.boot.class.path"));
+  }
+
+  @VisibleForTesting
+  static PackageIndex create(List<File> classpath, @Nullable String bootClassPath) {
+    List<File> files = Lists.newArrayList(classpath);
+    if (bootClassPath != null) {
+      for (String path : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().split(bootClassPath)) {
+        files.add(new File(path));
+      }
+    }
+    SquidClassLoader classLoader = new SquidClassLoader(files);
+    try {
+      return new PackageIndex(classpath, classLoader.packageNames(), bootClassPath != null);
+    } finally {
+      classLoader.close();
+    }
+  }
+
+  /**
+   * @return true if this index contains all the packages of the given classpath
+   */
+  public boolean covers(List<File> otherClasspath) {
+    return classpath.containsAll(otherClasspath);
+  }
+
+  /**
+   * @param packageName name of the package, as for instance <code>java/lang</code>
+   * @return false if there is no class of the given package on the classpath nor in the JDK
+   */
+  public boolean mayContainClassesOf(String packageName) {
+    return !complete || packageNames.contains(packageName);
+  }
+
+}
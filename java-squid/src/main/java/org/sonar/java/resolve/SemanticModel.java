@@ -52,7 +52,18 @@ public class SemanticModel {
 
   public static SemanticModel createFor(CompilationUnitTree tree, List<File> projectClasspath) {
     ParametrizedTypeCache parametrizedTypeCache = new ParametrizedTypeCache();
-    BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(projectClasspath, parametrizedTypeCache);
+    return createFor(tree, new BytecodeCompleter(projectClasspath, parametrizedTypeCache), parametrizedTypeCache);
+  }
+
+  /**
+   * Creates semantic model of a file, classpath being read through the given cache shared across files.
+   */
+  public static SemanticModel createFor(CompilationUnitTree tree, BytecodeCache bytecodeCache) {
+    ParametrizedTypeCache parametrizedTypeCache = new ParametrizedTypeCache();
+    return createFor(tree, new BytecodeCompleter(bytecodeCache, parametrizedTypeCache), parametrizedTypeCache);
+  }
+
+  private static SemanticModel createFor(CompilationUnitTree tree, BytecodeCompleter bytecodeCompleter, ParametrizedTypeCache parametrizedTypeCache) {
     Symbols symbols = new Symbols(bytecodeCompleter);
     SemanticModel semanticModel = new SemanticModel();
     semanticModel.bytecodeCompleter = bytecodeCompleter;
@@ -469,6 +469,7 @@ public class TypeAndReferenceSolver extends BaseTreeVisitor {
         anonymousClassType.supertype = type;
         anonymousClassType.interfaces = ImmutableList.of();
       }
+      anonymousClassType.getSymbol().resetSuperTypes();
       scan(classBody);
       registerType(tree, anonymousClassType);
     } else {
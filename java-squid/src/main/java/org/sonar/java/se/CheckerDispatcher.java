@@ -25,12 +25,26 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class CheckerDispatcher implements CheckerContext {
+  private static final SECheck[] NO_CHECKS = new SECheck[0];
   private final ExplodedGraphWalker explodedGraphWalker;
   private final JavaFileScannerContext context;
   private final List<SECheck> checks;
+  private final SECheck[] allChecks;
+  /**
+   * Checks visiting each kind of tree, indexed by ordinal of the kind.
+   */
+  private final SECheck[][] checksByKind;
+  private SECheck[] currentChecks;
+  @Nullable
+  private DeferredIssues deferredIssues;
   private Tree syntaxNode;
   private int currentCheckerIndex = 0;
   private boolean transition = false;
@@ -39,12 +53,43 @@ public class CheckerDispatcher implements CheckerContext {
     this.explodedGraphWalker = explodedGraphWalker;
     this.context = context;
     this.checks = checks;
+    this.allChecks = checks.toArray(new SECheck[checks.size()]);
+    this.currentChecks = allChecks;
+    List<Set<Tree.Kind>> kindsOfChecks = new ArrayList<>(checks.size());
+    for (SECheck check : checks) {
+      Set<Tree.Kind> kinds = EnumSet.noneOf(Tree.Kind.class);
+      kinds.addAll(check.nodesToVisit());
+      kindsOfChecks.add(kinds);
+    }
+    Tree.Kind[] kinds = Tree.Kind.values();
+    checksByKind = new SECheck[kinds.length][];
+    for (Tree.Kind kind : kinds) {
+      List<SECheck> checksOfKind = new ArrayList<>();
+      for (int i = 0; i < allChecks.length; i++) {
+        if (kindsOfChecks.get(i).contains(kind)) {
+          checksOfKind.add(allChecks[i]);
+        }
+      }
+      checksByKind[kind.ordinal()] = checksOfKind.isEmpty() ? NO_CHECKS : checksOfKind.toArray(new SECheck[checksOfKind.size()]);
+    }
+  }
+
+  private SECheck[] checksFor(Tree syntaxNode) {
+    Tree.Kind kind = syntaxNode.kind();
+    return kind == null ? allChecks : checksByKind[kind.ordinal()];
+  }
+
+  /**
+   * Issues are kept in the given list instead of being reported to the context.
+   */
+  void deferIssues(@Nullable DeferredIssues deferredIssues) {
+    this.deferredIssues = deferredIssues;
   }
 
   public boolean executeCheckPreStatement(Tree syntaxNode) {
     this.syntaxNode = syntaxNode;
     ProgramState ps;
-    for (SECheck checker : checks) {
+    for (SECheck checker : checksFor(syntaxNode)) {
       ps = checker.checkPreStatement(this, syntaxNode);
       if (ps == null) {
         return false;
@@ -55,22 +100,26 @@ public class CheckerDispatcher implements CheckerContext {
 
   }
 
+  /**
+   * Runs the post statement checks visiting the given tree one after the other, each transition of a check being processed by the
+   * following checks, until the transitions of the last one are enqueued.
+   */
   public void executeCheckPostStatement(Tree syntaxNode) {
     this.syntaxNode = syntaxNode;
-    ProgramState ps;
-    for (SECheck checker : checks) {
-      ps = checker.checkPostStatement(this, syntaxNode);
-      if (ps == null) {
-        throw new IllegalStateException("Post statement processing is not allowed to generate a sink yet!");
-      }
-      explodedGraphWalker.programState = ps;
-    }
+    this.currentChecks = checksFor(syntaxNode);
+    currentCheckerIndex = -1;
+    addTransition(explodedGraphWalker.programState);
+    currentCheckerIndex = 0;
   }
 
   private void executePost() {
     this.transition = false;
-    if (currentCheckerIndex < checks.size()) {
-      explodedGraphWalker.programState = checks.get(currentCheckerIndex).checkPostStatement(this, syntaxNode);
+    if (currentCheckerIndex < currentChecks.length) {
+      ProgramState ps = currentChecks[currentCheckerIndex].checkPostStatement(this, syntaxNode);
+      if (ps == null) {
+        throw new IllegalStateException("Post statement processing is not allowed to generate a sink yet!");
+      }
+      explodedGraphWalker.programState = ps;
     } else {
       if (explodedGraphWalker.programPosition.i< explodedGraphWalker.programPosition.block.elements().size()) {
         explodedGraphWalker.clearStack(explodedGraphWalker.programPosition.block.elements().get(explodedGraphWalker.programPosition.i));
@@ -100,7 +149,11 @@ public class CheckerDispatcher implements CheckerContext {
 
   @Override
   public void reportIssue(Tree tree, SECheck check, String message) {
-    ((DefaultJavaFileScannerContext) context).reportSEIssue(check.getClass(), tree, message);
+    if (deferredIssues != null) {
+      deferredIssues.add(check.getClass(), tree, message);
+    } else {
+      ((DefaultJavaFileScannerContext) context).reportSEIssue(check.getClass(), tree, message);
+    }
   }
 
   @Override
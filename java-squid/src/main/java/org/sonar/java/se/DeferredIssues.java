@@ -0,0 +1,59 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.se;
+
+import com.google.common.collect.Lists;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import java.util.List;
+
+/**
+ * Issues of symbolic execution kept aside while a method is explored concurrently with other methods of a file,
+ * to be reported afterwards in the order of the methods.
+ */
+class DeferredIssues {
+
+  private final List<Issue> issues = Lists.newArrayList();
+
+  void add(Class<? extends SECheck> check, Tree tree, String message) {
+    issues.add(new Issue(check, tree, message));
+  }
+
+  void reportOn(DefaultJavaFileScannerContext context) {
+    for (Issue issue : issues) {
+      context.reportSEIssue(issue.check, issue.tree, issue.message);
+    }
+  }
+
+  private static class Issue {
+    private final Class<? extends SECheck> check;
+    private final Tree tree;
+    private final String message;
+
+    Issue(Class<? extends SECheck> check, Tree tree, String message) {
+      this.check = check;
+      this.tree = tree;
+      this.message = message;
+    }
+  }
+
+}
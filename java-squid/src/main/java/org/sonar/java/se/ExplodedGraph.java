@@ -31,6 +31,10 @@ public class ExplodedGraph {
 
   private Map<Node, Node> nodes = Maps.newHashMap();
 
+  int size() {
+    return nodes.size();
+  }
+
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
    */
@@ -28,6 +28,8 @@ import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.FlowCache;
+import org.sonar.java.cfg.LiveVariables;
 import org.sonar.java.model.JavaTree;
 import org.sonar.java.se.checks.ConditionAlwaysTrueOrFalseCheck;
 import org.sonar.java.se.checks.LocksNotUnlockedCheck;
@@ -61,17 +63,12 @@ import org.sonar.plugins.java.api.tree.WhileStatementTree;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 
 public class ExplodedGraphWalker extends BaseTreeVisitor {
 
-  /**
-   * Arbitrary number to limit symbolic execution.
-   */
-  private static final int MAX_STEPS = 10000;
   private static final Logger LOG = LoggerFactory.getLogger(ExplodedGraphWalker.class);
   private static final Set<String> THIS_SUPER = ImmutableSet.of("this", "super");
 
@@ -80,7 +77,12 @@ public class ExplodedGraphWalker extends BaseTreeVisitor {
   private final ConditionAlwaysTrueOrFalseCheck alwaysTrueOrFalseChecker;
   private MethodTree methodTree;
   private ExplodedGraph explodedGraph;
-  private Deque<ExplodedGraph.Node> workList;
+  private final SymbolicExecutionConfiguration configuration;
+  private final SymbolicExecutionMetrics metrics;
+  private final FlowCache flowCache;
+  @Nullable
+  private LiveVariables liveVariables;
+  private Queue<ExplodedGraph.Node> workList;
   ExplodedGraph.Node node;
   ExplodedGraph.ProgramPoint programPosition;
   ProgramState programState;
@@ -89,14 +91,26 @@ public class ExplodedGraphWalker extends BaseTreeVisitor {
 
   @VisibleForTesting
   int steps;
+  @VisibleForTesting
+  boolean budgetExhausted;
   ConstraintManager constraintManager;
 
+  /**
+   * @deprecated no longer thrown: the exploration of a method whose exploded graph reaches {@link SymbolicExecutionConfiguration#maxNodes()}
+   * is stopped, keeping the issues found on the explored paths. To be removed in the next release.
+   */
+  @Deprecated
   public static class ExplodedGraphTooBigException extends RuntimeException {
     public ExplodedGraphTooBigException(String s) {
       super(s);
     }
   }
 
+  /**
+   * @deprecated no longer thrown: the exploration of a method reaching {@link SymbolicExecutionConfiguration#maxSteps()} is stopped,
+   * keeping the issues found on the explored paths. To be removed in the next release.
+   */
+  @Deprecated
   public static class MaximumStepsReachedException extends RuntimeException {
     public MaximumStepsReachedException(String s) {
       super(s);
@@ -104,9 +118,39 @@ public class ExplodedGraphWalker extends BaseTreeVisitor {
   }
 
   public ExplodedGraphWalker(JavaFileScannerContext context) {
+    this(context, new SymbolicExecutionConfiguration(), new SymbolicExecutionMetrics());
+  }
+
+  public ExplodedGraphWalker(JavaFileScannerContext context, SymbolicExecutionConfiguration configuration, SymbolicExecutionMetrics metrics) {
+    this.configuration = configuration;
+    this.metrics = metrics;
+    this.flowCache = FlowCache.of(context);
     alwaysTrueOrFalseChecker = new ConditionAlwaysTrueOrFalseCheck();
-    this.checkerDispatcher = new CheckerDispatcher(this, context,
-      Lists.<SECheck>newArrayList(alwaysTrueOrFalseChecker, new NullDereferenceCheck(), new UnclosedResourcesCheck(), new LocksNotUnlockedCheck()));
+    List<SECheck> checks = Lists.<SECheck>newArrayList(alwaysTrueOrFalseChecker, new NullDereferenceCheck(), new UnclosedResourcesCheck(), new LocksNotUnlockedCheck());
+    for (SECheck check : configuration.checks()) {
+      if (!hasCheckOfClass(checks, check.getClass())) {
+        checks.add(SymbolicExecutionConfiguration.instanceForExploration(check));
+      }
+    }
+    this.checkerDispatcher = new CheckerDispatcher(this, context, checks);
+  }
+
+  private static boolean hasCheckOfClass(List<SECheck> checks, Class<? extends SECheck> checkClass) {
+    for (SECheck check : checks) {
+      if (check.getClass() == checkClass) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Walker whose issues are kept in the given list, for explorations running concurrently on the methods of a file.
+   */
+  ExplodedGraphWalker(JavaFileScannerContext context, SymbolicExecutionConfiguration configuration, SymbolicExecutionMetrics metrics,
+    DeferredIssues deferredIssues) {
+    this(context, configuration, metrics);
+    checkerDispatcher.deferIssues(deferredIssues);
   }
 
   @Override
@@ -120,24 +164,26 @@ public class ExplodedGraphWalker extends BaseTreeVisitor {
 
   private void execute(MethodTree tree) {
     checkerDispatcher.init();
-    CFG cfg = CFG.build(tree);
+    CFG cfg = flowCache.cfg(tree);
+    liveVariables = configuration.cleanupDeadValues() ? flowCache.liveVariables(tree) : null;
     explodedGraph = new ExplodedGraph();
     methodTree = tree;
     constraintManager = new ConstraintManager();
-    workList = new LinkedList<>();
+    workList = configuration.explorationStrategy().newWorkList();
+    steps = 0;
+    budgetExhausted = false;
     LOG.debug("Exploring Exploded Graph for method " + tree.simpleName().name() + " at line " + ((JavaTree) tree).getLine());
-    programState = ProgramState.EMPTY_STATE;
+    programState = configuration.emptyState();
     for (ProgramState startingState : startingStates(tree, programState)) {
       enqueue(new ExplodedGraph.ProgramPoint(cfg.entry(), 0), startingState);
     }
-    steps = 0;
-    while (!workList.isEmpty()) {
-      steps++;
-      if (steps > MAX_STEPS) {
-        throw new MaximumStepsReachedException("reached limit of " + MAX_STEPS + " steps for method " + tree.simpleName().name() + " in class " + tree.symbol().owner().name());
+    while (!workList.isEmpty() && !budgetExhausted) {
+      if (steps >= configuration.maxSteps()) {
+        exhaustBudget("reached limit of " + configuration.maxSteps() + " steps");
+        break;
       }
-      // LIFO:
-      node = workList.removeFirst();
+      steps++;
+      node = workList.remove();
       programPosition = node.programPoint;
       programState = node.programState;
       if (programPosition.block.successors().isEmpty()) {
@@ -162,13 +208,23 @@ public class ExplodedGraphWalker extends BaseTreeVisitor {
       }
     }
 
-    checkerDispatcher.executeCheckEndOfExecution(tree);
+    if (!budgetExhausted) {
+      // verdicts on all the paths of the method can not be given when some of them have not been explored
+      checkerDispatcher.executeCheckEndOfExecution(tree);
+    }
+    metrics.methodExplored(steps, budgetExhausted);
     // Cleanup:
     explodedGraph = null;
     workList = null;
     node = null;
     programState = null;
     constraintManager = null;
+    liveVariables = null;
+  }
+
+  private void exhaustBudget(String reason) {
+    budgetExhausted = true;
+    LOG.debug("Stopping symbolic execution of method " + methodTree.simpleName().name() + " in class " + methodTree.symbol().owner().name() + ": " + reason);
   }
 
   private Iterable<ProgramState> startingStates(MethodTree tree, ProgramState ps) {
@@ -543,22 +599,31 @@ public class ExplodedGraphWalker extends BaseTreeVisitor {
       debugPrint(programState);
       return;
     }
+    if (budgetExhausted) {
+      return;
+    }
     if (isExplodedGraphTooBig(programState)) {
-      throw new ExplodedGraphTooBigException("Program state constraints are too big : stopping Symbolic Execution for method "
-        + methodTree.simpleName().name() + " in class " + methodTree.symbol().owner().name());
+      exhaustBudget("exploded graph is too big");
+      return;
+    }
+    ProgramState ps = programState;
+    if (liveVariables != null && programPoint.i == 0) {
+      // states differing only by values which can not be read anymore are merged at block entries
+      ps = ps.cleanupDeadValues(liveVariables.getIn(programPoint.block));
     }
-    ExplodedGraph.Node cachedNode = explodedGraph.getNode(programPoint, programState.visitedPoint(programPoint, nbOfExecution + 1));
+    ExplodedGraph.Node cachedNode = explodedGraph.getNode(programPoint, ps.visitedPoint(programPoint, nbOfExecution + 1));
     if (!cachedNode.isNew && exitPath == cachedNode.exitPath) {
       // has been enqueued earlier
       return;
     }
     cachedNode.exitPath = exitPath;
-    workList.addFirst(cachedNode);
+    workList.add(cachedNode);
   }
 
   private boolean isExplodedGraphTooBig(ProgramState programState) {
     // Arbitrary formula to avoid out of memory errors.
-    return steps + workList.size() > MAX_STEPS / 2 && programState.constraintsSize() > 75;
+    return explodedGraph.size() >= configuration.maxNodes()
+      || (steps + workList.size() > configuration.maxSteps() / 2 && programState.constraintsSize() > 75);
   }
 
 }
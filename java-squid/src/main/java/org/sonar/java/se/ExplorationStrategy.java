@@ -0,0 +1,76 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Order in which the nodes of the exploded graph are explored by the {@link ExplodedGraphWalker}.
+ */
+public enum ExplorationStrategy {
+
+  /**
+   * Last enqueued node is explored first: a path is followed up to its end before exploring alternatives.
+   */
+  DEPTH_FIRST {
+    @Override
+    Queue<ExplodedGraph.Node> newWorkList() {
+      return Collections.asLifoQueue(new ArrayDeque<ExplodedGraph.Node>());
+    }
+  },
+
+  /**
+   * First enqueued node is explored first: all the paths are explored step by step.
+   */
+  BREADTH_FIRST {
+    @Override
+    Queue<ExplodedGraph.Node> newWorkList() {
+      return new ArrayDeque<>();
+    }
+  },
+
+  /**
+   * Node which comes first in the control flow is explored first, so that all the paths reaching a join point
+   * are explored up to it before going further, and that identical states coming from those paths are merged by the exploded graph.
+   * CFG blocks being created backward from the exit block, a higher block id comes first in the control flow (loops apart).
+   */
+  TOPOLOGICAL {
+    @Override
+    Queue<ExplodedGraph.Node> newWorkList() {
+      return new PriorityQueue<>(INITIAL_CAPACITY, CONTROL_FLOW_ORDER);
+    }
+  };
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final Comparator<ExplodedGraph.Node> CONTROL_FLOW_ORDER = new Comparator<ExplodedGraph.Node>() {
+    @Override
+    public int compare(ExplodedGraph.Node o1, ExplodedGraph.Node o2) {
+      int result = Integer.compare(o2.programPoint.block.id(), o1.programPoint.block.id());
+      return result != 0 ? result : Integer.compare(o1.programPoint.i, o2.programPoint.i);
+    }
+  };
+
+  abstract Queue<ExplodedGraph.Node> newWorkList();
+
+}
@@ -20,20 +20,22 @@
 package org.sonar.java.se;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 import org.sonar.java.collections.AVLTree;
+import org.sonar.java.collections.HashArrayMappedTrie;
+import org.sonar.java.collections.PCollections;
 import org.sonar.java.collections.PMap;
+import org.sonar.java.collections.PSet;
+import org.sonar.java.collections.PStack;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 import javax.annotation.CheckForNull;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -55,22 +57,26 @@ public class ProgramState {
   private int hashCode;
 
   private final int constraintSize;
-  public static final ProgramState EMPTY_STATE = new ProgramState(
+  public static final ProgramState EMPTY_STATE = emptyState(
     AVLTree.<Symbol, SymbolicValue>create(),
-    AVLTree.<SymbolicValue, Object>create()
-      .put(SymbolicValue.NULL_LITERAL, ObjectConstraint.NULL)
-      .put(SymbolicValue.TRUE_LITERAL, ConstraintManager.BooleanConstraint.TRUE)
-      .put(SymbolicValue.FALSE_LITERAL, ConstraintManager.BooleanConstraint.FALSE),
-    AVLTree.<ExplodedGraph.ProgramPoint, Integer>create(),
-    Lists.<SymbolicValue>newLinkedList());
+    AVLTree.<SymbolicValue, Object>create(),
+    AVLTree.<ExplodedGraph.ProgramPoint, Integer>create());
+
+  /**
+   * Empty state whose maps are {@link HashArrayMappedTrie}s: states with the same content are equal whatever the order of their updates.
+   */
+  public static final ProgramState EMPTY_HASH_TRIE_STATE = emptyState(
+    HashArrayMappedTrie.<Symbol, SymbolicValue>create(),
+    HashArrayMappedTrie.<SymbolicValue, Object>create(),
+    HashArrayMappedTrie.<ExplodedGraph.ProgramPoint, Integer>create());
 
   private final PMap<ExplodedGraph.ProgramPoint, Integer> visitedPoints;
 
-  private final Deque<SymbolicValue> stack;
+  private final PStack<SymbolicValue> stack;
   private final PMap<Symbol, SymbolicValue> values;
   private final PMap<SymbolicValue, Object> constraints;
   private ProgramState(PMap<Symbol, SymbolicValue> values, PMap<SymbolicValue, Object> constraints, PMap<ExplodedGraph.ProgramPoint, Integer> visitedPoints,
-    Deque<SymbolicValue> stack) {
+    PStack<SymbolicValue> stack) {
     this.values = values;
     this.constraints = constraints;
     this.visitedPoints = visitedPoints;
@@ -78,7 +84,27 @@ public class ProgramState {
     constraintSize = 3;
   }
 
-  private ProgramState(ProgramState ps, Deque<SymbolicValue> newStack) {
+  private static ProgramState emptyState(PMap<Symbol, SymbolicValue> values, PMap<SymbolicValue, Object> constraints,
+    PMap<ExplodedGraph.ProgramPoint, Integer> visitedPoints) {
+    return new ProgramState(
+      values,
+      constraints
+        .put(SymbolicValue.NULL_LITERAL, ObjectConstraint.NULL)
+        .put(SymbolicValue.TRUE_LITERAL, ConstraintManager.BooleanConstraint.TRUE)
+        .put(SymbolicValue.FALSE_LITERAL, ConstraintManager.BooleanConstraint.FALSE),
+      visitedPoints,
+      PCollections.<SymbolicValue>emptyStack());
+  }
+
+  private ProgramState(ProgramState ps, PMap<Symbol, SymbolicValue> newValues, PMap<SymbolicValue, Object> newConstraints) {
+    values = newValues;
+    constraints = newConstraints;
+    constraintSize = ps.constraintSize;
+    visitedPoints = ps.visitedPoints;
+    stack = ps.stack;
+  }
+
+  private ProgramState(ProgramState ps, PStack<SymbolicValue> newStack) {
     values = ps.values;
     constraints = ps.constraints;
     constraintSize = ps.constraintSize;
@@ -95,13 +121,14 @@ public class ProgramState {
   }
 
   ProgramState stackValue(SymbolicValue sv) {
-    Deque<SymbolicValue> newStack = new LinkedList<>(stack);
-    newStack.push(sv);
-    return new ProgramState(this, newStack);
+    return new ProgramState(this, stack.push(sv));
   }
 
   ProgramState clearStack() {
-    return unstackValue(stack.size()).state;
+    if (stack.isEmpty()) {
+      return this;
+    }
+    return new ProgramState(this, PCollections.<SymbolicValue>emptyStack());
   }
 
   Pop unstackValue(int nbElements) {
@@ -109,23 +136,30 @@ public class ProgramState {
       return new Pop(this, Collections.<SymbolicValue>emptyList());
     }
     Preconditions.checkArgument(stack.size() >= nbElements, nbElements);
-    Deque<SymbolicValue> newStack = new LinkedList<>(stack);
-    List<SymbolicValue> result = Lists.newArrayList();
+    PStack<SymbolicValue> newStack = stack;
+    List<SymbolicValue> result = new ArrayList<>(nbElements);
     for (int i = 0; i < nbElements; i++) {
-      result.add(newStack.pop());
+      result.add(newStack.peek());
+      newStack = newStack.pop();
     }
     return new Pop(new ProgramState(this, newStack), result);
   }
 
   public SymbolicValue peekValue() {
-    return stack.peek();
+    return stack.isEmpty() ? null : stack.peek();
   }
 
   public List<SymbolicValue> peekValues(int n) {
     if (n > stack.size()) {
       throw new IllegalStateException("At least " + n + " values were expected on the stack!");
     }
-    return ImmutableList.copyOf(stack).subList(0, n);
+    List<SymbolicValue> result = new ArrayList<>(n);
+    PStack<SymbolicValue> current = stack;
+    for (int i = 0; i < n; i++) {
+      result.add(current.peek());
+      current = current.pop();
+    }
+    return Collections.unmodifiableList(result);
   }
 
   int numberOfTimeVisited(ExplodedGraph.ProgramPoint programPoint) {
@@ -202,6 +236,68 @@ public class ProgramState {
     return new ProgramState(newValues, constraints, visitedPoints, stack);
   }
 
+  /**
+   * @param liveVariables local variables which may still be read
+   * @return state without the values of dead local variables, nor the constraints on symbolic values which can not be reached anymore
+   * from variables or from the stack, except constraints carrying a status (as opened resources) which are checked at the end of paths
+   */
+  ProgramState cleanupDeadValues(final Set<Symbol> liveVariables) {
+    final List<Symbol> deadVariables = new ArrayList<>();
+    final Deque<SymbolicValue> reachable = new ArrayDeque<>();
+    values.forEach(new PMap.Consumer<Symbol, SymbolicValue>() {
+      @Override
+      public void accept(Symbol symbol, SymbolicValue value) {
+        if (isField(symbol) || liveVariables.contains(symbol)) {
+          reachable.add(value);
+        } else {
+          deadVariables.add(symbol);
+        }
+      }
+    });
+    stack.forEach(new PSet.Consumer<SymbolicValue>() {
+      @Override
+      public void accept(SymbolicValue value) {
+        reachable.add(value);
+      }
+    });
+    final Set<SymbolicValue> reached = new HashSet<>();
+    while (!reachable.isEmpty()) {
+      SymbolicValue value = reachable.pop();
+      if (reached.add(value)) {
+        reachable.addAll(value.operands());
+      }
+    }
+    final List<SymbolicValue> unreachable = new ArrayList<>();
+    constraints.forEach(new PMap.Consumer<SymbolicValue, Object>() {
+      @Override
+      public void accept(SymbolicValue value, Object constraint) {
+        if (!reached.contains(value) && !isLiteral(value) && !hasStatus(constraint)) {
+          unreachable.add(value);
+        }
+      }
+    });
+    if (deadVariables.isEmpty() && unreachable.isEmpty()) {
+      return this;
+    }
+    PMap<Symbol, SymbolicValue> newValues = values;
+    for (Symbol deadVariable : deadVariables) {
+      newValues = newValues.remove(deadVariable);
+    }
+    PMap<SymbolicValue, Object> newConstraints = constraints;
+    for (SymbolicValue value : unreachable) {
+      newConstraints = newConstraints.remove(value);
+    }
+    return new ProgramState(this, newValues, newConstraints);
+  }
+
+  private static boolean isLiteral(SymbolicValue value) {
+    return value == SymbolicValue.NULL_LITERAL || value == SymbolicValue.TRUE_LITERAL || value == SymbolicValue.FALSE_LITERAL;
+  }
+
+  private static boolean hasStatus(Object constraint) {
+    return constraint instanceof ObjectConstraint && !((ObjectConstraint) constraint).hasStatus(null);
+  }
+
   public static boolean isField(Symbol symbol) {
     return symbol.isVariableSymbol() && !symbol.owner().isMethodSymbol();
   }
@@ -0,0 +1,183 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.se;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.java.CheckCopies;
+import org.sonar.java.se.checks.SECheck;
+import org.sonar.plugins.java.api.ThreadSafeVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the symbolic execution of methods.
+ * When the exploration of a method exceeds its budget, it is stopped: issues found on the explored paths are kept,
+ * while verdicts requiring the exploration of all the paths (as conditions always evaluating to the same value) are dropped.
+ */
+public class SymbolicExecutionConfiguration {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SymbolicExecutionConfiguration.class);
+
+  public static final int DEFAULT_MAX_STEPS = 10000;
+  public static final int DEFAULT_MAX_NODES = 2 * DEFAULT_MAX_STEPS;
+
+  private ExplorationStrategy explorationStrategy = ExplorationStrategy.DEPTH_FIRST;
+  private int maxSteps = DEFAULT_MAX_STEPS;
+  private int maxNodes = DEFAULT_MAX_NODES;
+  private int parallelism = 1;
+  private ProgramState emptyState = ProgramState.EMPTY_STATE;
+  private boolean cleanupDeadValues = false;
+  private final List<SECheck> checks = new ArrayList<>();
+
+  /**
+   * @return configuration with the same settings and checks, to which checks can be added without changing this configuration
+   */
+  public SymbolicExecutionConfiguration copy() {
+    SymbolicExecutionConfiguration copy = new SymbolicExecutionConfiguration();
+    copy.explorationStrategy = explorationStrategy;
+    copy.maxSteps = maxSteps;
+    copy.maxNodes = maxNodes;
+    copy.parallelism = parallelism;
+    copy.emptyState = emptyState;
+    copy.cleanupDeadValues = cleanupDeadValues;
+    copy.checks.addAll(checks);
+    return copy;
+  }
+
+  public ExplorationStrategy explorationStrategy() {
+    return explorationStrategy;
+  }
+
+  public void setExplorationStrategy(ExplorationStrategy explorationStrategy) {
+    this.explorationStrategy = explorationStrategy;
+  }
+
+  /**
+   * Maximum number of exploded graph nodes explored for a method.
+   */
+  public int maxSteps() {
+    return maxSteps;
+  }
+
+  public void setMaxSteps(int maxSteps) {
+    this.maxSteps = Math.max(1, maxSteps);
+  }
+
+  /**
+   * Maximum number of exploded graph nodes kept in memory for a method.
+   */
+  public int maxNodes() {
+    return maxNodes;
+  }
+
+  public void setMaxNodes(int maxNodes) {
+    this.maxNodes = Math.max(1, maxNodes);
+  }
+
+  /**
+   * Number of threads exploring the methods of a file concurrently, methods being explored one after the other
+   * on the thread scanning the file when 1.
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism(int parallelism) {
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  /**
+   * Initial state of the exploration of methods, which determines the implementation of the persistent maps of all the states:
+   * {@link ProgramState#EMPTY_STATE} or {@link ProgramState#EMPTY_HASH_TRIE_STATE}.
+   */
+  public ProgramState emptyState() {
+    return emptyState;
+  }
+
+  public void setEmptyState(ProgramState emptyState) {
+    Preconditions.checkArgument(emptyState == ProgramState.EMPTY_STATE || emptyState == ProgramState.EMPTY_HASH_TRIE_STATE, "Unsupported initial state");
+    this.emptyState = emptyState;
+  }
+
+  /**
+   * When enabled, the values of local variables which are not live at the entry of a block and the constraints on symbolic values
+   * no longer reachable are removed from the states reaching the block, for states differing only by dead data to be merged.
+   * Constraints tracking the status of a resource or a lock are kept.
+   */
+  public boolean cleanupDeadValues() {
+    return cleanupDeadValues;
+  }
+
+  public void setCleanupDeadValues(boolean cleanupDeadValues) {
+    this.cleanupDeadValues = cleanupDeadValues;
+  }
+
+  /**
+   * Checks run by the exploration of each method in addition to the built-in ones.
+   */
+  public List<SECheck> checks() {
+    return ImmutableList.copyOf(checks);
+  }
+
+  /**
+   * Registers a check to be run by the exploration of each method, after the built-in checks, unless a check of the same class is
+   * already registered. Explorations may run concurrently (see {@link #parallelism()}, and the workers of a parallel scan share
+   * this configuration): a check implementing {@link ThreadSafeVisitor} is shared by all the explorations, while each exploration
+   * runs its own instance of any other check, created by its no-arg constructor with the values of its rule properties.
+   * A check which is neither thread-safe nor instantiable this way is not registered.
+   * Checks of the classes of the built-in checks are ignored, each exploration creating its own built-in checks.
+   * Issues of the check are collected in the context of the file, as for the built-in checks.
+   */
+  public void addCheck(SECheck check) {
+    for (SECheck registeredCheck : checks) {
+      if (registeredCheck.getClass() == check.getClass()) {
+        return;
+      }
+    }
+    if (!(check instanceof ThreadSafeVisitor)) {
+      try {
+        CheckCopies.copyOf(check);
+      } catch (ReflectiveOperationException e) {
+        LOG.warn(check.getClass().getName() + " is not run by symbolic execution: it is not thread-safe and can not be instantiated for each method", e);
+        return;
+      }
+    }
+    checks.add(check);
+  }
+
+  /**
+   * @return the given registered check when it is thread-safe, a new instance of its class with the same rule properties otherwise
+   */
+  static SECheck instanceForExploration(SECheck check) {
+    if (check instanceof ThreadSafeVisitor) {
+      return check;
+    }
+    try {
+      return CheckCopies.copyOf(check);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unable to instantiate " + check.getClass().getName(), e);
+    }
+  }
+
+}
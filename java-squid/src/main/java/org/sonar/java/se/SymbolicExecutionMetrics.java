@@ -0,0 +1,79 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.se;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the symbolic execution of the methods of a project.
+ * This class is thread-safe.
+ */
+public class SymbolicExecutionMetrics {
+
+  private final AtomicInteger methods = new AtomicInteger();
+  private final AtomicInteger exhaustedMethods = new AtomicInteger();
+  private final AtomicLong steps = new AtomicLong();
+  private final AtomicInteger maxStepsOfMethod = new AtomicInteger();
+
+  void methodExplored(int methodSteps, boolean budgetExhausted) {
+    methods.incrementAndGet();
+    steps.addAndGet(methodSteps);
+    if (budgetExhausted) {
+      exhaustedMethods.incrementAndGet();
+    }
+    int max = maxStepsOfMethod.get();
+    while (methodSteps > max && !maxStepsOfMethod.compareAndSet(max, methodSteps)) {
+      max = maxStepsOfMethod.get();
+    }
+  }
+
+  public int methods() {
+    return methods.get();
+  }
+
+  /**
+   * Number of methods for which exploration has been stopped before exploring all the paths.
+   */
+  public int exhaustedMethods() {
+    return exhaustedMethods.get();
+  }
+
+  public long steps() {
+    return steps.get();
+  }
+
+  public int maxStepsOfMethod() {
+    return maxStepsOfMethod.get();
+  }
+
+  public double averageStepsPerMethod() {
+    int count = methods();
+    return count == 0 ? 0 : ((double) steps()) / count;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ENGLISH, "%d methods explored in %d steps (%.1f on average, %d at most), budget exhausted for %d methods",
+      methods(), steps(), averageStepsPerMethod(), maxStepsOfMethod(), exhaustedMethods());
+  }
+
+}
@@ -19,29 +19,94 @@
  */
 package org.sonar.java.se;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.squidbridge.api.AnalysisException;
+
+import javax.annotation.Nullable;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class SymbolicExecutionVisitor extends SubscriptionVisitor {
-  private static final Logger LOG = LoggerFactory.getLogger(SymbolicExecutionVisitor.class);
+
+  private final SymbolicExecutionConfiguration configuration;
+  private final SymbolicExecutionMetrics metrics;
+  @Nullable
+  private final ExecutorService executor;
+  private final List<Tree> methods = Lists.newArrayList();
+
+  public SymbolicExecutionVisitor() {
+    this(new SymbolicExecutionConfiguration(), new SymbolicExecutionMetrics());
+  }
+
+  public SymbolicExecutionVisitor(SymbolicExecutionConfiguration configuration, SymbolicExecutionMetrics metrics) {
+    this(configuration, metrics, null);
+  }
+
+  /**
+   * @param executor when provided, methods of a file are explored concurrently by this executor, issues being reported afterwards
+   * in the order of the methods in the file
+   */
+  public SymbolicExecutionVisitor(SymbolicExecutionConfiguration configuration, SymbolicExecutionMetrics metrics, @Nullable ExecutorService executor) {
+    this.configuration = configuration;
+    this.metrics = metrics;
+    this.executor = executor;
+  }
 
   @Override
   public List<Tree.Kind> nodesToVisit() {
     return Lists.newArrayList(Tree.Kind.METHOD);
   }
 
+  @Override
+  public void scanFile(JavaFileScannerContext context) {
+    methods.clear();
+    super.scanFile(context);
+    if (!methods.isEmpty()) {
+      exploreConcurrently(methods);
+      methods.clear();
+    }
+  }
+
   @Override
   public void visitNode(Tree tree) {
-    try {
-      tree.accept(new ExplodedGraphWalker(context));
-    } catch (ExplodedGraphWalker.MaximumStepsReachedException | ExplodedGraphWalker.ExplodedGraphTooBigException exception) {
-      LOG.debug("Could not complete symbolic execution: ", exception);
+    if (executor == null) {
+      tree.accept(new ExplodedGraphWalker(context, configuration, metrics));
+    } else {
+      methods.add(tree);
     }
+  }
 
+  private void exploreConcurrently(List<Tree> methodTrees) {
+    List<Callable<DeferredIssues>> explorations = Lists.newArrayList();
+    for (final Tree methodTree : methodTrees) {
+      explorations.add(new Callable<DeferredIssues>() {
+        @Override
+        public DeferredIssues call() {
+          DeferredIssues deferredIssues = new DeferredIssues();
+          methodTree.accept(new ExplodedGraphWalker(context, configuration, metrics, deferredIssues));
+          return deferredIssues;
+        }
+      });
+    }
+    try {
+      for (Future<DeferredIssues> exploration : executor.invokeAll(explorations)) {
+        exploration.get().reportOn((DefaultJavaFileScannerContext) context);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Symbolic execution cancelled", e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new AnalysisException("Symbolic execution failed", e.getCause());
+    }
   }
 }
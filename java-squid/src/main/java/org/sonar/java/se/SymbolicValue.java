@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableList;
 import org.sonar.java.se.ConstraintManager.BooleanConstraint;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class SymbolicValue {
@@ -125,6 +126,14 @@ public class SymbolicValue {
     return this;
   }
 
+  /**
+   * @return symbolic values on which constraints are propagated from this one, which must be kept as long as this one is reachable
+   */
+  public List<SymbolicValue> operands() {
+    SymbolicValue wrapped = wrappedValue();
+    return wrapped == this ? Collections.<SymbolicValue>emptyList() : Collections.singletonList(wrapped);
+  }
+
   abstract static class BinarySymbolicValue extends SymbolicValue {
 
     SymbolicValue leftOp;
@@ -143,6 +152,11 @@ public class SymbolicValue {
       leftOp = symbolicValues.get(1);
     }
 
+    @Override
+    public List<SymbolicValue> operands() {
+      return leftOp == null ? Collections.<SymbolicValue>emptyList() : ImmutableList.of(leftOp, rightOp);
+    }
+
     @Override
     public List<ProgramState> setConstraint(ProgramState programState, BooleanConstraint booleanConstraint) {
       if (leftOp.equals(rightOp)) {
@@ -234,6 +248,11 @@ public class SymbolicValue {
       this.operand = symbolicValues.get(0);
     }
 
+    @Override
+    public List<SymbolicValue> operands() {
+      return operand == null ? Collections.<SymbolicValue>emptyList() : Collections.singletonList(operand);
+    }
+
   }
 
   static class NotSymbolicValue extends UnarySymbolicValue {
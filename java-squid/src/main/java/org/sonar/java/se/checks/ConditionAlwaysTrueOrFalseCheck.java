@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import org.sonar.api.server.rule.RulesDefinition;
@@ -33,6 +34,7 @@ import org.sonar.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -57,6 +59,12 @@ public class ConditionAlwaysTrueOrFalseCheck extends SECheck implements JavaFile
     }
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    // conditions are reported by the walker
+    return ImmutableList.of();
+  }
+
   @Override
   public void init() {
     evaluatedToFalse.clear();
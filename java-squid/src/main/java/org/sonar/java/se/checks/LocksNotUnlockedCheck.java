@@ -44,6 +44,7 @@ import org.sonar.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -81,6 +82,11 @@ public class LocksNotUnlockedCheck extends SECheck implements JavaFileScanner {
       }
     }
 
+    @Override
+    public List<SymbolicValue> operands() {
+      return Collections.singletonList(operand);
+    }
+
     @Override
     public String toString() {
       return super.toString() + ".tryLock()";
@@ -156,6 +162,11 @@ public class LocksNotUnlockedCheck extends SECheck implements JavaFileScanner {
     }
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return ImmutableList.of(Tree.Kind.METHOD_INVOCATION);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     final PreStatementVisitor visitor = new PreStatementVisitor(context);
@@ -19,6 +19,7 @@
  */
 package org.sonar.java.se.checks;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import org.sonar.api.server.rule.RulesDefinition;
@@ -60,6 +61,11 @@ public class NullDereferenceCheck extends SECheck implements JavaFileScanner {
     }
   }
 
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return ImmutableList.of(Tree.Kind.MEMBER_SELECT, Tree.Kind.SWITCH_STATEMENT, Tree.Kind.METHOD_INVOCATION, Tree.Kind.NULL_LITERAL);
+  }
+
   @Override
   public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
     SymbolicValue currentVal = context.getState().peekValue();
@@ -19,17 +19,31 @@
  */
 package org.sonar.java.se.checks;
 
+import com.google.common.collect.ImmutableList;
 import org.sonar.java.se.CheckerContext;
 import org.sonar.java.se.ConstraintManager;
 import org.sonar.java.se.ProgramState;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import java.util.List;
+
 public abstract class SECheck implements JavaCheck {
 
+  private static final List<Tree.Kind> ALL_KINDS = ImmutableList.copyOf(Tree.Kind.values());
+
   public void init(){
   }
 
+  /**
+   * Kinds of the trees for which {@link #checkPreStatement(CheckerContext, Tree)} and {@link #checkPostStatement(CheckerContext, Tree)}
+   * are called, all the kinds by default. Trees of other kinds are processed as by the default implementations of these methods,
+   * without calling the check.
+   */
+  public List<Tree.Kind> nodesToVisit() {
+    return ALL_KINDS;
+  }
+
   /**
    * @return true if cfg instruction should be executed
    */
@@ -19,6 +19,7 @@
  */
 package org.sonar.java.syntaxtoken;
 
+import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.expression.TypeArgumentListTreeImpl;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ArrayAccessExpressionTree;
@@ -102,11 +103,35 @@ public class FirstSyntaxTokenFinder extends BaseTreeVisitor {
     if (tree.is(Tree.Kind.TOKEN)) {
       return (SyntaxToken) tree;
     }
+    if (tree instanceof JavaTree) {
+      return ((JavaTree) tree).firstToken();
+    }
+    return computeFirstSyntaxToken(tree);
+  }
+
+  /**
+   * Visits the given tree without reading its cached token, the tokens of its children being read from their cache.
+   * @see JavaTree#firstToken()
+   */
+  @Nullable
+  public static SyntaxToken computeFirstSyntaxToken(Tree tree) {
     FirstSyntaxTokenFinder visitor = new FirstSyntaxTokenFinder();
     tree.accept(visitor);
     return visitor.firstSyntaxToken;
   }
 
+  @Override
+  protected void scan(@Nullable Tree tree) {
+    if (tree instanceof JavaTree && !tree.is(Tree.Kind.TOKEN)) {
+      SyntaxToken token = ((JavaTree) tree).firstToken();
+      if (token != null) {
+        firstSyntaxToken = token;
+      }
+    } else {
+      super.scan(tree);
+    }
+  }
+
   @Override
   public void visitBlock(BlockTree tree) {
     if (tree.is(Tree.Kind.STATIC_INITIALIZER)) {
@@ -20,6 +20,7 @@
 package org.sonar.java.syntaxtoken;
 
 import com.google.common.collect.Iterables;
+import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.expression.TypeArgumentListTreeImpl;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ArrayAccessExpressionTree;
@@ -106,11 +107,35 @@ public class LastSyntaxTokenFinder extends BaseTreeVisitor {
     if (tree.is(Tree.Kind.TOKEN)) {
       return (SyntaxToken) tree;
     }
+    if (tree instanceof JavaTree) {
+      return ((JavaTree) tree).lastToken();
+    }
+    return computeLastSyntaxToken(tree);
+  }
+
+  /**
+   * Visits the given tree without reading its cached token, the tokens of its children being read from their cache.
+   * @see JavaTree#lastToken()
+   */
+  @Nullable
+  public static SyntaxToken computeLastSyntaxToken(Tree tree) {
     LastSyntaxTokenFinder visitor = new LastSyntaxTokenFinder();
     tree.accept(visitor);
     return visitor.lastSyntaxToken;
   }
 
+  @Override
+  protected void scan(@Nullable Tree tree) {
+    if (tree instanceof JavaTree && !tree.is(Tree.Kind.TOKEN)) {
+      SyntaxToken token = ((JavaTree) tree).lastToken();
+      if (token != null) {
+        lastSyntaxToken = token;
+      }
+    } else {
+      super.scan(tree);
+    }
+  }
+
   @Override
   public void visitBlock(BlockTree tree) {
     lastSyntaxToken = tree.closeBraceToken();
@@ -0,0 +1,31 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.java.api;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Marker for scanners which keep no per-file state and can therefore be shared by the workers of a parallel AST scan.
+ * Scanners not implementing this interface are given one instance per worker, or are run by the scanning thread in the order
+ * of the files when they cannot be instantiated.
+ */
+@Beta
+public interface ThreadSafeVisitor {
+}
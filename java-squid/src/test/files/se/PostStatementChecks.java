@@ -0,0 +1,16 @@
+package javax.annotation;
+
+@interface CheckForNull {}
+
+class PostStatementChecks {
+
+  @CheckForNull
+  Object nullable() {
+    return null;
+  }
+
+  void foo() {
+    Object o = nullable();
+  }
+
+}
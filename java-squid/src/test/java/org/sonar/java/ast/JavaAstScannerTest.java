@@ -22,6 +22,8 @@ package org.sonar.java.ast;
 import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.typed.ActionParser;
 import com.sonar.sslr.api.typed.GrammarBuilder;
@@ -31,32 +33,47 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.InputPath;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.resources.Resource;
+import org.sonar.api.source.Symbolizable;
+import org.sonar.java.AnalyzerMessage;
 import org.sonar.java.Measurer;
+import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.parser.JavaNodeBuilder;
+import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.model.InternalSyntaxToken;
+import org.sonar.java.model.InternalVisitorsBridge;
 import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TreeVisitor;
 import org.sonar.squidbridge.AstScannerExceptionHandler;
 import org.sonar.squidbridge.api.AnalysisException;
+import org.sonar.squidbridge.api.SourceFile;
+import org.sonar.squidbridge.indexer.QueryByType;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
 
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -157,6 +174,59 @@ public class JavaAstScannerTest {
     scanner.scan(ImmutableList.of(new File("src/test/resources/AstScannerNoParseError.txt")));
   }
 
+  @Test
+  public void parallel_scan_should_index_all_files_and_use_one_scanner_per_worker() {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    when(sonarComponents.symbolizableFor(any(File.class))).thenReturn(mock(Symbolizable.class, RETURNS_DEEP_STUBS));
+    CountingScanner countingScanner = new CountingScanner();
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(Charsets.UTF_8));
+    InternalVisitorsBridge visitorsBridge = new InternalVisitorsBridge(ImmutableList.of(countingScanner), Lists.<File>newArrayList(), sonarComponents, false);
+    visitorsBridge.setCharset(Charsets.UTF_8);
+    scanner.setVisitorBridge(visitorsBridge);
+    scanner.setWorkers(2);
+
+    scanner.scan(ImmutableList.of(new File("src/test/files/metrics/Comments.java"), new File("src/test/files/metrics/NoSonar.java")));
+
+    assertThat(scanner.getIndex().search(new QueryByType(SourceFile.class))).hasSize(2);
+    ArgumentCaptor<JavaCheck> copies = ArgumentCaptor.forClass(JavaCheck.class);
+    verify(sonarComponents, times(2)).registerCheckCopy(copies.capture(), Mockito.same((JavaCheck) countingScanner));
+    assertThat(copies.getAllValues().get(0)).isNotSameAs(copies.getAllValues().get(1));
+    int scannedFiles = 0;
+    for (JavaCheck copy : copies.getAllValues()) {
+      scannedFiles += ((CountingScanner) copy).scannedFiles;
+    }
+    assertThat(scannedFiles).isEqualTo(2);
+    assertThat(countingScanner.scannedFiles).isEqualTo(0);
+  }
+
+  @Test
+  public void parallel_scan_should_report_issues_and_run_scanners_which_can_not_be_copied_in_the_order_of_files() {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    when(sonarComponents.symbolizableFor(any(File.class))).thenReturn(mock(Symbolizable.class, RETURNS_DEEP_STUBS));
+    File[] sources = new File("src/test/files/metrics").listFiles();
+    Arrays.sort(sources);
+    List<File> files = Arrays.asList(sources);
+    OrderedScanner orderedScanner = new OrderedScanner(files.size());
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(Charsets.UTF_8));
+    InternalVisitorsBridge visitorsBridge = new InternalVisitorsBridge(
+      ImmutableList.of(new IssueOnEachFileScanner(), orderedScanner), Lists.<File>newArrayList(), sonarComponents, false);
+    visitorsBridge.setCharset(Charsets.UTF_8);
+    scanner.setVisitorBridge(visitorsBridge);
+    scanner.setWorkers(3);
+
+    scanner.scan(files);
+
+    ArgumentCaptor<AnalyzerMessage> issues = ArgumentCaptor.forClass(AnalyzerMessage.class);
+    verify(sonarComponents, times(files.size())).reportIssue(issues.capture());
+    List<File> filesWithIssue = Lists.newArrayList();
+    for (AnalyzerMessage issue : issues.getAllValues()) {
+      filesWithIssue.add(issue.getFile());
+    }
+    assertThat(filesWithIssue).isEqualTo(files);
+    assertThat(orderedScanner.scannedFiles).isEqualTo(files);
+    assertThat(orderedScanner.threads).containsOnly(Thread.currentThread());
+  }
+
   private static JavaAstScanner defaultJavaAstScanner() {
     return new JavaAstScanner(new ActionParser<Tree>(Charsets.UTF_8, FakeLexer.builder(), FakeGrammar.class, new FakeTreeFactory(), new JavaNodeBuilder(), FakeLexer.ROOT));
   }
@@ -175,6 +245,43 @@ public class JavaAstScannerTest {
     }
   }
 
+  private static class CountingScanner implements JavaFileScanner {
+
+    private int scannedFiles = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles++;
+    }
+  }
+
+  private static class IssueOnEachFileScanner implements JavaFileScanner {
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      context.addIssueOnFile(this, "issue");
+    }
+  }
+
+  /**
+   * Can not be instantiated for each worker, hence is executed by the scanning thread.
+   */
+  private static class OrderedScanner implements JavaFileScanner {
+
+    private final List<File> scannedFiles;
+    private final Set<Thread> threads = Sets.newHashSet();
+
+    OrderedScanner(int expectedFiles) {
+      this.scannedFiles = Lists.newArrayListWithCapacity(expectedFiles);
+    }
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles.add(context.getFile());
+      threads.add(Thread.currentThread());
+    }
+  }
+
   private static class AnalysisExceptionBaseMatcher extends BaseMatcher {
 
     private final Class<? extends Exception> expectedCause;
@@ -0,0 +1,147 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.ast.visitors;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SubscriptionDispatcherTest {
+
+  private static final String SOURCE = "/* header */ class A {\n"
+    + "  // comment\n"
+    + "  void foo() { int a = 1; }\n"
+    + "  class B { void bar() {} }\n"
+    + "}";
+
+  @Test
+  public void visitors_are_notified_as_with_their_own_scan() {
+    JavaFileScannerContext context = context();
+    List<RecordingVisitor> scanned = visitors();
+    for (RecordingVisitor visitor : scanned) {
+      visitor.scanFile(context);
+    }
+    List<RecordingVisitor> dispatched = visitors();
+    new SubscriptionDispatcher(ImmutableList.<SubscriptionVisitor>copyOf(dispatched)).scanFile(context);
+
+    for (int i = 0; i < scanned.size(); i++) {
+      assertThat(dispatched.get(i).events).isNotEmpty();
+      assertThat(dispatched.get(i).events).isEqualTo(scanned.get(i).events);
+      assertThat(dispatched.get(i).context).isSameAs(context);
+    }
+    assertThat(dispatched.get(2).events).containsExactly("trivia /* header */", "trivia // comment");
+  }
+
+  @Test
+  public void subscriptions_are_read_at_each_scan() {
+    List<SubscriptionVisitor> visitors = Lists.newArrayList();
+    SubscriptionDispatcher dispatcher = new SubscriptionDispatcher(visitors);
+    RecordingVisitor visitor = new RecordingVisitor(Tree.Kind.CLASS);
+    visitors.add(visitor);
+    dispatcher.scanFile(context());
+    assertThat(visitor.events).containsExactly("visit CLASS", "visit CLASS", "leave CLASS", "leave CLASS");
+  }
+
+  @Test
+  public void only_visitors_relying_on_subscription_scan_can_be_dispatched() {
+    assertThat(SubscriptionDispatcher.canDispatch(new RecordingVisitor())).isTrue();
+    assertThat(SubscriptionDispatcher.canDispatch(new ScanningVisitor())).isFalse();
+    assertThat(SubscriptionDispatcher.canDispatch(new TreeScanningVisitor())).isFalse();
+    assertThat(SubscriptionDispatcher.canDispatch(mock(JavaFileScanner.class))).isFalse();
+  }
+
+  private static List<RecordingVisitor> visitors() {
+    return ImmutableList.of(
+      new RecordingVisitor(Tree.Kind.CLASS, Tree.Kind.METHOD, Tree.Kind.TOKEN),
+      new RecordingVisitor(Tree.Kind.METHOD, Tree.Kind.METHOD, Tree.Kind.VARIABLE, Tree.Kind.TRIVIA),
+      new RecordingVisitor(Tree.Kind.TRIVIA));
+  }
+
+  private static JavaFileScannerContext context() {
+    CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser(Charsets.UTF_8).parse(SOURCE);
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.getTree()).thenReturn(tree);
+    return context;
+  }
+
+  private static class RecordingVisitor extends SubscriptionVisitor {
+
+    private final List<Tree.Kind> kinds;
+    private final List<String> events = Lists.newArrayList();
+
+    RecordingVisitor(Tree.Kind... kinds) {
+      this.kinds = ImmutableList.copyOf(kinds);
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return kinds;
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      events.add("visit " + tree.kind());
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      events.add("leave " + tree.kind());
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      events.add("token " + syntaxToken.text());
+    }
+
+    @Override
+    public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+      events.add("trivia " + syntaxTrivia.comment());
+    }
+  }
+
+  private static class ScanningVisitor extends RecordingVisitor {
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      super.scanFile(context);
+    }
+  }
+
+  private static class TreeScanningVisitor extends RecordingVisitor {
+    @Override
+    protected void scanTree(Tree tree) {
+      super.scanTree(tree);
+    }
+  }
+
+}
@@ -26,11 +26,17 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.java.bytecode.asm.AsmClass;
 import org.sonar.java.bytecode.asm.AsmClassProvider;
+import org.sonar.java.bytecode.asm.AsmClassProviderImpl;
+import org.sonar.java.bytecode.asm.AsmMethod;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.java.bytecode.visitor.BytecodeVisitor;
 import org.sonar.java.bytecode.visitor.DefaultBytecodeContext;
 
+import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.List;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -78,6 +84,39 @@ public class BytecodeScannerTest {
     bytecodeScanner.scanClasses(Lists.newArrayList(className), asmProvider);
   }
 
+  @Test
+  public void parallel_scan_visits_classes_as_sequential_scan() {
+    List<String> classes = Lists.newArrayList(
+      "tags/File", "tags/Line", "tags/Tag", "tags/TagName", "tags/SourceFile", "tags/Language", "tags/TagException", "tags/Unknown");
+    assertThat(scan(classes, 4)).isEqualTo(scan(classes, 1));
+    assertThat(scan(classes, 4)).contains("tags/File", "tags/Line", "tags/Tag");
+  }
+
+  private static List<String> scan(List<String> classes, int workers) {
+    SquidClassLoader classLoader = ClassLoaderBuilder.create(new File("src/test/files/bytecode/bin"));
+    BytecodeScanner scanner = new BytecodeScanner(new DefaultBytecodeContext(null));
+    scanner.setWorkers(workers);
+    ClassesCollector collector = new ClassesCollector();
+    scanner.accept(collector);
+    scanner.scanClasses(classes, new AsmClassProviderImpl(classLoader));
+    classLoader.close();
+    return collector.visited;
+  }
+
+  private static class ClassesCollector extends BytecodeVisitor {
+    private final List<String> visited = Lists.newArrayList();
+
+    @Override
+    public void visitClass(AsmClass asmClass) {
+      visited.add(asmClass.getInternalName());
+    }
+
+    @Override
+    public void visitMethod(AsmMethod asmMethod) {
+      visited.add(asmMethod.getGenericKey() + (asmMethod.isUsed() ? " used" : ""));
+    }
+  }
+
   private static class CheckThrowingException extends BytecodeVisitor {
     private final RuntimeException e;
 
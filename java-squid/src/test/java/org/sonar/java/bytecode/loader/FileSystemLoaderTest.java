@@ -77,6 +77,20 @@ public class FileSystemLoaderTest {
     loader.loadBytes("tags/TagName.class");
   }
 
+  @Test
+  public void testResourceNames() throws Exception {
+    File dir = new File("src/test/files/bytecode/bin/");
+    FileSystemLoader loader = new FileSystemLoader(dir);
+
+    assertThat(loader.resourceNames()).contains("tags/TagName.class").excludes("tags");
+
+    loader.close();
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Loader closed");
+    loader.resourceNames();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File dir = new File("src/test/files/bytecode/bin/");
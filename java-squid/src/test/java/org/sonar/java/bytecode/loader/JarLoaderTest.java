@@ -88,6 +88,16 @@ public class JarLoaderTest {
     loader.loadBytes("META-INF/MANIFEST.MF");
   }
 
+  @Test
+  public void testResourceNames() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    JarLoader loader = new JarLoader(jar);
+
+    assertThat(loader.resourceNames()).hasSize(4).contains("META-INF/MANIFEST.MF", "org/sonar/tests/Hello.class");
+
+    loader.close();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
@@ -118,6 +118,23 @@ public class SquidClassLoaderTest {
     assertThat(Iterators.forEnumeration(classLoader.findResources("notfound"))).hasSize(0);
   }
 
+  @Test
+  public void resources_are_indexed() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    File dir = new File("src/test/files/bytecode/bin/");
+    classLoader = new SquidClassLoader(Arrays.asList(jar, dir));
+
+    assertThat(classLoader.hasResource("org/sonar/tests/Hello.class")).isTrue();
+    assertThat(classLoader.hasResource("tags/TagName.class")).isTrue();
+    assertThat(classLoader.hasResource("java/lang/Integer.class")).as("JDK classes are not indexed").isFalse();
+    assertThat(classLoader.hasResource("notfound")).isFalse();
+    assertThat(classLoader.packageNames()).contains("org/sonar/tests", "tags").excludes("org/sonar", "java/lang");
+
+    assertThat(classLoader.loadBytes("org/sonar/tests/Hello.class")).hasSize(460);
+    assertThat(classLoader.loadBytes("tags/TagName.class")).isNotEmpty();
+    assertThat(classLoader.loadBytes("notfound")).isNull();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
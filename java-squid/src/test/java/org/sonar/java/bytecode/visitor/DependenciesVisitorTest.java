@@ -20,10 +20,17 @@
 package org.sonar.java.bytecode.visitor;
 
 import org.junit.Test;
+import org.sonar.api.design.Dependency;
+import org.sonar.api.resources.Directory;
+import org.sonar.api.resources.Resource;
 import org.sonar.graph.DirectedGraph;
+import org.sonar.java.bytecode.asm.AsmClass;
+import org.sonar.java.bytecode.asm.AsmEdge;
+import org.sonar.plugins.java.api.JavaResourceLocator;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class DependenciesVisitorTest {
 
@@ -31,4 +38,57 @@ public class DependenciesVisitorTest {
   public void testName() throws Exception {
   }
 
+  @Test
+  public void dependencies_between_packages_are_weighted_by_dependencies_between_files() {
+    Directory package1 = mock(Directory.class);
+    Directory package2 = mock(Directory.class);
+    Resource a = resource(package1);
+    Resource b = resource(package2);
+    Resource c = resource(package2);
+    ResourceMapping resourceMapping = new ResourceMapping();
+    JavaResourceLocator javaResourceLocator = mock(JavaResourceLocator.class);
+    when(javaResourceLocator.getResourceMapping()).thenReturn(resourceMapping);
+    when(javaResourceLocator.findResourceByClassName("A")).thenReturn(a);
+    when(javaResourceLocator.findResourceByClassName("B")).thenReturn(b);
+    when(javaResourceLocator.findResourceByClassName("C")).thenReturn(c);
+    BytecodeContext context = mock(BytecodeContext.class);
+    when(context.getJavaResourceLocator()).thenReturn(javaResourceLocator);
+    DirectedGraph<Resource, Dependency> graph = new DirectedGraph<>();
+
+    DependenciesVisitor visitor = new DependenciesVisitor(context, graph);
+    visitor.visitClass(asmClass("A"));
+    visitor.visitEdge(edgeTo("B"));
+    visitor.visitEdge(edgeTo("B"));
+    visitor.visitEdge(edgeTo("C"));
+    visitor.visitEdge(edgeTo("A"));
+    visitor.visitEdge(edgeTo("Unknown"));
+
+    assertThat(graph.getEdge(a, b).getWeight()).isEqualTo(1);
+    assertThat(graph.getEdge(a, c).getWeight()).isEqualTo(1);
+    assertThat(graph.getEdge(a, a)).isNull();
+    Dependency packageDependency = graph.getEdge(package1, package2);
+    assertThat(packageDependency.getWeight()).isEqualTo(3);
+    assertThat(resourceMapping.getSubDependencies(packageDependency)).containsExactly(graph.getEdge(a, b), graph.getEdge(a, c));
+    assertThat(graph.getEdge(a, b).getParent()).isSameAs(packageDependency);
+  }
+
+  private static Resource resource(Directory directory) {
+    Resource resource = mock(Resource.class);
+    when(resource.getParent()).thenReturn(directory);
+    return resource;
+  }
+
+  private static AsmClass asmClass(String internalName) {
+    AsmClass asmClass = mock(AsmClass.class);
+    when(asmClass.getInternalName()).thenReturn(internalName);
+    return asmClass;
+  }
+
+  private static AsmEdge edgeTo(String internalName) {
+    AsmEdge edge = mock(AsmEdge.class);
+    AsmClass target = asmClass(internalName);
+    when(edge.getTargetAsmClass()).thenReturn(target);
+    return edge;
+  }
+
 }
@@ -0,0 +1,176 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cache;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.source.Symbolizable;
+import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.ast.JavaAstScanner;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.InternalVisitorsBridge;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ClassTree;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnalysisCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private SonarComponents sonarComponents;
+  private File cacheFile;
+  private ClassNameCheck check;
+
+  @Before
+  public void setUp() {
+    sonarComponents = mock(SonarComponents.class);
+    when(sonarComponents.symbolizableFor(any(File.class))).thenReturn(mock(Symbolizable.class, RETURNS_DEEP_STUBS));
+    when(sonarComponents.getRuleKey(any(JavaCheck.class))).thenReturn(RuleKey.of("squid", "ClassName"));
+    cacheFile = new File(temp.getRoot(), "cache/main.cache");
+    check = new ClassNameCheck();
+  }
+
+  @Test
+  public void issues_of_unchanged_files_are_replayed() throws Exception {
+    File file = write("A.java", "class A {}");
+    scan(file);
+    assertThat(check.scannedFiles).isEqualTo(1);
+    assertThat(cacheFile).exists();
+
+    scan(file);
+    assertThat(check.scannedFiles).isEqualTo(1);
+    verify(sonarComponents, times(2)).reportIssue(any(AnalyzerMessage.class));
+
+    Files.write("class B {}", file, Charsets.UTF_8);
+    scan(file);
+    assertThat(check.scannedFiles).isEqualTo(2);
+  }
+
+  @Test
+  public void files_referencing_a_modified_type_are_analyzed() throws Exception {
+    File a = write("A.java", "class A { B b; }");
+    File b = write("B.java", "class B {}");
+    scan(a, b);
+    assertThat(check.scannedFiles).isEqualTo(2);
+
+    scan(a, b);
+    assertThat(check.scannedFiles).isEqualTo(2);
+
+    Files.write("class B { int i; }", b, Charsets.UTF_8);
+    scan(a, b);
+    assertThat(check.scannedFiles).isEqualTo(4);
+  }
+
+  @Test
+  public void change_of_a_type_is_propagated_to_the_files_referencing_it() throws Exception {
+    File a = write("A.java", "class A extends B {}");
+    File b = write("B.java", "class B extends C {}");
+    File c = write("C.java", "class C { void g() {} }");
+    scan(a, b, c);
+    assertThat(check.scannedFiles).isEqualTo(3);
+
+    Files.write("class C { void h() {} }", c, Charsets.UTF_8);
+    scan(a, b, c);
+    assertThat(check.scannedFiles).isEqualTo(6);
+  }
+
+  @Test
+  public void files_referencing_a_modified_class_file_are_analyzed() throws Exception {
+    File classes = temp.newFolder("classes");
+    File classFile = new File(classes, "tags/Tag.class");
+    Files.createParentDirs(classFile);
+    byte[] bytecode = Files.toByteArray(new File("src/test/files/bytecode/bin/tags/Tag.class"));
+    Files.write(bytecode, classFile);
+    File a = write("A.java", "class A { tags.Tag tag; }");
+    File b = write("B.java", "class B {}");
+    scan(Collections.singletonList(classes), a, b);
+    scan(Collections.singletonList(classes), a, b);
+    assertThat(check.scannedFiles).isEqualTo(2);
+
+    Files.write(Arrays.copyOf(bytecode, bytecode.length + 1), classFile);
+    scan(Collections.singletonList(classes), a, b);
+    assertThat(check.scannedFiles).isEqualTo(3);
+  }
+
+  @Test
+  public void cache_is_dropped_when_rules_change() throws Exception {
+    File file = write("A.java", "class A {}");
+    scan(file);
+    when(sonarComponents.getRuleKey(any(JavaCheck.class))).thenReturn(RuleKey.of("squid", "OtherRule"));
+    scan(file);
+    assertThat(check.scannedFiles).isEqualTo(2);
+  }
+
+  private File write(String name, String content) throws Exception {
+    File file = temp.newFile(name);
+    Files.write(content, file, Charsets.UTF_8);
+    return file;
+  }
+
+  private void scan(File... files) {
+    scan(Lists.<File>newArrayList(), files);
+  }
+
+  private void scan(List<File> classpath, File... files) {
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(Charsets.UTF_8));
+    InternalVisitorsBridge visitorsBridge = new InternalVisitorsBridge(Collections.singletonList(check), classpath, sonarComponents, false);
+    visitorsBridge.setJavaVersion(new JavaVersionImpl());
+    visitorsBridge.setAnalysisCache(new AnalysisCache(cacheFile, sonarComponents));
+    scanner.setVisitorBridge(visitorsBridge);
+    List<File> filesToScan = Lists.newArrayList(files);
+    scanner.scan(filesToScan);
+  }
+
+  private static class ClassNameCheck implements JavaFileScanner {
+
+    private int scannedFiles = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles++;
+      ClassTree classTree = (ClassTree) context.getTree().types().get(0);
+      context.reportIssue(this, classTree.simpleName(), "Class " + classTree.simpleName().name());
+    }
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import org.junit.Test;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class DefiniteAssignmentTest {
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = (CompilationUnitTree) LiveVariablesTest.PARSER.parse("class A { int field; " + methodCode + " }");
+    SemanticModel.createFor(cut, Collections.<File>emptyList());
+    MethodTree tree = ((MethodTree) ((ClassTree) cut.types().get(0)).members().get(1));
+    return CFG.build(tree);
+  }
+
+  private static Set<String> assignedAtExit(String methodCode) {
+    CFG cfg = buildCFG(methodCode);
+    Set<String> result = new HashSet<>();
+    for (Symbol symbol : DefiniteAssignment.analyze(cfg).getIn(cfg.reversedBlocks().get(0))) {
+      result.add(symbol.name());
+    }
+    return result;
+  }
+
+  @Test
+  public void assigned_on_all_paths() {
+    assertThat(assignedAtExit("void foo(boolean c) { int x; int y; if (c) { x = 1; y = 1; } else { x = 2; } }")).containsOnly("x");
+  }
+
+  @Test
+  public void initialized_declarations() {
+    assertThat(assignedAtExit("void foo(boolean c) { int x = 0; int y; }")).containsOnly("x");
+  }
+
+  @Test
+  public void assignment_in_loop_body_is_not_definite() {
+    assertThat(assignedAtExit("void foo(boolean c) { int x; while (c) { x = 1; } }")).isEmpty();
+    assertThat(assignedAtExit("void foo(boolean c) { int x; do { x = 1; } while (c); }")).containsOnly("x");
+  }
+
+  @Test
+  public void fields_are_not_tracked() {
+    assertThat(assignedAtExit("void foo() { field = 1; }")).isEmpty();
+  }
+
+}
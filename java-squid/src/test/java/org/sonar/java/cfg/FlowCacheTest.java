@@ -0,0 +1,68 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import org.junit.Test;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class FlowCacheTest {
+
+  @Test
+  public void flows_are_computed_once_per_method() {
+    CompilationUnitTree cut = (CompilationUnitTree) LiveVariablesTest.PARSER.parse("class A { void foo(int a) { int i = a; foo(i); } void bar() { } }");
+    SemanticModel.createFor(cut, Collections.<File>emptyList());
+    MethodTree foo = (MethodTree) ((ClassTree) cut.types().get(0)).members().get(0);
+    MethodTree bar = (MethodTree) ((ClassTree) cut.types().get(0)).members().get(1);
+
+    FlowCache flowCache = new FlowCache();
+    CFG cfg = flowCache.cfg(foo);
+    assertThat(flowCache.cfg(foo)).isSameAs(cfg);
+    assertThat(flowCache.cfg(bar)).isNotSameAs(cfg);
+
+    LiveVariables liveVariables = flowCache.liveVariables(foo);
+    assertThat(flowCache.liveVariables(foo)).isSameAs(liveVariables);
+    assertThat(flowCache.cfg(foo)).isSameAs(cfg);
+    assertThat(liveVariables.getOut(cfg.entry())).isNotNull();
+
+    assertThat(new FlowCache().cfg(foo)).isNotSameAs(cfg);
+  }
+
+  @Test
+  public void cache_of_context() {
+    DefaultJavaFileScannerContext defaultContext = new DefaultJavaFileScannerContext(null, null, new File("A.java"), null, false, null, null, true);
+    assertThat(FlowCache.of(defaultContext)).isSameAs(defaultContext.flowCache());
+
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    assertThat(FlowCache.of(context)).isNotNull();
+    assertThat(FlowCache.of(context)).isNotSameAs(FlowCache.of(context));
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.cfg;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import org.junit.Test;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ReachingDefinitionsTest {
+
+  private static final ActionParser<Tree> PARSER = LiveVariablesTest.PARSER;
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = (CompilationUnitTree) PARSER.parse("class A { int field; " + methodCode + " }");
+    SemanticModel.createFor(cut, Collections.<File>emptyList());
+    MethodTree tree = ((MethodTree) ((ClassTree) cut.types().get(0)).members().get(1));
+    return CFG.build(tree);
+  }
+
+  private static Set<String> exitDefinitions(CFG cfg) {
+    ReachingDefinitions reachingDefinitions = ReachingDefinitions.analyze(cfg);
+    Set<String> result = new HashSet<>();
+    for (Tree definition : reachingDefinitions.getIn(cfg.reversedBlocks().get(0))) {
+      result.add(definition.kind().name());
+    }
+    return result;
+  }
+
+  @Test
+  public void overwritten_definition_does_not_reach() {
+    CFG cfg = buildCFG("void foo(boolean c) { int x = 0; if (c) { x = 1; } else { x += 2; } }");
+    assertThat(exitDefinitions(cfg)).containsOnly("ASSIGNMENT", "PLUS_ASSIGNMENT");
+  }
+
+  @Test
+  public void definitions_of_all_branches_reach() {
+    CFG cfg = buildCFG("void foo(boolean c) { int x = 0; if (c) { x = 1; } }");
+    assertThat(exitDefinitions(cfg)).containsOnly("VARIABLE", "ASSIGNMENT");
+  }
+
+  @Test
+  public void definitions_in_loops() {
+    CFG cfg = buildCFG("void foo(boolean c) { int x = 0; while (c) { x++; } }");
+    assertThat(exitDefinitions(cfg)).containsOnly("VARIABLE", "POSTFIX_INCREMENT");
+  }
+
+  @Test
+  public void fields_and_declarations_without_initializer_are_not_definitions() {
+    CFG cfg = buildCFG("void foo() { int x; field = 1; this.field = 2; }");
+    assertThat(exitDefinitions(cfg)).isEmpty();
+  }
+
+  @Test
+  public void definitions_of_a_variable() {
+    CFG cfg = buildCFG("void foo(boolean c) { int x = 0; int y = 1; if (c) { y = 2; } }");
+    ReachingDefinitions reachingDefinitions = ReachingDefinitions.analyze(cfg);
+    CFG.Block exit = cfg.reversedBlocks().get(0);
+    assertThat(reachingDefinitions.getIn(exit)).hasSize(3);
+    Set<Tree> definitionsOfX = reachingDefinitions.getIn(exit, symbol(reachingDefinitions.getIn(exit), "x"));
+    assertThat(definitionsOfX).hasSize(1);
+    assertThat(definitionsOfX.iterator().next().is(Tree.Kind.VARIABLE)).isTrue();
+  }
+
+  private static Symbol symbol(Set<Tree> definitions, String name) {
+    for (Tree definition : definitions) {
+      if (definition.is(Tree.Kind.VARIABLE) && ((VariableTree) definition).simpleName().name().equals(name)) {
+        return ((VariableTree) definition).symbol();
+      }
+    }
+    throw new IllegalArgumentException(name);
+  }
+
+}
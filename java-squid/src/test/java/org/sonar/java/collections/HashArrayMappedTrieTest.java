@@ -0,0 +1,187 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class HashArrayMappedTrieTest {
+
+  @Test
+  public void test_empty() {
+    HashArrayMappedTrie<String, String> t = HashArrayMappedTrie.create();
+    assertThat(t).as("singleton").isSameAs(HashArrayMappedTrie.create());
+    assertThat(t.isEmpty()).isTrue();
+    assertThat(t.get("anything")).isNull();
+    assertThat(t.remove("anything")).isSameAs(t);
+    assertThat(t.toString()).isEqualTo("");
+    assertThat(t.hashCode()).isEqualTo(0);
+  }
+
+  @Test
+  public void test_one_element() {
+    HashArrayMappedTrie<String, String> t0 = HashArrayMappedTrie.create();
+    HashArrayMappedTrie<String, String> t1 = t0.put("1", "a");
+    HashArrayMappedTrie<String, String> t2 = t0.put("2", "b");
+
+    assertThat(t0.get("1")).isNull();
+    assertThat(t1.get("1")).isEqualTo("a");
+    assertThat(t1.get("2")).isNull();
+    assertThat(t2.get("1")).isNull();
+    assertThat(t2.get("2")).isEqualTo("b");
+    assertThat(t1.size()).isEqualTo(1);
+    assertThat(t1.toString()).isEqualTo(" 1->a");
+    assertThat(t1.remove("1")).isSameAs(t0);
+  }
+
+  @Test
+  public void replace_value() {
+    HashArrayMappedTrie<String, String> t1 = HashArrayMappedTrie.<String, String>create().put("1", "a");
+    HashArrayMappedTrie<String, String> t2 = t1.put("1", "b");
+    assertThat(t2).isNotSameAs(t1);
+    assertThat(t1.get("1")).isEqualTo("a");
+    assertThat(t2.get("1")).isEqualTo("b");
+    assertThat(t2.size()).isEqualTo(1);
+    assertThat(t2.put("1", "a")).isEqualTo(t1);
+    assertThat(t2.put("1", "a").hashCode()).isEqualTo(t1.hashCode());
+  }
+
+  @Test
+  public void no_change() {
+    HashArrayMappedTrie<String, String> t1 = HashArrayMappedTrie.<String, String>create().put("1", "1");
+    assertThat(t1.put("1", "1")).isSameAs(t1);
+    assertThat(t1.remove("3")).isSameAs(t1);
+  }
+
+  @Test
+  public void equality_does_not_depend_on_order_of_updates() {
+    List<Integer> keys = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      keys.add(i * 7919);
+    }
+    HashArrayMappedTrie<Integer, Object> t1 = HashArrayMappedTrie.create();
+    for (Integer key : keys) {
+      t1 = t1.add(key);
+    }
+    Collections.shuffle(keys, new Random(42));
+    HashArrayMappedTrie<Integer, Object> t2 = HashArrayMappedTrie.create();
+    for (Integer key : keys) {
+      t2 = t2.add(key);
+    }
+    t2 = t2.add(-1).remove(-1);
+    assertThat(t1).isEqualTo(t2);
+    assertThat(t1.hashCode()).isEqualTo(t2.hashCode());
+    assertThat(t1.remove(0)).isNotEqualTo(t2);
+    assertThat(t1.put(0, "other")).isNotEqualTo(t2);
+  }
+
+  @Test
+  public void keys_with_same_hash_code() {
+    HashArrayMappedTrie<Key, String> t = HashArrayMappedTrie.create();
+    Key a = new Key("a", 42);
+    Key b = new Key("b", 42);
+    Key c = new Key("c", 42);
+    Key d = new Key("d", 42 + (1 << 5));
+    t = t.put(a, "a").put(b, "b").put(c, "c").put(d, "d");
+    assertThat(t.size()).isEqualTo(4);
+    assertThat(t.get(a)).isEqualTo("a");
+    assertThat(t.get(b)).isEqualTo("b");
+    assertThat(t.get(c)).isEqualTo("c");
+    assertThat(t.get(d)).isEqualTo("d");
+    assertThat(t.get(new Key("e", 42))).isNull();
+    assertThat(t.put(b, "b")).isSameAs(t);
+    assertThat(t.put(b, "x").get(b)).isEqualTo("x");
+
+    HashArrayMappedTrie<Key, String> other = HashArrayMappedTrie.<Key, String>create().put(d, "d").put(c, "c").put(b, "b").put(a, "a");
+    assertThat(other).isEqualTo(t);
+
+    t = t.remove(a).remove(b);
+    assertThat(t.get(c)).isEqualTo("c");
+    assertThat(t).isEqualTo(HashArrayMappedTrie.<Key, String>create().put(c, "c").put(d, "d"));
+    t = t.remove(c).remove(d);
+    assertThat(t.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void random_updates() {
+    Random random = new Random(1);
+    Map<Integer, Integer> expected = new HashMap<>();
+    HashArrayMappedTrie<Integer, Integer> t = HashArrayMappedTrie.create();
+    for (int i = 0; i < 10000; i++) {
+      // few distinct values of low bits to create deep tries
+      Integer key = random.nextInt(500) << random.nextInt(20);
+      if (random.nextBoolean()) {
+        Integer value = random.nextInt(3);
+        t = t.put(key, value);
+        expected.put(key, value);
+      } else {
+        t = t.remove(key);
+        expected.remove(key);
+      }
+      assertThat(t.size()).isEqualTo(expected.size());
+    }
+    for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assertThat(t.get(entry.getKey())).isEqualTo(entry.getValue());
+    }
+    HashArrayMappedTrie<Integer, Integer> copy = HashArrayMappedTrie.create();
+    for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      copy = copy.put(entry.getKey(), entry.getValue());
+    }
+    assertThat(copy).isEqualTo(t);
+    assertThat(copy.hashCode()).isEqualTo(t.hashCode());
+    final int[] count = new int[1];
+    t.forEach(new PSet.Consumer<Integer>() {
+      @Override
+      public void accept(Integer key) {
+        count[0]++;
+      }
+    });
+    assertThat(count[0]).isEqualTo(expected.size());
+  }
+
+  private static class Key {
+    private final String name;
+    private final int hashCode;
+
+    Key(String name, int hashCode) {
+      this.name = name;
+      this.hashCode = hashCode;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && name.equals(((Key) obj).name);
+    }
+  }
+
+}
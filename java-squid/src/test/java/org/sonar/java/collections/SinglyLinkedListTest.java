@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SinglyLinkedListTest {
+
+  @Test
+  public void test_empty() {
+    PStack<String> s = SinglyLinkedList.empty();
+    assertThat(s).as("singleton").isSameAs(SinglyLinkedList.empty());
+    assertThat(s.isEmpty()).isTrue();
+    assertThat(s.size()).isEqualTo(0);
+    assertThat(s.toString()).isEqualTo("[]");
+    assertThat(s.hashCode()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void peek_empty() {
+    SinglyLinkedList.empty().peek();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void pop_empty() {
+    SinglyLinkedList.empty().pop();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void peek_too_deep() {
+    SinglyLinkedList.<String>empty().push("a").peek(1);
+  }
+
+  @Test
+  public void test() {
+    PStack<String> s0 = SinglyLinkedList.empty();
+    PStack<String> s1 = s0.push("a");
+    PStack<String> s2 = s1.push("b");
+    PStack<String> s3 = s1.push("c");
+
+    assertThat(s0.isEmpty()).isTrue();
+    assertThat(s1.size()).isEqualTo(1);
+    assertThat(s1.peek()).isEqualTo("a");
+    assertThat(s2.size()).isEqualTo(2);
+    assertThat(s2.peek()).isEqualTo("b");
+    assertThat(s2.peek(1)).isEqualTo("a");
+    assertThat(s3.peek()).isEqualTo("c");
+
+    assertThat(s2.pop()).isSameAs(s1);
+    assertThat(s3.pop()).isSameAs(s1);
+    assertThat(s1.pop()).isSameAs(s0);
+
+    assertThat(s2.toString()).isEqualTo("[b, a]");
+
+    final List<String> elements = new ArrayList<>();
+    s2.forEach(new PSet.Consumer<String>() {
+      @Override
+      public void accept(String element) {
+        elements.add(element);
+      }
+    });
+    assertThat(elements).containsExactly("b", "a");
+  }
+
+  @Test
+  public void test_equality() {
+    PStack<String> s0 = SinglyLinkedList.empty();
+    PStack<String> s1 = s0.push("a").push("b");
+    PStack<String> s2 = s0.push("a").push("b");
+    PStack<String> s3 = s0.push("b").push("a");
+
+    assertThat(s1).isEqualTo(s2);
+    assertThat(s1.hashCode()).isEqualTo(s2.hashCode());
+    assertThat(s1).isNotEqualTo(s3);
+    assertThat(s1).isNotEqualTo(s1.pop());
+    assertThat(s1).isNotEqualTo(s0);
+    assertThat(s1).isNotEqualTo(null);
+    assertThat(s1.push("c")).isEqualTo(s2.push("c"));
+  }
+
+}
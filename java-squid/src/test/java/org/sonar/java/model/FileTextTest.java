@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.model;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+import java.io.File;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FileTextTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void line_starts() {
+    FileText text = new FileText("a\nbc\r\nd\re");
+    assertThat(text.lineCount()).isEqualTo(4);
+    assertThat(text.lineStart(1)).isEqualTo(0);
+    assertThat(text.lineStart(2)).isEqualTo(2);
+    assertThat(text.lineStart(3)).isEqualTo(6);
+    assertThat(text.lineStart(4)).isEqualTo(8);
+    assertThat(text.offset(2, 1)).isEqualTo(3);
+    assertThat(text.lines()).containsExactly("a", "bc", "d", "e");
+  }
+
+  @Test
+  public void lines_as_read_from_files() throws Exception {
+    String[] contents = {"", "a", "a\n", "a\r\n", "\n", "\r\n\r\n", "a\n\nb\r", "a\rb\r\n"};
+    for (String content : contents) {
+      File file = temp.newFile();
+      Files.write(content, file, Charsets.UTF_8);
+      FileText text = FileText.load(file, Charsets.UTF_8);
+      assertThat(text.content()).isEqualTo(content);
+      assertThat(text.lines()).isEqualTo(Files.readLines(file, Charsets.UTF_8));
+      assertThat(text.lineCount()).isEqualTo(content.split("(\r)?\n|\r", -1).length);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void line_out_of_file() {
+    new FileText("a\nb").lineStart(3);
+  }
+
+  @Test
+  public void text_of_context() throws Exception {
+    FileText text = new FileText("class A {}");
+    DefaultJavaFileScannerContext defaultContext = new DefaultJavaFileScannerContext(null, null, new File("A.java"), null, false, null, null, true, text, Charsets.UTF_8);
+    assertThat(FileText.of(defaultContext, Charsets.UTF_8)).isSameAs(text);
+    assertThat(defaultContext.getFileContent()).isEqualTo("class A {}");
+    assertThat(defaultContext.getFileLines()).containsExactly("class A {}");
+
+    File file = temp.newFile();
+    Files.write("class \u00C9 {}", file, Charsets.ISO_8859_1);
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.getFile()).thenReturn(file);
+    assertThat(FileText.of(context, Charsets.ISO_8859_1).content()).isEqualTo("class \u00C9 {}");
+  }
+
+  @Test
+  public void text_of_context_is_read_with_charset_of_files() throws Exception {
+    File file = temp.newFile();
+    Files.write("class \u00C9 {}", file, Charsets.UTF_16);
+    DefaultJavaFileScannerContext context = new DefaultJavaFileScannerContext(null, null, file, null, false, null, null, true, null, Charsets.UTF_16);
+    assertThat(context.getFileContent()).isEqualTo("class \u00C9 {}");
+  }
+
+  @Test
+  public void text_of_context_is_read_again_with_other_charset() throws Exception {
+    File file = temp.newFile();
+    Files.write("class \u00C9 {}", file, Charsets.ISO_8859_1);
+    FileText text = new FileText("class A {}");
+    DefaultJavaFileScannerContext context = new DefaultJavaFileScannerContext(null, null, file, null, false, null, null, true, text, Charsets.UTF_8);
+    assertThat(FileText.of(context, Charsets.ISO_8859_1).content()).isEqualTo("class \u00C9 {}");
+    assertThat(context.getFileContent()).isEqualTo("class A {}");
+  }
+
+}
@@ -26,9 +26,14 @@ import com.sonar.sslr.api.RecognitionException;
 import org.junit.Test;
 import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.ast.visitors.VisitorContext;
+import org.sonar.java.se.CheckerContext;
+import org.sonar.java.se.ProgramState;
+import org.sonar.java.se.SymbolicExecutionConfiguration;
+import org.sonar.java.se.checks.SECheck;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.ThreadSafeVisitor;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
@@ -108,6 +113,85 @@ public class InternalVisitorsBridgeTest {
     checkFile(contstructFileName("org", "foo", "bar", "Foo.java"), "class Foo { arrrrrrgh", visitorsBridgeWithParsingIssue);
   }
 
+  @Test
+  public void subscription_visitors_are_dispatched_in_one_visit() {
+    final List<String> events = Lists.newArrayList();
+    List<JavaFileScanner> scanners = ImmutableList.<JavaFileScanner>of(new EventsVisitor("first", events), new JavaFileScanner() {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        events.add("scanner");
+      }
+    }, new EventsVisitor("second", events));
+    InternalVisitorsBridge visitorsBridge = new InternalVisitorsBridge(scanners, Lists.<File>newArrayList(), null, false);
+    visitorsBridge.setContext(context);
+    checkFile(contstructFileName("org", "foo", "bar", "Foo.java"), "class Foo { void a() {} void b() {} }", visitorsBridge);
+    assertThat(events).containsExactly("first a", "second a", "first b", "second b", "scanner");
+  }
+
+  @Test
+  public void symbolic_execution_checks_are_registered_per_bridge() {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    MethodInvocationCounter check = new MethodInvocationCounter();
+    InternalVisitorsBridge mainBridge = new InternalVisitorsBridge(Collections.singletonList(check), Lists.<File>newArrayList(), null, true);
+    mainBridge.setSymbolicExecutionConfiguration(configuration);
+    InternalVisitorsBridge testBridge = new InternalVisitorsBridge(Collections.emptyList(), Lists.<File>newArrayList(), null, true);
+    testBridge.setSymbolicExecutionConfiguration(configuration);
+    assertThat(configuration.checks()).isEmpty();
+
+    String code = "class Foo { void a() { b(); } void b() {} }";
+    testBridge.setContext(context);
+    checkFile(contstructFileName("org", "foo", "Foo.java"), code, testBridge);
+    assertThat(check.invocations).isEqualTo(0);
+
+    mainBridge.setContext(context);
+    checkFile(contstructFileName("org", "foo", "Foo.java"), code, mainBridge);
+    assertThat(check.invocations).isEqualTo(1);
+  }
+
+  /**
+   * Shared by the explorations, which all run on the thread of the test, for its counter to sum their invocations.
+   */
+  private static class MethodInvocationCounter extends SECheck implements JavaFileScanner, ThreadSafeVisitor {
+    private int invocations = 0;
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+      invocations++;
+      return context.getState();
+    }
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      // issues are counted by the exploration
+    }
+  }
+
+  private static class EventsVisitor extends IssuableSubscriptionVisitor {
+    private final String name;
+    private final List<String> events;
+
+    EventsVisitor(String name, List<String> events) {
+      this.name = name;
+      this.events = events;
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.METHOD);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      assertThat(context.getSemanticModel()).isNotNull();
+      events.add(name + " " + ((MethodTree) tree).simpleName().name());
+    }
+  }
+
   private void checkFile(String filename, String code, InternalVisitorsBridge visitorsBridge) {
     context.setFile(new File(filename));
     visitorsBridge.visitFile(parse(code));
@@ -29,6 +29,7 @@ import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.List;
@@ -78,6 +79,30 @@ public class SyntacticEquivalenceTest {
     assertThat(SyntacticEquivalence.areEquivalent(notImplementedTree, new JavaTree.NotImplementedTreeImpl())).isFalse();
   }
 
+  @Test
+  public void hash_of_equivalent_trees() {
+    List<List<StatementTree>> bodies = bodies("foo(a, b);", "foo( a,b ) /* comment */ ;", "foo(a, c);", "foo(a);");
+    assertThat(SyntacticEquivalence.hash(bodies.get(0))).isEqualTo(SyntacticEquivalence.hash(bodies.get(1)));
+    assertThat(SyntacticEquivalence.hash(bodies.get(0).get(0))).isEqualTo(SyntacticEquivalence.hash(bodies.get(1).get(0)));
+    assertThat(SyntacticEquivalence.hash(bodies.get(0).get(0))).isNotEqualTo(SyntacticEquivalence.hash(bodies.get(2).get(0)));
+    assertThat(SyntacticEquivalence.hash(bodies.get(0).get(0))).isNotEqualTo(SyntacticEquivalence.hash(bodies.get(3).get(0)));
+    assertThat(SyntacticEquivalence.hash((Tree) null)).isEqualTo(0);
+    assertThat(SyntacticEquivalence.hash(new JavaTree.NotImplementedTreeImpl())).isNotEqualTo(0);
+  }
+
+  private List<List<StatementTree>> bodies(String... methodBodies) {
+    StringBuilder code = new StringBuilder("class A {");
+    for (String methodBody : methodBodies) {
+      code.append(" void m() { ").append(methodBody).append(" }");
+    }
+    ClassTree classTree = (ClassTree) compilationUnitTree(code.append(" }").toString()).types().get(0);
+    List<List<StatementTree>> result = Lists.newArrayList();
+    for (Tree member : classTree.members()) {
+      result.add(((MethodTree) member).block().body());
+    }
+    return result;
+  }
+
   private void assertAreEquivalent(String statement1, String statement2) {
     assertAreEquivalent(Lists.newArrayList(statement1), Lists.newArrayList(statement2));
   }
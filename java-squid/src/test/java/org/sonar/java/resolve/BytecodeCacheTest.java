@@ -0,0 +1,124 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+
+import java.io.File;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BytecodeCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final BytecodeCache bytecodeCache = new BytecodeCache(Lists.newArrayList(new File("target/test-classes"), new File("target/classes")));
+
+  @After
+  public void tearDown() {
+    bytecodeCache.close();
+  }
+
+  @Test
+  public void class_files_are_read_once() {
+    ClassReader classReader = bytecodeCache.classReader("org/sonar/java/resolve/targets/HasInnerClass");
+    assertThat(classReader).isNotNull();
+    assertThat(classReader.getClassName()).isEqualTo("org/sonar/java/resolve/targets/HasInnerClass");
+    assertThat(bytecodeCache.classReader("org/sonar/java/resolve/targets/HasInnerClass")).isSameAs(classReader);
+  }
+
+  @Test
+  public void least_recently_used_class_files_are_released() {
+    BytecodeCache boundedCache = new BytecodeCache(bytecodeCache.classpath(), 1);
+    ClassReader classReader = boundedCache.classReader("org/sonar/java/resolve/targets/HasInnerClass");
+    assertThat(boundedCache.classReader("org/sonar/java/resolve/targets/HasInnerClass")).isSameAs(classReader);
+    assertThat(boundedCache.classReader("org/sonar/java/resolve/targets/DeprecatedClass")).isNotNull();
+    ClassReader reloaded = boundedCache.classReader("org/sonar/java/resolve/targets/HasInnerClass");
+    assertThat(reloaded).isNotSameAs(classReader);
+    assertThat(reloaded.getClassName()).isEqualTo("org/sonar/java/resolve/targets/HasInnerClass");
+    boundedCache.close();
+  }
+
+  @Test
+  public void classes_of_jdk_take_precedence_over_classpath() throws Exception {
+    File classpathDirectory = temporaryFolder.newFolder();
+    File fakeObject = new File(classpathDirectory, "java/lang/Object.class");
+    Files.createParentDirs(fakeObject);
+    Files.copy(new File("target/test-classes/org/sonar/java/resolve/targets/HasInnerClass.class"), fakeObject);
+    BytecodeCache cache = new BytecodeCache(Lists.newArrayList(classpathDirectory));
+    assertThat(cache.contains("java/lang/Object")).isTrue();
+    assertThat(cache.classReader("java/lang/Object").getClassName()).isEqualTo("java/lang/Object");
+    cache.close();
+  }
+
+  @Test
+  public void missing_classes() {
+    assertThat(bytecodeCache.classReader("org/sonar/Unknown")).isNull();
+    assertThat(bytecodeCache.contains("org/sonar/Unknown")).isFalse();
+    assertThat(bytecodeCache.contains("org/sonar/java/resolve/targets/HasInnerClass")).isTrue();
+  }
+
+  @Test
+  public void classes_of_packages_missing_from_index_are_not_read() {
+    bytecodeCache.setPackageIndex(new PackageIndex(bytecodeCache.classpath(), ImmutableSet.of("org/sonar/java/resolve/targets", "java/lang"), true));
+    assertThat(bytecodeCache.contains("org/sonar/java/resolve/targets/HasInnerClass")).isTrue();
+    assertThat(bytecodeCache.contains("org/sonar/java/resolve/BytecodeCacheTest")).isFalse();
+    assertThat(bytecodeCache.contains("java/lang/Object")).isTrue();
+    bytecodeCache.setPackageIndex(null);
+    assertThat(bytecodeCache.contains("org/sonar/java/resolve/BytecodeCacheTest")).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void index_should_cover_classpath() {
+    bytecodeCache.setPackageIndex(PackageIndex.create(ImmutableList.of(new File("target/classes"))));
+  }
+
+  @Test
+  public void cache_can_be_used_after_close() {
+    ClassReader classReader = bytecodeCache.classReader("org/sonar/java/resolve/targets/HasInnerClass");
+    bytecodeCache.close();
+    ClassReader reloaded = bytecodeCache.classReader("org/sonar/java/resolve/targets/HasInnerClass");
+    assertThat(reloaded).isNotNull();
+    assertThat(reloaded).isNotSameAs(classReader);
+  }
+
+  @Test
+  public void semantic_models_share_cache() {
+    BytecodeCompleter first = new BytecodeCompleter(bytecodeCache, new ParametrizedTypeCache());
+    new Symbols(first);
+    BytecodeCompleter second = new BytecodeCompleter(bytecodeCache, new ParametrizedTypeCache());
+    new Symbols(second);
+    JavaSymbol.TypeJavaSymbol firstSymbol = first.getClassSymbol("org/sonar/java/resolve/targets/HasInnerClass");
+    JavaSymbol.TypeJavaSymbol secondSymbol = second.getClassSymbol("org/sonar/java/resolve/targets/HasInnerClass");
+    first.done();
+    assertThat(firstSymbol).isNotSameAs(secondSymbol);
+    assertThat(secondSymbol.getSuperclass().fullyQualifiedName()).isEqualTo("java.lang.Object");
+  }
+
+}
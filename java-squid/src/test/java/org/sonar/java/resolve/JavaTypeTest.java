@@ -95,6 +95,11 @@ public class JavaTypeTest {
     assertThat(arrayType.is("org.foo.bar.MyType[]")).isTrue();
     assertThat(arrayType.is("org.foo.bar.MyType")).isFalse();
     assertThat(arrayType.is("org.foo.bar.SomeClass[]")).isFalse();
+    assertThat(arrayType.is("org.foo.bar.MyType[][]")).isFalse();
+    assertThat(arrayType.is("[]")).isFalse();
+    assertThat(new JavaType.ArrayJavaType(arrayType, symbols.arrayClass).is("org.foo.bar.MyType[][]")).isTrue();
+    assertThat(new JavaType.ArrayJavaType(symbols.intType, symbols.arrayClass).is("int[]")).isTrue();
+    assertThat(new JavaType.ArrayJavaType(symbols.intType, symbols.arrayClass).is("int[][]")).isFalse();
     assertThat(symbols.nullType.is("org.foo.bar.SomeClass")).isTrue();
     assertThat(symbols.unknownType.is("org.foo.bar.SomeClass")).isFalse();
   }
@@ -177,6 +182,26 @@ public class JavaTypeTest {
     assertThat(Symbols.unknownType.isSubtypeOf(symbols.objectType)).isFalse();
   }
 
+  @Test
+  public void supertypes_are_cached() {
+    JavaSymbol.PackageJavaSymbol packageSymbol = new JavaSymbol.PackageJavaSymbol("org.foo.bar", null);
+    JavaSymbol.TypeJavaSymbol typeSymbol = new JavaSymbol.TypeJavaSymbol(Flags.PUBLIC, "MyType", packageSymbol);
+    JavaType.ClassJavaType classType = (JavaType.ClassJavaType) typeSymbol.type;
+    classType.supertype = symbols.objectType;
+    classType.interfaces = Lists.newArrayList();
+
+    assertThat(typeSymbol.getFullyQualifiedName()).isSameAs(typeSymbol.getFullyQualifiedName());
+    assertThat(typeSymbol.superTypes()).isSameAs(typeSymbol.superTypes());
+    assertThat(typeSymbol.superTypeNames()).containsOnly("java.lang.Object");
+    assertThat(classType.isSubtypeOf("java.lang.Cloneable")).isFalse();
+
+    classType.interfaces = Lists.newArrayList(symbols.cloneableType);
+    assertThat(classType.isSubtypeOf("java.lang.Cloneable")).isFalse();
+    typeSymbol.resetSuperTypes();
+    assertThat(classType.isSubtypeOf("java.lang.Cloneable")).isTrue();
+    assertThat(classType.isSubtypeOf(symbols.cloneableType)).isTrue();
+  }
+
   @Test
   public void is_primitive_wrapper() {
     for (JavaType wrapper : symbols.boxedTypes.values()) {
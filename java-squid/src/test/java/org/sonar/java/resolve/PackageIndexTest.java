@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PackageIndexTest {
+
+  private final List<File> classpath = ImmutableList.of(new File("src/test/files/bytecode/lib/hello.jar"), new File("src/test/files/bytecode/bin/"));
+
+  @Test
+  public void packages_of_classpath() {
+    PackageIndex packageIndex = PackageIndex.create(classpath, "");
+    assertThat(packageIndex.mayContainClassesOf("org/sonar/tests")).isTrue();
+    assertThat(packageIndex.mayContainClassesOf("tags")).isTrue();
+    assertThat(packageIndex.mayContainClassesOf("org/sonar")).isFalse();
+    assertThat(packageIndex.mayContainClassesOf("")).isFalse();
+    assertThat(packageIndex.mayContainClassesOf("java/lang")).isFalse();
+  }
+
+  @Test
+  public void packages_of_boot_class_path() {
+    PackageIndex packageIndex = PackageIndex.create(ImmutableList.<File>of(), new File("src/test/files/bytecode/lib/hello.jar").getPath());
+    assertThat(packageIndex.mayContainClassesOf("org/sonar/tests")).isTrue();
+    assertThat(packageIndex.mayContainClassesOf("tags")).isFalse();
+  }
+
+  @Test
+  public void any_package_may_belong_to_jdk_when_boot_class_path_is_unknown() {
+    PackageIndex packageIndex = PackageIndex.create(classpath, null);
+    assertThat(packageIndex.mayContainClassesOf("org/sonar/tests")).isTrue();
+    assertThat(packageIndex.mayContainClassesOf("org/sonar")).isTrue();
+  }
+
+  @Test
+  public void covers_classpath() {
+    PackageIndex packageIndex = PackageIndex.create(classpath);
+    assertThat(packageIndex.covers(classpath)).isTrue();
+    assertThat(packageIndex.covers(classpath.subList(0, 1))).isTrue();
+    assertThat(packageIndex.covers(ImmutableList.of(new File("target/classes")))).isFalse();
+  }
+
+}
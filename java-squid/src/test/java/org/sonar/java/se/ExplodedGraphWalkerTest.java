@@ -19,8 +19,10 @@
  */
 package org.sonar.java.se;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import org.junit.Test;
+import org.sonar.check.RuleProperty;
 import org.sonar.java.model.DefaultJavaFileScannerContext;
 import org.sonar.java.se.checks.ConditionAlwaysTrueOrFalseCheck;
 import org.sonar.java.se.checks.LocksNotUnlockedCheck;
@@ -30,11 +32,20 @@ import org.sonar.java.se.checks.UnclosedResourcesCheck;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.ThreadSafeVisitor;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
-import static org.fest.assertions.Fail.fail;
+import static org.fest.assertions.Assertions.assertThat;
 
   public class ExplodedGraphWalkerTest {
 
@@ -49,22 +60,221 @@ import static org.fest.assertions.Fail.fail;
 
   @Test
   public void test2() throws Exception {
-    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor() {
+    SymbolicExecutionMetrics metrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor(new SymbolicExecutionConfiguration(), metrics));
+    assertThat(metrics.methods()).isGreaterThan(0);
+    assertThat(metrics.exhaustedMethods()).as("loop execution should be limited").isEqualTo(0);
+  }
+
+  @Test
+  public void exploration_strategies() throws Exception {
+    for (ExplorationStrategy strategy : ExplorationStrategy.values()) {
+      SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+      configuration.setExplorationStrategy(strategy);
+      SymbolicExecutionMetrics metrics = new SymbolicExecutionMetrics();
+      JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", new IssueVisitor(new SymbolicExecutionVisitor(configuration, metrics)));
+      assertThat(metrics.exhaustedMethods()).as(strategy.name()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void hash_trie_program_states() throws Exception {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    configuration.setEmptyState(ProgramState.EMPTY_HASH_TRIE_STATE);
+    SymbolicExecutionMetrics metrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", new IssueVisitor(new SymbolicExecutionVisitor(configuration, metrics)));
+    assertThat(metrics.exhaustedMethods()).isEqualTo(0);
+  }
+
+  @Test
+  public void cleanup_of_dead_values() throws Exception {
+    SymbolicExecutionMetrics defaultMetrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", new IssueVisitor(new SymbolicExecutionVisitor(new SymbolicExecutionConfiguration(), defaultMetrics)));
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    configuration.setCleanupDeadValues(true);
+    SymbolicExecutionMetrics cleanupMetrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", new IssueVisitor(new SymbolicExecutionVisitor(configuration, cleanupMetrics)));
+    assertThat(cleanupMetrics.methods()).isEqualTo(defaultMetrics.methods());
+    assertThat(cleanupMetrics.exhaustedMethods()).isEqualTo(0);
+    assertThat(cleanupMetrics.steps()).isLessThanOrEqualTo(defaultMetrics.steps());
+  }
+
+  @Test
+  public void registered_checks_are_called_for_their_kinds() throws Exception {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    configuration.addCheck(new MethodInvocationCheck());
+    configuration.addCheck(new NullDereferenceCheck());
+    final SymbolicExecutionVisitor visitor = new SymbolicExecutionVisitor(configuration, new SymbolicExecutionMetrics());
+    final List<Tree> reported = new ArrayList<>();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new JavaFileScanner() {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        visitor.scanFile(context);
+        reported.addAll(((DefaultJavaFileScannerContext) context).getSEIssues(MethodInvocationCheck.class).keys());
+      }
+    });
+    assertThat(reported).isNotEmpty();
+    for (Tree tree : reported) {
+      assertThat(tree.is(Tree.Kind.METHOD_INVOCATION)).isTrue();
+    }
+  }
+
+  public static class MethodInvocationCheck extends SECheck {
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+      context.reportIssue(syntaxNode, this, "Method invocation");
+      return context.getState();
+    }
+  }
+
+  @Test
+  public void post_statement_checks_are_called_on_transitions_of_previous_checks() throws Exception {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    configuration.addCheck(new ConstraintOfInvocationCheck());
+    final SymbolicExecutionVisitor visitor = new SymbolicExecutionVisitor(configuration, new SymbolicExecutionMetrics());
+    final Set<String> reported = new TreeSet<>();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/PostStatementChecks.java", new JavaFileScanner() {
       @Override
-      public void visitNode(Tree tree) {
-        try {
-          tree.accept(new ExplodedGraphWalker(context));
-        }catch (ExplodedGraphWalker.MaximumStepsReachedException exception) {
-          fail("loop execution should be limited");
-        }
+      public void scanFile(JavaFileScannerContext context) {
+        visitor.scanFile(context);
+        reported.addAll(((DefaultJavaFileScannerContext) context).getSEIssues(ConstraintOfInvocationCheck.class).values());
+      }
+    });
+    // states split by NullDereferenceCheck: the state of the invocation before the split ("none") is no longer seen by following checks
+    assertThat(reported).containsOnly("NULL", "NOT_NULL");
+  }
+
+  public static class ConstraintOfInvocationCheck extends SECheck {
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    public ProgramState checkPostStatement(CheckerContext context, Tree syntaxNode) {
+      Object constraint = context.getState().getConstraint(context.getState().peekValue());
+      context.reportIssue(syntaxNode, this, constraint == null ? "none" : constraint.toString());
+      return super.checkPostStatement(context, syntaxNode);
+    }
+  }
 
+  @Test
+  public void checks_which_are_not_thread_safe_are_instantiated_for_each_exploration() throws Exception {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    InstanceCheck instanceCheck = new InstanceCheck();
+    instanceCheck.prefix = "configured";
+    ThreadSafeInstanceCheck threadSafeCheck = new ThreadSafeInstanceCheck();
+    configuration.addCheck(instanceCheck);
+    configuration.addCheck(threadSafeCheck);
+    configuration.addCheck(new NoDefaultConstructorCheck("unused"));
+    assertThat(configuration.checks()).containsOnly(instanceCheck, threadSafeCheck);
+
+    final SymbolicExecutionVisitor visitor = new SymbolicExecutionVisitor(configuration, new SymbolicExecutionMetrics());
+    final Set<String> instances = new TreeSet<>();
+    final Set<String> threadSafeInstances = new TreeSet<>();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new JavaFileScanner() {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        visitor.scanFile(context);
+        instances.addAll(((DefaultJavaFileScannerContext) context).getSEIssues(InstanceCheck.class).values());
+        threadSafeInstances.addAll(((DefaultJavaFileScannerContext) context).getSEIssues(ThreadSafeInstanceCheck.class).values());
       }
     });
+    assertThat(instances).isNotEmpty().excludes(instanceCheck.instance());
+    for (String instance : instances) {
+      assertThat(instance).startsWith("configured@");
+    }
+    assertThat(threadSafeInstances).containsOnly(threadSafeCheck.instance());
+  }
+
+  public static class InstanceCheck extends SECheck {
+
+    @RuleProperty(key = "prefix")
+    String prefix = "default";
+
+    String instance() {
+      return prefix + "@" + System.identityHashCode(this);
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    public ProgramState checkPreStatement(CheckerContext context, Tree syntaxNode) {
+      context.reportIssue(syntaxNode, this, instance());
+      return context.getState();
+    }
+  }
+
+  public static class ThreadSafeInstanceCheck extends InstanceCheck implements ThreadSafeVisitor {
   }
+
+  public static class NoDefaultConstructorCheck extends SECheck {
+
+    public NoDefaultConstructorCheck(String parameter) {
+      // instances can not be created for each exploration
+    }
+  }
+
+  @Test
+  public void parallel_exploration_of_methods() throws Exception {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    SymbolicExecutionMetrics sequentialMetrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", new IssueVisitor(new SymbolicExecutionVisitor(configuration, sequentialMetrics)));
+    SymbolicExecutionMetrics parallelMetrics = new SymbolicExecutionMetrics();
+    ExecutorService executor = new ForkJoinPool(4);
+    try {
+      JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", new IssueVisitor(new SymbolicExecutionVisitor(configuration, parallelMetrics, executor)));
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(parallelMetrics.methods()).isEqualTo(sequentialMetrics.methods());
+    assertThat(parallelMetrics.steps()).isEqualTo(sequentialMetrics.steps());
+  }
+
+  @Test
+  public void exploration_stops_when_budget_is_exhausted() throws Exception {
+    SymbolicExecutionConfiguration configuration = new SymbolicExecutionConfiguration();
+    configuration.setMaxSteps(5);
+    SymbolicExecutionMetrics metrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor(configuration, metrics));
+    assertThat(metrics.exhaustedMethods()).isGreaterThan(0);
+    assertThat(metrics.maxStepsOfMethod()).isEqualTo(5);
+
+    configuration = new SymbolicExecutionConfiguration();
+    configuration.setMaxNodes(5);
+    metrics = new SymbolicExecutionMetrics();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor(configuration, metrics));
+    assertThat(metrics.exhaustedMethods()).isGreaterThan(0);
+  }
+
   class IssueVisitor implements JavaFileScanner {
 
+    @Nullable
+    private final SymbolicExecutionVisitor symbolicExecutionVisitor;
+
+    IssueVisitor() {
+      this(null);
+    }
+
+    IssueVisitor(@Nullable SymbolicExecutionVisitor symbolicExecutionVisitor) {
+      this.symbolicExecutionVisitor = symbolicExecutionVisitor;
+    }
+
     @Override
     public void scanFile(JavaFileScannerContext context) {
+      if (symbolicExecutionVisitor != null) {
+        symbolicExecutionVisitor.scanFile(context);
+      }
       reportIssuesFor(context, new NullDereferenceCheck());
       reportIssuesFor(context, new ConditionAlwaysTrueOrFalseCheck());
       reportIssuesFor(context, new UnclosedResourcesCheck());
@@ -22,6 +22,7 @@ package org.sonar.java.syntaxtoken;
 import com.google.common.base.Charsets;
 import org.junit.Test;
 import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.JavaTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
@@ -600,6 +601,15 @@ public class FirstSyntaxTokenFinderTest {
     assertFirstStatementFirstTokenValue(p, "HashSet");
   }
 
+  @Test
+  public void token_is_cached_on_trees() {
+    MethodTree method = getFirstMethod(getCompilationUnit("class Foo { @Deprecated int foo(int a) { return a + 1; } }"));
+    SyntaxToken token = getFirstSyntaxToken(method);
+    assertThat(token).isSameAs(((JavaTree) method).firstToken());
+    assertThat(getFirstSyntaxToken(method)).isSameAs(token);
+    assertThat(FirstSyntaxTokenFinder.computeFirstSyntaxToken(method)).isSameAs(token);
+  }
+
   @Test
   public void syntax_token() {
     String p = "class Foo {}";
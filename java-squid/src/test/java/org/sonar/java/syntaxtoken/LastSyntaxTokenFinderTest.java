@@ -23,6 +23,7 @@ import com.google.common.base.Charsets;
 import org.junit.Test;
 import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.model.InternalSyntaxToken;
+import org.sonar.java.model.JavaTree;
 import org.sonar.plugins.java.api.tree.CaseGroupTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
@@ -681,6 +682,15 @@ public class LastSyntaxTokenFinderTest {
     assertLastStatementlastTokenValue(p, "new");
   }
 
+  @Test
+  public void token_is_cached_on_trees() {
+    MethodTree method = getFirstMethod(getCompilationUnit("class Foo { @Deprecated int foo(int a) { return a + 1; } }"));
+    SyntaxToken token = getLastSyntaxToken(method);
+    assertThat(token).isSameAs(((JavaTree) method).lastToken());
+    assertThat(getLastSyntaxToken(method)).isSameAs(token);
+    assertThat(LastSyntaxTokenFinder.computeLastSyntaxToken(method)).isSameAs(token);
+  }
+
   @Test
   public void syntax_token() {
     String p = "class Foo {}";
@@ -31,6 +31,8 @@ import org.sonar.java.JavaClasspathProperties;
 import org.sonar.java.JavaTestClasspath;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.filters.SuppressWarningsFilter;
+import org.sonar.java.se.ExplorationStrategy;
+import org.sonar.java.se.SymbolicExecutionConfiguration;
 import org.sonar.plugins.jacoco.JaCoCoExtensions;
 import org.sonar.plugins.surefire.SurefireExtensions;
 
@@ -44,6 +46,29 @@ public class JavaPlugin extends SonarPlugin {
   public static final String SQUID_ANALYSE_ACCESSORS_PROPERTY = "sonar.squid.analyse.property.accessors";
   public static final boolean SQUID_ANALYSE_ACCESSORS_DEFAULT_VALUE = true;
 
+  public static final String ANALYSIS_THREADS_PROPERTY = "sonar.java.analysis.threads";
+  public static final int ANALYSIS_THREADS_DEFAULT_VALUE = 1;
+
+  public static final String SYMBOLIC_EXECUTION_THREADS_PROPERTY = "sonar.java.se.threads";
+  public static final int SYMBOLIC_EXECUTION_THREADS_DEFAULT_VALUE = 1;
+
+  public static final String SYMBOLIC_EXECUTION_MAX_STEPS_PROPERTY = "sonar.java.se.maxSteps";
+  public static final String SYMBOLIC_EXECUTION_MAX_NODES_PROPERTY = "sonar.java.se.maxNodes";
+
+  public static final String SYMBOLIC_EXECUTION_STRATEGY_PROPERTY = "sonar.java.se.strategy";
+  public static final String SYMBOLIC_EXECUTION_STRATEGY_DEFAULT_VALUE = ExplorationStrategy.DEPTH_FIRST.name();
+
+  public static final String SYMBOLIC_EXECUTION_CLEANUP_PROPERTY = "sonar.java.se.cleanupDeadValues";
+  public static final boolean SYMBOLIC_EXECUTION_CLEANUP_DEFAULT_VALUE = false;
+
+  public static final String ANALYSIS_CACHE_PROPERTY = "sonar.java.analysis.cache";
+  public static final boolean ANALYSIS_CACHE_DEFAULT_VALUE = false;
+  public static final String ANALYSIS_CACHE_PATH_PROPERTY = "sonar.java.analysis.cache.path";
+  public static final String ANALYSIS_CACHE_PATH_DEFAULT_VALUE = ".sonar-java-cache";
+
+  public static final String SPARSE_DSM_PROPERTY = "sonar.java.design.sparseMatrix";
+  public static final boolean SPARSE_DSM_DEFAULT_VALUE = false;
+
   @Override
   public List getExtensions() {
     ImmutableList.Builder<Object> builder = ImmutableList.builder();
@@ -74,6 +99,85 @@ public class JavaPlugin extends SonarPlugin {
             .type(PropertyType.BOOLEAN)
             .onQualifiers(Qualifiers.PROJECT)
             .build(),
+        PropertyDefinition.builder(JavaPlugin.ANALYSIS_THREADS_PROPERTY)
+            .defaultValue(Integer.toString(JavaPlugin.ANALYSIS_THREADS_DEFAULT_VALUE))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Analysis threads")
+            .description("Number of threads used to scan Java files. Checks which are not thread-safe are instantiated once per thread.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.SYMBOLIC_EXECUTION_THREADS_PROPERTY)
+            .defaultValue(Integer.toString(JavaPlugin.SYMBOLIC_EXECUTION_THREADS_DEFAULT_VALUE))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Symbolic execution threads")
+            .description("Number of threads exploring the methods of a file concurrently during symbolic execution.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.SYMBOLIC_EXECUTION_MAX_STEPS_PROPERTY)
+            .defaultValue(Integer.toString(SymbolicExecutionConfiguration.DEFAULT_MAX_STEPS))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Symbolic execution steps")
+            .description("Maximum number of steps of the symbolic execution of a method. " +
+                "Exploration of a method is stopped when exceeded, issues found on the explored paths being kept.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.SYMBOLIC_EXECUTION_MAX_NODES_PROPERTY)
+            .defaultValue(Integer.toString(SymbolicExecutionConfiguration.DEFAULT_MAX_NODES))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Symbolic execution nodes")
+            .description("Maximum number of states kept in memory by the symbolic execution of a method. " +
+                "Exploration of a method is stopped when exceeded, issues found on the explored paths being kept.")
+            .type(PropertyType.INTEGER)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.SYMBOLIC_EXECUTION_STRATEGY_PROPERTY)
+            .defaultValue(JavaPlugin.SYMBOLIC_EXECUTION_STRATEGY_DEFAULT_VALUE)
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Symbolic execution strategy")
+            .description("Order in which the paths of a method are explored by symbolic execution. " +
+                "TOPOLOGICAL explores all the paths reaching a point of the method before going further, so that their states can be merged.")
+            .type(PropertyType.SINGLE_SELECT_LIST)
+            .options(ExplorationStrategy.DEPTH_FIRST.name(), ExplorationStrategy.BREADTH_FIRST.name(), ExplorationStrategy.TOPOLOGICAL.name())
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.SYMBOLIC_EXECUTION_CLEANUP_PROPERTY)
+            .defaultValue(Boolean.toString(JavaPlugin.SYMBOLIC_EXECUTION_CLEANUP_DEFAULT_VALUE))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Symbolic execution cleanup of dead values")
+            .description("Flag whether values of variables which are no longer used should be removed from the states of symbolic execution, " +
+                "so that states differing only by such values are merged.")
+            .type(PropertyType.BOOLEAN)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.ANALYSIS_CACHE_PROPERTY)
+            .defaultValue(Boolean.toString(JavaPlugin.ANALYSIS_CACHE_DEFAULT_VALUE))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Analysis cache")
+            .description("Flag whether issues raised on files which did not change since previous analysis should be read from a cache, " +
+                "instead of executing rules again on those files. Only the execution of rules is skipped: all files are still parsed and " +
+                "their symbols resolved, and class files of the directories of the classpath are hashed on each analysis.")
+            .type(PropertyType.BOOLEAN)
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
+        PropertyDefinition.builder(JavaPlugin.ANALYSIS_CACHE_PATH_PROPERTY)
+            .defaultValue(JavaPlugin.ANALYSIS_CACHE_PATH_DEFAULT_VALUE)
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Analysis cache path")
+            .description("Directory of the analysis cache, relative to the base directory of the project when not absolute. " +
+                "It must not be inside the working directory, which is cleaned before each analysis.")
+            .onQualifiers(Qualifiers.PROJECT)
+            .build(),
         PropertyDefinition.builder(CoreProperties.DESIGN_SKIP_DESIGN_PROPERTY)
             .defaultValue(Boolean.toString(CoreProperties.DESIGN_SKIP_DESIGN_DEFAULT_VALUE))
             .category(JAVA_CATEGORY)
@@ -82,6 +186,16 @@ public class JavaPlugin extends SonarPlugin {
             .type(PropertyType.BOOLEAN)
             .hidden()
             .build(),
+        PropertyDefinition.builder(JavaPlugin.SPARSE_DSM_PROPERTY)
+            .defaultValue(Boolean.toString(JavaPlugin.SPARSE_DSM_DEFAULT_VALUE))
+            .category(JAVA_CATEGORY)
+            .subCategory(GENERAL_SUBCATEGORY)
+            .name("Sparse dependency matrices")
+            .description("Flag whether dependency matrices should only contain their non-empty cells. " +
+                "Such matrices are smaller for large packages, but are not displayed by the dependency matrix of SonarQube.")
+            .type(PropertyType.BOOLEAN)
+            .hidden()
+            .build(),
 
         JavaRulesDefinition.class,
         JavaSonarWayProfile.class,
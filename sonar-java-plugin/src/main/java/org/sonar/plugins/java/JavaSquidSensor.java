@@ -20,6 +20,7 @@
 package org.sonar.plugins.java;
 
 import com.google.common.collect.Lists;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.CoreProperties;
@@ -42,6 +43,7 @@ import org.sonar.java.SonarComponents;
 import org.sonar.java.api.JavaUtils;
 import org.sonar.java.checks.CheckList;
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.se.ExplorationStrategy;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.bridges.DesignBridge;
 
@@ -49,6 +51,7 @@ import java.io.File;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 @Phase(name = Phase.Name.PRE)
 @DependsUpon(JavaUtils.BARRIER_BEFORE_SQUID)
@@ -92,6 +95,8 @@ public class JavaSquidSensor implements Sensor {
     boolean skipPackageDesignAnalysis = settings.getBoolean(CoreProperties.DESIGN_SKIP_PACKAGE_DESIGN_PROPERTY);
     if (!skipPackageDesignAnalysis && squid.isBytecodeScanned()) {
       DesignBridge designBridge = new DesignBridge(context, squid.getGraph(), javaResourceLocator.getResourceMapping(), sonarComponents.getResourcePerspectives());
+      designBridge.setWorkers(configuration.analysisThreads());
+      designBridge.setSparseDsm(settings.getBoolean(JavaPlugin.SPARSE_DSM_PROPERTY));
       designBridge.saveDesign(project);
     }
   }
@@ -124,12 +129,46 @@ public class JavaSquidSensor implements Sensor {
     Charset charset = fs.encoding();
     JavaConfiguration conf = new JavaConfiguration(charset);
     conf.setSeparateAccessorsFromMethods(analyzePropertyAccessors);
+    conf.setAnalysisThreads(settings.getInt(JavaPlugin.ANALYSIS_THREADS_PROPERTY));
+    conf.symbolicExecution().setParallelism(settings.getInt(JavaPlugin.SYMBOLIC_EXECUTION_THREADS_PROPERTY));
+    if (settings.hasKey(JavaPlugin.SYMBOLIC_EXECUTION_MAX_STEPS_PROPERTY)) {
+      conf.symbolicExecution().setMaxSteps(settings.getInt(JavaPlugin.SYMBOLIC_EXECUTION_MAX_STEPS_PROPERTY));
+    }
+    if (settings.hasKey(JavaPlugin.SYMBOLIC_EXECUTION_MAX_NODES_PROPERTY)) {
+      conf.symbolicExecution().setMaxNodes(settings.getInt(JavaPlugin.SYMBOLIC_EXECUTION_MAX_NODES_PROPERTY));
+    }
+    conf.symbolicExecution().setExplorationStrategy(getExplorationStrategy());
+    conf.symbolicExecution().setCleanupDeadValues(settings.getBoolean(JavaPlugin.SYMBOLIC_EXECUTION_CLEANUP_PROPERTY));
+    if (settings.getBoolean(JavaPlugin.ANALYSIS_CACHE_PROPERTY)) {
+      conf.setAnalysisCacheDirectory(getAnalysisCacheDirectory());
+    }
     JavaVersion javaVersion = getJavaVersion();
     LOG.info("Configured Java source version (" + Java.SOURCE_VERSION + "): " + javaVersion);
     conf.setJavaVersion(javaVersion);
     return conf;
   }
 
+  private File getAnalysisCacheDirectory() {
+    String path = settings.getString(JavaPlugin.ANALYSIS_CACHE_PATH_PROPERTY);
+    File directory = new File(StringUtils.defaultIfBlank(path, JavaPlugin.ANALYSIS_CACHE_PATH_DEFAULT_VALUE).trim());
+    if (!directory.isAbsolute()) {
+      directory = new File(fs.baseDir(), directory.getPath());
+    }
+    return directory;
+  }
+
+  private ExplorationStrategy getExplorationStrategy() {
+    String strategy = settings.getString(JavaPlugin.SYMBOLIC_EXECUTION_STRATEGY_PROPERTY);
+    if (strategy != null) {
+      try {
+        return ExplorationStrategy.valueOf(strategy.trim().toUpperCase(Locale.ENGLISH));
+      } catch (IllegalArgumentException e) {
+        LOG.warn("Unknown symbolic execution strategy '{}', {} is used", strategy, ExplorationStrategy.DEPTH_FIRST);
+      }
+    }
+    return ExplorationStrategy.DEPTH_FIRST;
+  }
+
   private JavaVersion getJavaVersion() {
     return JavaVersionImpl.fromString(settings.getString(Java.SOURCE_VERSION));
   }
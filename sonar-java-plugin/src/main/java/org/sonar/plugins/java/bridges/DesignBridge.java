@@ -19,6 +19,7 @@
  */
 package org.sonar.plugins.java.bridges;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,19 +44,34 @@ import org.sonar.graph.IncrementalCyclesAndFESSolver;
 import org.sonar.graph.MinimumFeedbackEdgeSetSolver;
 import org.sonar.java.bytecode.visitor.ResourceMapping;
 import org.sonar.java.checks.CycleBetweenPackagesCheck;
+import org.sonar.squidbridge.api.AnalysisException;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DesignBridge {
 
   private static final Logger LOG = LoggerFactory.getLogger(DesignBridge.class);
 
+  /**
+   * Number of packages analyzed ahead of the saving of their measures by each worker.
+   */
+  private static final int ANALYZE_AHEAD = 2;
+
   private final SensorContext context;
   private final DirectedGraph<Resource, Dependency> graph;
   private final ResourceMapping resourceMapping;
   private final ResourcePerspectives resourcePerspectives;
+  private int workers = 1;
+  private boolean sparseDsm = false;
 
   public DesignBridge(SensorContext context, DirectedGraph<Resource, Dependency> graph, ResourceMapping resourceMapping, ResourcePerspectives resourcePerspectives) {
     this.context = context;
@@ -64,6 +80,20 @@ public class DesignBridge {
     this.resourcePerspectives = resourcePerspectives;
   }
 
+  /**
+   * @param workers number of threads analyzing the design of packages
+   */
+  public void setWorkers(int workers) {
+    this.workers = Math.max(1, workers);
+  }
+
+  /**
+   * @param sparseDsm whether dependency matrices only contain their non-empty cells, see {@link DsmSerializer}
+   */
+  public void setSparseDsm(boolean sparseDsm) {
+    this.sparseDsm = sparseDsm;
+  }
+
   public void saveDesign(Project sonarProject) {
     Collection<Resource> directories = resourceMapping.directories();
     TimeProfiler profiler = new TimeProfiler(LOG).start("Package design analysis");
@@ -89,8 +119,56 @@ public class DesignBridge {
 
     profiler.stop();
 
-    for (Resource sonarPackage : directories) {
-      onPackage(sonarPackage);
+    if (workers > 1) {
+      parallelSavePackagesDesign(directories);
+    } else {
+      for (Resource sonarPackage : directories) {
+        onPackage(sonarPackage);
+      }
+    }
+  }
+
+  /**
+   * Cycles and dependency matrices of packages are computed by a pool of workers, as they only read the graph of dependencies.
+   * Measures are saved in the order of the packages. A bounded number of packages is analyzed ahead, so that their dependency matrices
+   * do not stay in memory until they are saved.
+   */
+  private void parallelSavePackagesDesign(Collection<Resource> directories) {
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    try {
+      Deque<Future<PackageDesign>> pending = new ArrayDeque<>();
+      int analyzeAhead = workers * ANALYZE_AHEAD;
+      for (final Resource sonarPackage : directories) {
+        final Collection<Resource> squidFiles = getResourcesForDirectory(sonarPackage);
+        if (!squidFiles.isEmpty()) {
+          if (pending.size() >= analyzeAhead) {
+            savePackageDesign(waitFor(pending.remove()));
+          }
+          pending.add(executor.submit(new Callable<PackageDesign>() {
+            @Override
+            public PackageDesign call() {
+              return analyzePackage(sonarPackage, squidFiles);
+            }
+          }));
+        }
+      }
+      while (!pending.isEmpty()) {
+        savePackageDesign(waitFor(pending.remove()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static PackageDesign waitFor(Future<PackageDesign> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw new AnalysisException("Package design analysis failed", e.getCause());
     }
   }
 
@@ -103,22 +181,35 @@ public class DesignBridge {
   private void onPackage(Resource sonarPackage) {
     Collection<Resource> squidFiles = getResourcesForDirectory(sonarPackage);
     if (squidFiles != null && !squidFiles.isEmpty()) {
-      IncrementalCyclesAndFESSolver<Resource> cycleDetector = new IncrementalCyclesAndFESSolver<>(graph, squidFiles);
-      Set<Cycle> cycles = cycleDetector.getCycles();
-
-      MinimumFeedbackEdgeSetSolver solver = new MinimumFeedbackEdgeSetSolver(cycles);
-      Set<Edge> feedbackEdges = solver.getEdges();
-      int tangles = solver.getWeightOfFeedbackEdgeSet();
-
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_CYCLES, cycles.size());
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_FEEDBACK_EDGES, feedbackEdges.size());
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_TANGLES, tangles);
-      savePositiveMeasure(sonarPackage, CoreMetrics.FILE_EDGES_WEIGHT, getEdgesWeight(squidFiles));
-      String dsmJson = serializeDsm(graph, squidFiles, feedbackEdges);
-      context.saveMeasure(sonarPackage, new Measure(CoreMetrics.DEPENDENCY_MATRIX, dsmJson));
+      savePackageDesign(analyzePackage(sonarPackage, squidFiles));
     }
   }
 
+  private PackageDesign analyzePackage(Resource sonarPackage, Collection<Resource> squidFiles) {
+    IncrementalCyclesAndFESSolver<Resource> cycleDetector = new IncrementalCyclesAndFESSolver<>(graph, squidFiles);
+    Set<Cycle> cycles = cycleDetector.getCycles();
+
+    MinimumFeedbackEdgeSetSolver solver = new MinimumFeedbackEdgeSetSolver(cycles);
+    Set<Edge> feedbackEdges = solver.getEdges();
+
+    PackageDesign design = new PackageDesign(sonarPackage);
+    design.cycles = cycles.size();
+    design.feedbackEdges = feedbackEdges.size();
+    design.tangles = solver.getWeightOfFeedbackEdgeSet();
+    design.edgesWeight = getEdgesWeight(squidFiles);
+    design.dsmJson = serializeDsm(graph, squidFiles, feedbackEdges);
+    return design;
+  }
+
+  private void savePackageDesign(PackageDesign design) {
+    Resource sonarPackage = design.sonarPackage;
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_CYCLES, design.cycles);
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_FEEDBACK_EDGES, design.feedbackEdges);
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_TANGLES, design.tangles);
+    savePositiveMeasure(sonarPackage, CoreMetrics.FILE_EDGES_WEIGHT, design.edgesWeight);
+    context.saveMeasure(sonarPackage, new Measure(CoreMetrics.DEPENDENCY_MATRIX, design.dsmJson));
+  }
+
   private Collection<Resource> getResourcesForDirectory(Resource sonarPackage) {
     List<Resource> result = Lists.newArrayList();
     for (Resource resource : resourceMapping.files((Directory) sonarPackage)) {
@@ -136,10 +227,10 @@ public class DesignBridge {
     return total;
   }
 
-  private static String serializeDsm(DirectedGraph<Resource, Dependency> graph, Collection<Resource> sources, Set<Edge> feedbackEdges) {
+  private String serializeDsm(DirectedGraph<Resource, Dependency> graph, Collection<Resource> sources, Set<Edge> feedbackEdges) {
     Dsm<Resource>  dsm = new Dsm<>(graph, sources, feedbackEdges);
     DsmTopologicalSorter.sort(dsm);
-    return DsmSerializer.serialize(dsm);
+    return sparseDsm ? DsmSerializer.serializeSparse(dsm) : DsmSerializer.serialize(dsm);
   }
 
   private void saveIssues(Set<Edge> feedbackEdges) {
@@ -166,5 +257,17 @@ public class DesignBridge {
     }
   }
 
+  private static class PackageDesign {
+    private final Resource sonarPackage;
+    private int cycles;
+    private int feedbackEdges;
+    private int tangles;
+    private double edgesWeight;
+    private String dsmJson;
+
+    PackageDesign(Resource sonarPackage) {
+      this.sonarPackage = sonarPackage;
+    }
+  }
 
 }
@@ -24,14 +24,34 @@ import org.sonar.api.resources.Resource;
 import org.sonar.graph.Dsm;
 import org.sonar.graph.DsmCell;
 
+/**
+ * Serializes a DSM to JSON, either in the dense format of the SonarQube dependency matrix, where every cell is written,
+ * or in a sparse format where rows only contain their non-empty cells along with their column index (<code>"x"</code>).
+ */
 public final class DsmSerializer {
 
-  private Dsm dsm;
-  private StringBuilder json;
+  /**
+   * Approximate length of a row, without its name, qualifier and cells.
+   */
+  private static final int ROW_LENGTH = 32;
+
+  private final Dsm dsm;
+  private final boolean sparse;
+  private final StringBuilder json;
 
-  private DsmSerializer(Dsm<Resource> dsm) {
+  private DsmSerializer(Dsm<Resource> dsm, boolean sparse) {
     this.dsm = dsm;
-    this.json = new StringBuilder();
+    this.sparse = sparse;
+    this.json = new StringBuilder(capacity(dsm, sparse));
+  }
+
+  /**
+   * Approximate length of the serialized DSM, known from its dimension only: the cells are not read an extra time to size the buffer.
+   */
+  private static int capacity(Dsm<Resource> dsm, boolean sparse) {
+    long dimension = dsm.getDimension();
+    long rowLength = sparse ? ROW_LENGTH : (ROW_LENGTH + dimension * "{},".length());
+    return (int) Math.min(2 + dimension * rowLength, Integer.MAX_VALUE - 8);
   }
 
   private String serialize() {
@@ -62,30 +82,64 @@ public final class DsmSerializer {
       json.append("\",\"q\":\"");
       json.append(sonarResource.getQualifier());
       json.append("\",\"v\":[");
-      for (int x = 0; x < dsm.getDimension(); x++) {
-        if (x > 0) {
-          json.append(',');
-        }
-        serializeCell(y, x);
+      if (sparse) {
+        serializeNonEmptyCells(y);
+      } else {
+        serializeCells(y);
       }
       json.append("]");
     }
     json.append("}");
   }
 
-  private void serializeCell(int y, int x) {
-    DsmCell cell = dsm.getCell(x, y);
-    json.append('{');
-    if (cell.getEdge() != null && cell.getWeight() > 0) {
-      json.append("\"i\":");
-      json.append(((Dependency) cell.getEdge()).getId());
-      json.append(",\"w\":");
-      json.append(cell.getWeight());
+  private void serializeCells(int y) {
+    for (int x = 0; x < dsm.getDimension(); x++) {
+      if (x > 0) {
+        json.append(',');
+      }
+      DsmCell cell = dsm.getCell(x, y);
+      json.append('{');
+      if (isNotEmpty(cell)) {
+        serializeCell(cell);
+      }
+      json.append('}');
     }
-    json.append('}');
+  }
+
+  private void serializeNonEmptyCells(int y) {
+    boolean first = true;
+    for (int x = 0; x < dsm.getDimension(); x++) {
+      DsmCell cell = dsm.getCell(x, y);
+      if (isNotEmpty(cell)) {
+        if (!first) {
+          json.append(',');
+        }
+        first = false;
+        json.append("{\"x\":");
+        json.append(x);
+        json.append(',');
+        serializeCell(cell);
+        json.append('}');
+      }
+    }
+  }
+
+  private static boolean isNotEmpty(DsmCell cell) {
+    return cell.getEdge() != null && cell.getWeight() > 0;
+  }
+
+  private void serializeCell(DsmCell cell) {
+    json.append("\"i\":");
+    json.append(((Dependency) cell.getEdge()).getId());
+    json.append(",\"w\":");
+    json.append(cell.getWeight());
   }
 
   public static String serialize(Dsm<Resource> dsm) {
-    return new DsmSerializer(dsm).serialize();
+    return new DsmSerializer(dsm, false).serialize();
+  }
+
+  public static String serializeSparse(Dsm<Resource> dsm) {
+    return new DsmSerializer(dsm, true).serialize();
   }
 }
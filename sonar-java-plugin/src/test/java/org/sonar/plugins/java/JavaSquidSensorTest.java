@@ -20,8 +20,11 @@
 package org.sonar.plugins.java;
 
 import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.InputPath;
@@ -36,6 +39,7 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rules.RuleAnnotationUtils;
 import org.sonar.api.source.Highlightable;
 import org.sonar.api.source.Symbolizable;
+import org.sonar.java.AnalyzerMessage;
 import org.sonar.java.DefaultJavaResourceLocator;
 import org.sonar.java.JavaClasspath;
 import org.sonar.java.SonarComponents;
@@ -49,14 +53,19 @@ import java.io.File;
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class JavaSquidSensorTest {
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private final DefaultFileSystem fileSystem = new DefaultFileSystem(null);
   private JavaSquidSensor sensor;
 
@@ -100,6 +109,21 @@ public class JavaSquidSensorTest {
     settings.setProperty(CoreProperties.DESIGN_SKIP_DESIGN_PROPERTY, true);
     jss.analyse(project, context);
 
+    settings.setProperty(JavaPlugin.SYMBOLIC_EXECUTION_THREADS_PROPERTY, 2);
+    jss.analyse(project, context);
+    verify(sonarComponents, times(9)).addIssue(eq(file.getAbsoluteFile()), any(JavaCheck.class), any(Integer.class), eq(message), isNull(Double.class));
+
+    settings.setProperty(JavaPlugin.SYMBOLIC_EXECUTION_MAX_STEPS_PROPERTY, 10);
+    settings.setProperty(JavaPlugin.SYMBOLIC_EXECUTION_MAX_NODES_PROPERTY, 10);
+    jss.analyse(project, context);
+
+    settings.setProperty(JavaPlugin.SYMBOLIC_EXECUTION_STRATEGY_PROPERTY, "topological");
+    settings.setProperty(JavaPlugin.SYMBOLIC_EXECUTION_CLEANUP_PROPERTY, true);
+    jss.analyse(project, context);
+
+    settings.setProperty(JavaPlugin.SYMBOLIC_EXECUTION_STRATEGY_PROPERTY, "unknown");
+    jss.analyse(project, context);
+
     settings.setProperty(Java.SOURCE_VERSION, "wrongFormat");
     jss.analyse(project, context);
 
@@ -107,6 +131,40 @@ public class JavaSquidSensorTest {
     jss.analyse(project, context);
   }
 
+  @Test
+  public void issues_of_unchanged_files_should_be_replayed_from_cache_kept_outside_of_working_directory() throws Exception {
+    File workDir = temporaryFolder.newFolder("work");
+    File cacheDirectory = new File(temporaryFolder.getRoot(), "cache");
+    Settings settings = new Settings();
+    settings.setProperty(JavaPlugin.ANALYSIS_CACHE_PROPERTY, true);
+    settings.setProperty(JavaPlugin.ANALYSIS_CACHE_PATH_PROPERTY, cacheDirectory.getAbsolutePath());
+    settings.setProperty(CoreProperties.DESIGN_SKIP_DESIGN_PROPERTY, true);
+    DefaultFileSystem fs = new DefaultFileSystem(new File("src/test/java/"));
+    fs.setWorkDir(workDir);
+    File file = new File("src/test/java/org/sonar/plugins/java/JavaSquidSensorTest.java");
+    fs.add(new DefaultInputFile(file.getPath()).setFile(file).setLanguage("java"));
+    Project project = mock(Project.class);
+    JavaClasspath javaClasspath = new JavaClasspath(project, settings, fs);
+
+    SonarComponents sonarComponents = createSonarComponentsMock(fs);
+    when(sonarComponents.getRuleKey(isA(BadMethodName_S00100_Check.class))).thenReturn(RuleKey.of("squid", "S00100"));
+    DefaultJavaResourceLocator javaResourceLocator = new DefaultJavaResourceLocator(fs, javaClasspath, mock(SuppressWarningsFilter.class));
+    JavaSquidSensor jss = new JavaSquidSensor(javaClasspath, sonarComponents, fs, javaResourceLocator, settings, mock(NoSonarFilter.class));
+    SensorContext context = mock(SensorContext.class);
+    when(context.getResource(any(InputPath.class))).thenReturn(org.sonar.api.resources.File.create("src/test/java/org/sonar/plugins/java/JavaSquidSensorTest.java"));
+
+    jss.analyse(project, context);
+    verify(sonarComponents, times(3)).addIssue(eq(file.getAbsoluteFile()), any(JavaCheck.class), any(Integer.class), any(String.class), isNull(Double.class));
+    verify(sonarComponents, never()).reportIssue(any(AnalyzerMessage.class));
+    assertThat(new File(cacheDirectory, "main.cache")).isFile();
+
+    // working directory is cleaned before each analysis
+    FileUtils.deleteDirectory(workDir);
+    jss.analyse(project, context);
+    verify(sonarComponents, times(3)).addIssue(eq(file.getAbsoluteFile()), any(JavaCheck.class), any(Integer.class), any(String.class), isNull(Double.class));
+    verify(sonarComponents, times(3)).reportIssue(any(AnalyzerMessage.class));
+  }
+
   private static SonarComponents createSonarComponentsMock(DefaultFileSystem fs) {
     SonarComponents sonarComponents = mock(SonarComponents.class);
     BadMethodName_S00100_Check check = new BadMethodName_S00100_Check();
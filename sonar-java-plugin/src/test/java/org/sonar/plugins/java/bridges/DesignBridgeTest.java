@@ -19,21 +19,33 @@
  */
 package org.sonar.plugins.java.bridges;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.component.ResourcePerspectives;
 import org.sonar.api.design.Dependency;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
 import org.sonar.api.measures.Metric;
+import org.sonar.api.resources.Directory;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
 import org.sonar.graph.DirectedGraph;
 import org.sonar.java.bytecode.visitor.ResourceMapping;
 
+import java.util.List;
+
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DesignBridgeTest {
 
@@ -49,4 +61,65 @@ public class DesignBridgeTest {
     verify(context, times(4)).saveMeasure(any(Resource.class), any(Metric.class), anyDouble());
 
   }
+
+  @Test
+  public void packages_are_analyzed_in_parallel() throws Exception {
+    SensorContext context = mock(SensorContext.class);
+    Directory package1 = mock(Directory.class);
+    Directory package2 = mock(Directory.class);
+    Resource a = file(context);
+    Resource b = file(context);
+    Resource c = file(context);
+    DirectedGraph<Resource, Dependency> graph = new DirectedGraph<>();
+    graph.addEdge(dependency(a, b));
+    graph.addEdge(dependency(b, a));
+    ResourceMapping resourceMapping = mock(ResourceMapping.class);
+    when(resourceMapping.directories()).thenReturn(ImmutableSet.<Resource>of(package1, package2));
+    when(resourceMapping.files(package1)).thenReturn(ImmutableList.of(a, b));
+    when(resourceMapping.files(package2)).thenReturn(ImmutableList.of(c));
+
+    DesignBridge bridge = new DesignBridge(context, graph, resourceMapping, mock(ResourcePerspectives.class));
+    bridge.setWorkers(2);
+    bridge.saveDesign(mock(Project.class));
+
+    verify(context).saveMeasure(package1, CoreMetrics.FILE_CYCLES, 1.0);
+    verify(context).saveMeasure(package1, CoreMetrics.FILE_EDGES_WEIGHT, 2.0);
+    verify(context).saveMeasure(package2, CoreMetrics.FILE_CYCLES, 0.0);
+    verify(context, times(12)).saveMeasure(any(Resource.class), any(Metric.class), anyDouble());
+    verify(context, times(3)).saveMeasure(any(Resource.class), any(Measure.class));
+  }
+
+  @Test
+  public void packages_analyzed_in_parallel_are_saved_in_order() throws Exception {
+    SensorContext context = mock(SensorContext.class);
+    ResourceMapping resourceMapping = mock(ResourceMapping.class);
+    List<Resource> packages = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      Directory sonarPackage = mock(Directory.class);
+      when(resourceMapping.files(sonarPackage)).thenReturn(ImmutableList.of(file(context)));
+      packages.add(sonarPackage);
+    }
+    when(resourceMapping.directories()).thenReturn(ImmutableSet.copyOf(packages));
+
+    DesignBridge bridge = new DesignBridge(context, new DirectedGraph<Resource, Dependency>(), resourceMapping, mock(ResourcePerspectives.class));
+    bridge.setWorkers(2);
+    bridge.saveDesign(mock(Project.class));
+
+    InOrder inOrder = inOrder(context);
+    for (Resource sonarPackage : packages) {
+      inOrder.verify(context).saveMeasure(eq(sonarPackage), any(Measure.class));
+    }
+  }
+
+  private static Dependency dependency(Resource from, Resource to) {
+    Dependency dependency = new Dependency(from, to);
+    dependency.setWeight(1);
+    return dependency;
+  }
+
+  private static Resource file(SensorContext context) {
+    Resource file = mock(Resource.class);
+    when(context.getResource(file)).thenReturn(file);
+    return file;
+  }
 }
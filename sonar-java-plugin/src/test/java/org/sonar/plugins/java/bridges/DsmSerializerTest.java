@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012 SonarSource
+ * sonarqube@googlegroups.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02
+ */
+package org.sonar.plugins.java.bridges;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sonar.api.design.Dependency;
+import org.sonar.api.resources.Resource;
+import org.sonar.graph.DirectedGraph;
+import org.sonar.graph.Dsm;
+import org.sonar.graph.Edge;
+
+import java.util.Collections;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DsmSerializerTest {
+
+  @Test
+  public void dense_and_sparse_formats() {
+    Resource a = resource(1, "A");
+    Resource b = resource(2, "B");
+    Dependency dependency = new Dependency(a, b);
+    dependency.setId(42L);
+    dependency.setWeight(3);
+    DirectedGraph<Resource, Dependency> graph = new DirectedGraph<>();
+    graph.addEdge(dependency);
+    Dsm<Resource> dsm = new Dsm<>(graph, ImmutableList.of(a, b), Collections.<Edge>emptySet());
+
+    assertThat(DsmSerializer.serialize(dsm)).isEqualTo("["
+      + "{\"i\":1,\"n\":\"A\",\"q\":\"FIL\",\"v\":[{},{}]},"
+      + "{\"i\":2,\"n\":\"B\",\"q\":\"FIL\",\"v\":[{\"i\":42,\"w\":3},{}]}"
+      + "]");
+    assertThat(DsmSerializer.serializeSparse(dsm)).isEqualTo("["
+      + "{\"i\":1,\"n\":\"A\",\"q\":\"FIL\",\"v\":[]},"
+      + "{\"i\":2,\"n\":\"B\",\"q\":\"FIL\",\"v\":[{\"x\":0,\"i\":42,\"w\":3}]}"
+      + "]");
+  }
+
+  private static Resource resource(int id, String name) {
+    Resource resource = mock(Resource.class);
+    when(resource.getId()).thenReturn(id);
+    when(resource.getName()).thenReturn(name);
+    when(resource.getQualifier()).thenReturn("FIL");
+    return resource;
+  }
+}